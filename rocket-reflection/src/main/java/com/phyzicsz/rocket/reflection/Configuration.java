@@ -2,11 +2,14 @@
 
 package com.phyzicsz.rocket.reflection;
 
+import com.phyzicsz.rocket.reflection.adapters.ConstantPoolFilter;
 import com.phyzicsz.rocket.reflection.adapters.MetadataAdapter;
+import com.phyzicsz.rocket.reflection.adapters.MetadataLevel;
 import com.phyzicsz.rocket.reflection.scanners.Scanner;
 import java.net.URL;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
 
@@ -34,6 +37,16 @@ public interface Configuration {
     @SuppressWarnings({"RawUseOfParameterizedType"})
     MetadataAdapter<?,?,?> getMetadataAdapter();
 
+    /**
+     * the metadata level class files are parsed to, which is the highest level
+     * required by the scanners. by default, the whole class file is parsed
+     *
+     * @return the metadata level
+     */
+    default MetadataLevel getMetadataLevel() {
+        return MetadataLevel.CODE;
+    }
+
     /**
      * get the fully qualified name filter used to filter types to be scanned
      *
@@ -49,6 +62,26 @@ public interface Configuration {
      */
     ExecutorService getExecutorService();
 
+    /**
+     * the staged pipeline used to scan files. if not null, it is used instead
+     * of the executor service
+     *
+     * @return the scan pipeline
+     */
+    default ScanPipeline getScanPipeline() {
+        return null;
+    }
+
+    /**
+     * the filter class files are tested with before being parsed. if null,
+     * every class file accepted by the inputs filter is parsed.
+     *
+     * @return the constant pool filter
+     */
+    default ConstantPoolFilter getConstantPoolFilter() {
+        return null;
+    }
+
     /**
      * get class loaders, might be used for resolving methods/fields
      *
@@ -63,4 +96,57 @@ public interface Configuration {
      * @return true or false if should expand super types
      */
     boolean shouldExpandSuperTypes();
+
+    /**
+     * if true, the scanners implementing
+     * {@link com.phyzicsz.rocket.reflection.scanners.ClassVisitor} share a
+     * single walk over each class, instead of each walking it on its own.
+     * false by default
+     *
+     * @return true if scanners should be fused
+     */
+    default boolean shouldFuseScanners() {
+        return false;
+    }
+
+    /**
+     * the factory the store is created with. if null, a {@link Store} is
+     * created
+     *
+     * @return the store factory
+     */
+    default Function<Configuration, Store> getStoreFactory() {
+        return null;
+    }
+
+    /**
+     * if true, the store is frozen into an immutable {@link FrozenStore} once
+     * scanning and expanding super types are done. false by default
+     *
+     * @return true if the store should be frozen
+     */
+    default boolean shouldFreezeStore() {
+        return false;
+    }
+
+    /**
+     * if true, each scanning thread puts its results in a store of its own,
+     * merged into the store once scanning is done. false by default
+     *
+     * @return true if the store should be sharded while scanning
+     */
+    default boolean shouldShardStore() {
+        return false;
+    }
+
+    /**
+     * the specification of the cache of query results, in the format of
+     * {@link com.google.common.cache.CacheBuilderSpec}. if null, query
+     * results are not cached
+     *
+     * @return the query cache specification
+     */
+    default String getQueryCacheSpec() {
+        return null;
+    }
 }
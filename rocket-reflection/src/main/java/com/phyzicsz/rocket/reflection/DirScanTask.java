@@ -0,0 +1,61 @@
+package com.phyzicsz.rocket.reflection;
+
+import com.phyzicsz.rocket.reflection.vfs.SystemDir;
+import com.phyzicsz.rocket.reflection.vfs.Vfs;
+import com.phyzicsz.rocket.reflection.vfs.ZipDir;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * fork/join task scanning a range of the files of a single {@link Vfs.Dir}.
+ * <p>
+ * the range is split in halves until it is small enough to be scanned inline,
+ * so idle workers of the pool can steal the other halves.
+ */
+@SuppressWarnings("serial")
+class DirScanTask extends RecursiveAction {
+
+    /**
+     * the number of files below which a range is scanned without splitting
+     */
+    static final int THRESHOLD = 64;
+
+    private final RocketReflection reflection;
+    private final URL url;
+    private final List<Vfs.File> files;
+    private final int from;
+    private final int to;
+
+    DirScanTask(RocketReflection reflection, URL url, List<Vfs.File> files, int from, int to) {
+        this.reflection = reflection;
+        this.url = url;
+        this.files = files;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * dirs which entries can be opened independently of each other, in any
+     * order and from any thread
+     *
+     * @param dir the dir
+     * @return true if the entries of the dir can be split into ranges
+     */
+    static boolean isSplittable(Vfs.Dir dir) {
+        return dir instanceof ZipDir || dir instanceof SystemDir;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= THRESHOLD) {
+            for (int i = from; i < to; i++) {
+                reflection.scan(url, files.get(i));
+            }
+        } else {
+            int middle = (from + to) >>> 1;
+            invokeAll(new DirScanTask(reflection, url, files, from, middle),
+                    new DirScanTask(reflection, url, files, middle, to));
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.phyzicsz.rocket.reflection;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * an immutable store, compacted from another one once scanning is done.
+ * <p>
+ * the store is kept in the layout of {@link StoreLayout}: keys and values are
+ * ids into a sorted array of the distinct strings of all indices, and each
+ * index is an array of sorted key ids and an array of value ids sliced by
+ * offsets. lookups are binary searches over the keys and take no lock.
+ */
+public final class FrozenStore extends Store {
+
+    private final String[] symbols;
+    private final Map<String, StoreLayout.Index> indices;
+
+    private FrozenStore(String[] symbols, Map<String, StoreLayout.Index> indices) {
+        this.symbols = symbols;
+        this.indices = indices;
+    }
+
+    /**
+     * compacts the content of a store
+     *
+     * @param store the store to compact
+     * @return the frozen store
+     */
+    static FrozenStore of(Store store) {
+        StoreLayout layout = StoreLayout.of(store, Comparator.naturalOrder(), false);
+        return new FrozenStore(layout.symbols(), layout.indices());
+    }
+
+    /**
+     * the number of distinct keys and values, across all indices
+     *
+     * @return the number of symbols
+     */
+    public int symbolCount() {
+        return symbols.length;
+    }
+
+    @Override
+    public FrozenStore freeze() {
+        return this;
+    }
+
+    /**
+     * the counters of each index, taken from its arrays. bytes are those of
+     * the arrays, the strings being shared by all indices.
+     */
+    @Override
+    public Map<String, IndexStats> stats() {
+        Map<String, IndexStats> result = new TreeMap<>();
+        for (Map.Entry<String, StoreLayout.Index> entry : indices.entrySet()) {
+            StoreLayout.Index map = entry.getValue();
+            result.put(entry.getKey(), new IndexStats(entry.getKey(), map.keys.length, map.values.length, 0,
+                    4L * (map.keys.length + map.offsets.length + map.values.length) + 3 * 16));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return Collections.unmodifiableSet(indices.keySet());
+    }
+
+    @Override
+    protected Collection<String> lookup(String index, String key) {
+        StoreLayout.Index map = indices.get(index);
+        int id = Arrays.binarySearch(symbols, key);
+        int k = id >= 0 ? Arrays.binarySearch(map.keys, id) : -1;
+        if (k < 0) {
+            return null;
+        }
+        String[] result = new String[map.offsets[k + 1] - map.offsets[k]];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = symbols[map.values[map.offsets[k] + i]];
+        }
+        return Arrays.asList(result);
+    }
+
+    @Override
+    public Set<String> keys(String index) {
+        StoreLayout.Index map = indices.get(index);
+        if (map == null) {
+            return Collections.emptySet();
+        }
+        Set<String> result = new HashSet<>(map.keys.length * 4 / 3 + 1);
+        for (int key : map.keys) {
+            result.add(symbols[key]);
+        }
+        return result;
+    }
+
+    @Override
+    public Set<String> values(String index) {
+        StoreLayout.Index map = indices.get(index);
+        if (map == null) {
+            return Collections.emptySet();
+        }
+        BitSet ids = new BitSet(symbols.length);
+        for (int value : map.values) {
+            ids.set(value);
+        }
+        Set<String> result = new HashSet<>(ids.cardinality() * 4 / 3 + 1);
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            result.add(symbols[id]);
+        }
+        return result;
+    }
+
+    @Override
+    public Stream<String> keyStream(String index) {
+        StoreLayout.Index map = indices.get(index);
+        return map != null ? Arrays.stream(map.keys).mapToObj(key -> symbols[key]) : Stream.empty();
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    /**
+     * a frozen store can't be modified
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean put(String index, String key, String value) {
+        throw new UnsupportedOperationException("store is frozen");
+    }
+}
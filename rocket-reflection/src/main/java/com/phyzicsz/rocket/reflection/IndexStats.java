@@ -0,0 +1,79 @@
+package com.phyzicsz.rocket.reflection;
+
+/**
+ * the counters of an index of the {@link Store}, as returned by
+ * {@link Store#stats()}
+ */
+public final class IndexStats {
+
+    private final String index;
+    private final long keys;
+    private final long values;
+    private final long duplicates;
+    private final long bytes;
+
+    public IndexStats(String index, long keys, long values, long duplicates, long bytes) {
+        this.index = index;
+        this.keys = keys;
+        this.values = values;
+        this.duplicates = duplicates;
+        this.bytes = bytes;
+    }
+
+    /**
+     * the name of the index
+     *
+     * @return the index
+     */
+    public String getIndex() {
+        return index;
+    }
+
+    /**
+     * the number of distinct keys
+     *
+     * @return the number of keys
+     */
+    public long getKeys() {
+        return keys;
+    }
+
+    /**
+     * the number of values the index holds, summed over its keys. stores
+     * that skip duplicates, such as {@link SnapshotStore} and
+     * {@link FrozenStore}, count a value once per key. stores that keep
+     * duplicates, such as {@link Store} and {@link SymbolStore}, count every
+     * put, which is what they hold, so that this is then the number of puts.
+     *
+     * @return the number of values
+     */
+    public long getValues() {
+        return values;
+    }
+
+    /**
+     * the number of values put for a key that already had them, for the
+     * stores that skip duplicates. stores that keep duplicates, such as
+     * {@link Store} and {@link SymbolStore}, always report 0, their
+     * duplicates being counted in {@link #getValues()}
+     *
+     * @return the number of duplicate puts
+     */
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * the approximate size of the index in memory
+     *
+     * @return the number of bytes
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return index + "[" + keys + " keys, " + values + " values, " + duplicates + " duplicates, ~" + bytes + " bytes]";
+    }
+}
@@ -0,0 +1,356 @@
+package com.phyzicsz.rocket.reflection;
+
+import com.google.common.primitives.UnsignedBytes;
+import com.phyzicsz.rocket.reflection.exception.ReflectionException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * a read only store kept in a memory mapped file, so that its size does not
+ * count in the heap, and the pages of the file are shared by all the
+ * processes mapping it.
+ * <p>
+ * the file is written once with {@link #write(Store, Path)}, then opened
+ * with {@link #open(Path)}, possibly in another jvm. it holds the distinct
+ * strings of all indices as utf-8, in unsigned byte order, and each index in
+ * the layout of {@link StoreLayout}: sorted key ids, and the value ids of each
+ * key sliced by offsets. lookups are binary searches in the mapped file, and
+ * only the results are decoded on the heap.
+ * <p>
+ * <pre>
+ * int magic, int symbol count, int index count
+ * int[symbol count + 1] symbol offsets, byte[] symbols, padded to 4 bytes
+ * for each index:
+ *   int name id, int key count, int value count
+ *   int[key count] keys, int[key count + 1] offsets, int[value count] values
+ * </pre>
+ * a file is at most 2GB, the size of a single mapping.
+ */
+public final class MappedStore extends Store {
+
+    private static final int MAGIC = 0x524B5331;
+
+    private final ByteBuffer buffer;
+    private final int symbolCount;
+    private final int symbolOffsets;
+    private final int symbolBytes;
+    private final Map<String, Index> indices;
+
+    private MappedStore(ByteBuffer buffer) {
+        this.buffer = buffer;
+        int size = buffer.capacity();
+        if (size < 12 || buffer.getInt(0) != MAGIC) {
+            throw new ReflectionException("not a store file");
+        }
+        symbolCount = buffer.getInt(4);
+        int indexCount = buffer.getInt(8);
+        symbolOffsets = 12;
+        checkSize(symbolCount >= 0 && indexCount >= 0 && symbolOffsets + (symbolCount + 1L) * 4 <= size);
+        symbolBytes = symbolOffsets + (symbolCount + 1) * 4;
+
+        Map<String, Index> map = new HashMap<>();
+        long position = align(symbolBytes + (long) buffer.getInt(symbolOffsets + symbolCount * 4));
+        checkSize(position <= size);
+        for (int i = 0; i < indexCount; i++) {
+            checkSize(position + 12 <= size);
+            Index index = new Index((int) position);
+            checkSize(index.keyCount >= 0 && index.valueCount >= 0
+                    && position + 12 + (index.keyCount * 2L + 1 + index.valueCount) * 4 <= size);
+            map.put(symbol(buffer.getInt((int) position)), index);
+            position = index.end();
+        }
+        indices = Collections.unmodifiableMap(map);
+    }
+
+    private static void checkSize(boolean valid) {
+        if (!valid) {
+            throw new ReflectionException("store file is truncated");
+        }
+    }
+
+    /**
+     * maps a store file written by {@link #write(Store, Path)}
+     *
+     * @param path the store file
+     * @return the mapped store
+     */
+    public static MappedStore open(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new MappedStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new ReflectionException("could not open store file " + path, e);
+        }
+    }
+
+    /**
+     * writes the content of a store to a file, to be opened with
+     * {@link #open(Path)}
+     *
+     * @param store the store to write
+     * @param path the store file, replaced if it exists
+     */
+    public static void write(Store store, Path path) {
+        StoreLayout layout = StoreLayout.of(store, StoreLayout.CODE_POINT_ORDER, true);
+        String[] strings = layout.symbols();
+        List<byte[]> symbols = new ArrayList<>(strings.length);
+        long size = 12 + (strings.length + 1) * 4L;
+        for (String string : strings) {
+            byte[] symbol = string.getBytes(StandardCharsets.UTF_8);
+            symbols.add(symbol);
+            size += symbol.length;
+        }
+        size = align(size);
+
+        Map<String, StoreLayout.Index> indices = layout.indices();
+        for (StoreLayout.Index index : indices.values()) {
+            size += 12 + (index.keys.length + index.offsets.length + index.values.length) * 4L;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new ReflectionException("store is too large to be mapped: " + size + " bytes");
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            out.putInt(MAGIC).putInt(symbols.size()).putInt(indices.size());
+            int offset = 0;
+            for (byte[] symbol : symbols) {
+                out.putInt(offset);
+                offset += symbol.length;
+            }
+            out.putInt(offset);
+            for (byte[] symbol : symbols) {
+                out.put(symbol);
+            }
+            out.position((int) align(out.position()));
+
+            for (Map.Entry<String, StoreLayout.Index> entry : indices.entrySet()) {
+                StoreLayout.Index index = entry.getValue();
+                out.putInt(Arrays.binarySearch(strings, entry.getKey(), StoreLayout.CODE_POINT_ORDER))
+                        .putInt(index.keys.length).putInt(index.values.length);
+                for (int[] array : new int[][]{index.keys, index.offsets, index.values}) {
+                    for (int value : array) {
+                        out.putInt(value);
+                    }
+                }
+            }
+            out.force();
+        } catch (IOException e) {
+            throw new ReflectionException("could not write store file " + path, e);
+        }
+    }
+
+    private static int align(int position) {
+        return (position + 3) & ~3;
+    }
+
+    private static long align(long position) {
+        return (position + 3) & ~3L;
+    }
+
+    /**
+     * the number of distinct keys, values and index names
+     *
+     * @return the number of symbols
+     */
+    public int symbolCount() {
+        return symbolCount;
+    }
+
+    private String symbol(int id) {
+        int start = buffer.getInt(symbolOffsets + id * 4);
+        int end = buffer.getInt(symbolOffsets + id * 4 + 4);
+        byte[] bytes = new byte[end - start];
+        ByteBuffer view = buffer.duplicate();
+        view.position(symbolBytes + start);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * the id of a symbol, or -1 if it is not in the file
+     */
+    private int find(String symbol) {
+        byte[] bytes = symbol.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = symbolCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(mid, bytes);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int compare(int id, byte[] bytes) {
+        int start = symbolBytes + buffer.getInt(symbolOffsets + id * 4);
+        int length = symbolBytes + buffer.getInt(symbolOffsets + id * 4 + 4) - start;
+        int min = Math.min(length, bytes.length);
+        for (int i = 0; i < min; i++) {
+            int cmp = UnsignedBytes.compare(buffer.get(start + i), bytes[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - bytes.length;
+    }
+
+    /**
+     * the counters of each index, taken from its header. bytes are those of
+     * the index in the file, the strings being shared by all indices.
+     */
+    @Override
+    public Map<String, IndexStats> stats() {
+        Map<String, IndexStats> result = new TreeMap<>();
+        for (Map.Entry<String, Index> entry : indices.entrySet()) {
+            Index map = entry.getValue();
+            result.put(entry.getKey(), new IndexStats(entry.getKey(), map.keyCount, map.valueCount, 0,
+                    map.end() - map.keys + 12));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return indices.keySet();
+    }
+
+    @Override
+    protected Collection<String> lookup(String index, String key) {
+        Index map = indices.get(index);
+        int id = find(key);
+        int k = id >= 0 ? map.find(id) : -1;
+        if (k < 0) {
+            return null;
+        }
+        int start = map.offset(k);
+        String[] result = new String[map.offset(k + 1) - start];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = symbol(map.value(start + i));
+        }
+        return Arrays.asList(result);
+    }
+
+    @Override
+    public Set<String> keys(String index) {
+        Index map = indices.get(index);
+        if (map == null) {
+            return Collections.emptySet();
+        }
+        Set<String> result = new HashSet<>(map.keyCount * 4 / 3 + 1);
+        for (int k = 0; k < map.keyCount; k++) {
+            result.add(symbol(map.key(k)));
+        }
+        return result;
+    }
+
+    @Override
+    public Set<String> values(String index) {
+        Index map = indices.get(index);
+        if (map == null) {
+            return Collections.emptySet();
+        }
+        BitSet ids = new BitSet(symbolCount);
+        for (int i = 0; i < map.valueCount; i++) {
+            ids.set(map.value(i));
+        }
+        Set<String> result = new HashSet<>(ids.cardinality() * 4 / 3 + 1);
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            result.add(symbol(id));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    /**
+     * a mapped store can't be modified
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean put(String index, String key, String value) {
+        throw new UnsupportedOperationException("store is mapped read only");
+    }
+
+    /**
+     * the positions of the arrays of an index in the file
+     */
+    private final class Index {
+
+        private final int keyCount;
+        private final int valueCount;
+        private final int keys;
+        private final int offsets;
+        private final int values;
+
+        Index(int position) {
+            keyCount = buffer.getInt(position + 4);
+            valueCount = buffer.getInt(position + 8);
+            keys = position + 12;
+            offsets = keys + keyCount * 4;
+            values = offsets + (keyCount + 1) * 4;
+        }
+
+        int end() {
+            return values + valueCount * 4;
+        }
+
+        int key(int k) {
+            return buffer.getInt(keys + k * 4);
+        }
+
+        int offset(int k) {
+            return buffer.getInt(offsets + k * 4);
+        }
+
+        int value(int i) {
+            return buffer.getInt(values + i * 4);
+        }
+
+        /**
+         * the position of a key id in the keys, or -1
+         */
+        int find(int id) {
+            int low = 0;
+            int high = keyCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int key = key(mid);
+                if (key < id) {
+                    low = mid + 1;
+                } else if (key > id) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+    }
+}
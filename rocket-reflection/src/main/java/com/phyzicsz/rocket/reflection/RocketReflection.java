@@ -1,24 +1,42 @@
 package com.phyzicsz.rocket.reflection;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.phyzicsz.rocket.reflection.adapters.AnnotationValues;
+import com.phyzicsz.rocket.reflection.adapters.ConstantPoolFilter;
 import com.phyzicsz.rocket.reflection.util.ReflectionUtils;
 import com.phyzicsz.rocket.reflection.exception.ReflectionException;
+import com.phyzicsz.rocket.reflection.index.CallGraph;
+import com.phyzicsz.rocket.reflection.index.ResourceTrie;
+import com.phyzicsz.rocket.reflection.index.TypeHierarchy;
+import com.phyzicsz.rocket.reflection.index.TypeIndex;
+import com.phyzicsz.rocket.reflection.index.TypeQuery;
+import com.phyzicsz.rocket.reflection.index.TypeSet;
 import static com.phyzicsz.rocket.reflection.util.ReflectionUtils.forName;
 import static com.phyzicsz.rocket.reflection.util.ReflectionUtils.forNames;
 import static com.phyzicsz.rocket.reflection.util.ReflectionUtils.withAnnotation;
 import static com.phyzicsz.rocket.reflection.util.ReflectionUtils.withAnyParameterAnnotation;
+import com.phyzicsz.rocket.reflection.scanners.ClassVisitor;
 import com.phyzicsz.rocket.reflection.scanners.FieldAnnotationsScanner;
 import com.phyzicsz.rocket.reflection.scanners.MemberUsageScanner;
 import com.phyzicsz.rocket.reflection.scanners.MethodAnnotationsScanner;
 import com.phyzicsz.rocket.reflection.scanners.MethodParameterNamesScanner;
 import com.phyzicsz.rocket.reflection.scanners.MethodParameterScanner;
 import com.phyzicsz.rocket.reflection.scanners.ResourcesScanner;
+import com.phyzicsz.rocket.reflection.scanners.ScanContext;
 import com.phyzicsz.rocket.reflection.scanners.Scanner;
 import com.phyzicsz.rocket.reflection.scanners.SubTypesScanner;
 import com.phyzicsz.rocket.reflection.scanners.TypeAnnotationsScanner;
+import com.phyzicsz.rocket.reflection.util.ClasspathHelper;
 import com.phyzicsz.rocket.reflection.util.ConfigurationBuilder;
 import com.phyzicsz.rocket.reflection.util.Utils;
+import com.phyzicsz.rocket.reflection.util.VirtualThreads;
+import com.phyzicsz.rocket.reflection.vfs.BufferedFile;
 import com.phyzicsz.rocket.reflection.vfs.Vfs;
 import static java.lang.String.format;
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Inherited;
 import java.lang.reflect.Constructor;
@@ -30,16 +48,26 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,10 +77,19 @@ public class RocketReflection {
 
     protected final transient Configuration configuration;
     protected Store store;
+    private transient ConstantPoolFilter constantPoolFilter;
+    private transient volatile Derived<CallGraph> callGraph;
+    private transient volatile Derived<TypeHierarchy> typeHierarchy;
+    private transient volatile Derived<ResourceTrie> resourceTrie;
+    private transient volatile Derived<TypeIndex> typeIndex;
+    private transient StoreShards shards;
+    private final transient Cache<List<Object>, Set<?>> queryCache;
+    private transient long queryCacheVersion;
 
     public RocketReflection(final Configuration configuration) {
         this.configuration = configuration;
-        store = new Store(configuration);
+        store = createStore(configuration);
+        queryCache = createQueryCache(configuration);
 
         if (configuration.getScanners() != null && !configuration.getScanners().isEmpty()) {
             //inject to scanners
@@ -65,9 +102,26 @@ public class RocketReflection {
             if (configuration.shouldExpandSuperTypes()) {
                 expandSuperTypes();
             }
+
+            if (configuration.shouldFreezeStore()) {
+                store = store.freeze();
+            }
         }
     }
 
+    /**
+     * uses a store that was populated beforehand, such as a
+     * {@link MappedStore} opened from a file, instead of scanning
+     *
+     * @param configuration the configuration, used for its class loaders
+     * @param store the store to query
+     */
+    public RocketReflection(final Configuration configuration, final Store store) {
+        this.configuration = configuration;
+        this.store = store;
+        queryCache = createQueryCache(configuration);
+    }
+
     public RocketReflection(final String prefix, final Scanner... scanners) {
         this((Object) prefix, scanners);
     }
@@ -79,6 +133,61 @@ public class RocketReflection {
     protected RocketReflection() {
         configuration = new ConfigurationBuilder();
         store = new Store(configuration);
+        queryCache = null;
+    }
+
+    private static Store createStore(Configuration configuration) {
+        Function<Configuration, Store> storeFactory = configuration.getStoreFactory();
+        return storeFactory != null ? storeFactory.apply(configuration) : new Store(configuration);
+    }
+
+    private static Cache<List<Object>, Set<?>> createQueryCache(Configuration configuration) {
+        String spec = configuration.getQueryCacheSpec();
+        if (spec == null) {
+            return null;
+        }
+        CacheBuilder<Object, Object> builder = CacheBuilder.from(spec).recordStats();
+        if (spec.contains("maximumWeight")) {
+            builder.weigher((Object key, Object value) -> ((Set<?>) value).size() + 1);
+        }
+        return builder.build();
+    }
+
+    /**
+     * run a query, or take its result from the query cache, if configured.
+     * results are cached by query name and arguments, for the current version
+     * of the store, and a copy is returned so callers may modify it.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Set<T> query(Supplier<Set<T>> query, Object... key) {
+        if (queryCache == null) {
+            return query.get();
+        }
+        long version = store.version();
+        if (version != queryCacheVersion) {
+            //the store changed, no cached result can be used again
+            queryCache.invalidateAll();
+            queryCacheVersion = version;
+        }
+        List<Object> cacheKey = new ArrayList<>(key.length + 1);
+        cacheKey.add(version);
+        cacheKey.addAll(Arrays.asList(key));
+        try {
+            return new LinkedHashSet<>((Set<T>) queryCache.get(cacheKey, () -> Collections.unmodifiableSet(query.get())));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new ReflectionException("query failed", cause);
+        }
+    }
+
+    /**
+     * the statistics of the query cache, such as its hit rate. all zero if
+     * there is no query cache.
+     *
+     * @return the query cache statistics
+     */
+    public CacheStats getQueryCacheStats() {
+        return queryCache != null ? queryCache.stats() : new CacheStats(0, 0, 0, 0, 0, 0);
     }
 
     //
@@ -94,7 +203,30 @@ public class RocketReflection {
             logger.trace("going to scan these urls: {}", configuration.getUrls());
         }
 
+        constantPoolFilter = configuration.getConstantPoolFilter();
+        if (constantPoolFilter != null && logger.isTraceEnabled()) {
+            logger.trace("prefiltering class files with {}", constantPoolFilter);
+        }
+
         long time = System.currentTimeMillis();
+        if (configuration.shouldShardStore()) {
+            shards = new StoreShards();
+        }
+        ScanPipeline pipeline = configuration.getScanPipeline();
+        if (pipeline != null) {
+            if (configuration.getExecutorService() != null) {
+                //the pipeline runs its own threads
+                configuration.getExecutorService().shutdown();
+            }
+            int scannedUrls = pipeline.scan(this, configuration.getUrls());
+            mergeShards();
+            store.publish();
+            logger.info(format("Reflections took %d ms to scan %d urls, producing %s [using a pipeline of %d io, %d parser and %d indexer threads]",
+                    System.currentTimeMillis() - time, scannedUrls, producingDescription(store),
+                    pipeline.getIoThreads(), pipeline.getParserThreads(), pipeline.getIndexerThreads()));
+            return;
+        }
+
         int scannedUrls = 0;
         ExecutorService executorService = configuration.getExecutorService();
         List<Future<?>> futures = new ArrayList<>();
@@ -107,9 +239,11 @@ public class RocketReflection {
                             logger.trace("[{}] scanning {}", Thread.currentThread().toString(), url);
                         }
                         scan(url);
+                        store.publish();
                     }));
                 } else {
                     scan(url);
+                    store.publish();
                 }
                 scannedUrls++;
             } catch (ReflectionException e) {
@@ -133,20 +267,39 @@ public class RocketReflection {
         if (executorService != null) {
             executorService.shutdown();
         }
+        mergeShards();
+        store.publish();
 
         logger.info(format("Reflections took %d ms to scan %d urls, producing %s %s",
                 System.currentTimeMillis() - time, scannedUrls, producingDescription(store),
                 executorService instanceof ThreadPoolExecutor
-                        ? format("[using %d cores]", ((ThreadPoolExecutor) executorService).getMaximumPoolSize()) : ""));
+                        ? format("[using %d cores]", ((ThreadPoolExecutor) executorService).getMaximumPoolSize())
+                        : executorService instanceof ForkJoinPool
+                        ? format("[using %d cores]", ((ForkJoinPool) executorService).getParallelism()) : ""));
+
+    }
 
+    /**
+     * merge the per thread stores, if any, into the store
+     */
+    private void mergeShards() {
+        if (shards != null) {
+            shards.merge(store);
+            shards = null;
+        }
     }
 
+    /**
+     * the keys and values of the store, from its statistics. the values are
+     * summed over the keys of each index, including the duplicates of the
+     * stores keeping them, see {@link IndexStats#getValues()}
+     */
     private static String producingDescription(Store store) {
-        int keys = 0;
-        int values = 0;
-        for (String index : store.keySet()) {
-            keys += store.keys(index).size();
-            values += store.values(index).size();
+        long keys = 0;
+        long values = 0;
+        for (IndexStats stats : store.stats().values()) {
+            keys += stats.getKeys();
+            values += stats.getValues();
         }
         return String.format("%d keys and %d values", keys, values);
     }
@@ -155,25 +308,17 @@ public class RocketReflection {
         Vfs.Dir dir = Vfs.fromURL(url);
 
         try {
-            for (final Vfs.File file : dir.getFiles()) {
-                // scan if inputs filter accepts file relative path or fqn
-                Predicate<String> inputsFilter = configuration.getInputsFilter();
-                String path = file.getRelativePath();
-                String fqn = path.replace('/', '.');
-                if (inputsFilter == null || inputsFilter.test(path) || inputsFilter.test(fqn)) {
-                    Object classObject = null;
-                    for (Scanner scanner : configuration.getScanners()) {
-                        try {
-                            if (scanner.acceptsInput(path) || scanner.acceptsInput(fqn)) {
-                                classObject = scanner.scan(file, classObject, store);
-                            }
-                        } catch (Exception e) {
-                            if (logger.isTraceEnabled()) {
-
-                                logger.trace("could not scan file {} in url {} with scanner {}", file.getRelativePath(), url.toExternalForm(), scanner.getClass().getSimpleName(), e);
-                            }
-                        }
-                    }
+            if (configuration.getExecutorService() instanceof ForkJoinPool && DirScanTask.isSplittable(dir)) {
+                //split the entries of a single dir into ranges, so that one big jar is scanned by all workers
+                List<Vfs.File> files = new ArrayList<>();
+                dir.getFiles().forEach(files::add);
+                new DirScanTask(this, url, files, 0, files.size()).invoke();
+            } else if (VirtualThreads.isVirtual(Thread.currentThread()) && DirScanTask.isSplittable(dir)) {
+                //blocking reads are cheap on virtual threads, so give each file its own
+                VirtualThreads.forEach(dir.getFiles(), file -> scan(url, file));
+            } else {
+                for (final Vfs.File file : dir.getFiles()) {
+                    scan(url, file);
                 }
             }
         } finally {
@@ -181,6 +326,132 @@ public class RocketReflection {
         }
     }
 
+    protected void scan(URL url, Vfs.File file) {
+        if (acceptsInput(file)) {
+            if (constantPoolFilter != null && isClassFile(file)) {
+                BufferedFile buffered;
+                try {
+                    buffered = BufferedFile.read(file);
+                } catch (IOException e) {
+                    if (logger.isTraceEnabled()) {
+                        logger.trace("could not read file {} in url {}", file.getRelativePath(), url.toExternalForm(), e);
+                    }
+                    return;
+                }
+                if (passesConstantPoolFilter(buffered)) {
+                    scan(url, buffered, null);
+                }
+            } else {
+                scan(url, file, null);
+            }
+        }
+    }
+
+    /**
+     * scan if inputs filter accepts file relative path or fqn
+     */
+    boolean acceptsInput(Vfs.File file) {
+        Predicate<String> inputsFilter = configuration.getInputsFilter();
+        String path = file.getRelativePath();
+        return inputsFilter == null || inputsFilter.test(path) || inputsFilter.test(path.replace('/', '.'));
+    }
+
+    /**
+     * test a class file against the constant pool filter, if any, before it is
+     * parsed
+     */
+    boolean passesConstantPoolFilter(BufferedFile file) {
+        return constantPoolFilter == null || !isClassFile(file) || constantPoolFilter.test(file.getBytes());
+    }
+
+    private static boolean isClassFile(Vfs.File file) {
+        return file.getRelativePath().endsWith(".class");
+    }
+
+    /**
+     * run the scanners accepting the given file, starting with the given
+     * class object, which may be null if not created yet
+     */
+    void scan(URL url, Vfs.File file, Object classObject) {
+        StoreShards shards = this.shards;
+        Store store = shards != null ? shards.get(this.store) : this.store;
+        if (configuration.shouldFuseScanners()) {
+            scanFused(url, file, classObject, store);
+            return;
+        }
+        String path = file.getRelativePath();
+        String fqn = path.replace('/', '.');
+        for (Scanner scanner : configuration.getScanners()) {
+            try {
+                if (scanner.acceptsInput(path) || scanner.acceptsInput(fqn)) {
+                    classObject = scanner.scan(file, classObject, store);
+                }
+            } catch (Exception e) {
+                if (logger.isTraceEnabled()) {
+
+                    logger.trace("could not scan file {} in url {} with scanner {}", file.getRelativePath(), url.toExternalForm(), scanner.getClass().getSimpleName(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * run the scanners accepting the given file, where the class visitors
+     * share a single walk over the class, and other scanners scan on their own.
+     * the scanners are asked about the relative path of the file only, as they
+     * tell files apart by their extension, which the dotted name has too
+     */
+    private void scanFused(URL url, Vfs.File file, Object classObject, Store store) {
+        String path = file.getRelativePath();
+        List<ClassVisitor> visitors = null;
+        for (Scanner scanner : configuration.getScanners()) {
+            try {
+                if (scanner.acceptsInput(path)) {
+                    if (scanner instanceof ClassVisitor) {
+                        if (visitors == null) {
+                            visitors = new ArrayList<>(configuration.getScanners().size());
+                        }
+                        visitors.add((ClassVisitor) scanner);
+                    } else {
+                        classObject = scanner.scan(file, classObject, store);
+                    }
+                }
+            } catch (Exception e) {
+                if (logger.isTraceEnabled()) {
+                    logger.trace("could not scan file {} in url {} with scanner {}", path, url.toExternalForm(), scanner.getClass().getSimpleName(), e);
+                }
+            }
+        }
+        if (visitors == null) {
+            return;
+        }
+
+        if (classObject == null) {
+            try {
+                classObject = configuration.getMetadataAdapter().getOrCreateClassObject(file, configuration.getMetadataLevel());
+            } catch (Exception e) {
+                if (logger.isTraceEnabled()) {
+                    logger.trace("could not create class object from file {} in url {}", path, url.toExternalForm(), e);
+                }
+                return;
+            }
+        }
+        Map<ClassVisitor, RuntimeException> failures;
+        try {
+            failures = new ScanContext(configuration.getMetadataAdapter(), classObject).accept(visitors, store);
+        } catch (Exception e) {
+            if (logger.isTraceEnabled()) {
+                logger.trace("could not scan file {} in url {} with scanners {}", path, url.toExternalForm(), visitors, e);
+            }
+            return;
+        }
+        if (logger.isTraceEnabled()) {
+            for (Map.Entry<ClassVisitor, RuntimeException> failure : failures.entrySet()) {
+                logger.trace("could not scan file {} in url {} with scanner {}", path, url.toExternalForm(), failure.getKey().getClass().getSimpleName(), failure.getValue());
+            }
+        }
+    }
+
     /**
      * expand super types after scanning, for super types that were not scanned.
      * this is helpful in finding the transitive closure without scanning all
@@ -194,27 +465,47 @@ public class RocketReflection {
      * <li>if expanding supertypes, B will be expanded with A (A->B in store) -
      * then getSubTypes(A) will return C</li>
      * </ul>
+     * a read only store, such as a frozen or mapped one, is left as is: the
+     * store is expanded before it is frozen, and should be before it is
+     * written to a mapped file.
      */
     public void expandSuperTypes() {
+        if (store.isReadOnly()) {
+            return;
+        }
         String index = Utils.index(SubTypesScanner.class);
         Set<String> keys = store.keys(index);
-        keys.removeAll(store.values(index));
+        boolean superTypes = store.keySet().contains(SubTypesScanner.SUPERTYPES_INDEX);
+        //the scanned types, whose super types are already in the store. without
+        //the super types index, those known as subtypes
+        Set<String> expanded = new HashSet<>(superTypes
+                ? store.keys(SubTypesScanner.SUPERTYPES_INDEX) : store.values(index));
+        keys.removeAll(expanded);
         for (String key : keys) {
             final Class<?> type = forName(key, loaders());
             if (type != null) {
-                expandSupertypes(store, key, type);
+                expandSupertypes(store, key, type, expanded, superTypes);
             }
         }
+        store.publish();
     }
 
-    private void expandSupertypes(Store store, String key, Class<?> type) {
+    private void expandSupertypes(Store store, String key, Class<?> type, Set<String> expanded, boolean superTypes) {
+        if (!expanded.add(key)) {
+            return;
+        }
         for (Class<?> supertype : ReflectionUtils.getSuperTypes(type)) {
-            if (store.put(SubTypesScanner.class, supertype.getName(), key)) {
-                if (logger.isTraceEnabled()) {
-                    logger.trace("expanded subtype {} -> {}", supertype.getName(), key);
-                }
-                expandSupertypes(store, supertype.getName(), supertype);
+            if (superTypes) {
+                store.put(SubTypesScanner.class, supertype.getName(), key);
+                store.put(SubTypesScanner.SUPERTYPES_INDEX, key, supertype.getName());
+            } else if (!store.get(SubTypesScanner.class, supertype.getName()).contains(key)) {
+                //expanded by an earlier call, which left no trace in the super types index
+                store.put(SubTypesScanner.class, supertype.getName(), key);
+            }
+            if (logger.isTraceEnabled()) {
+                logger.trace("expanded subtype {} -> {}", supertype.getName(), key);
             }
+            expandSupertypes(store, supertype.getName(), supertype, expanded, superTypes);
         }
     }
 
@@ -225,7 +516,118 @@ public class RocketReflection {
      * depends on SubTypesScanner configured
      */
     public <T> Set<Class<? extends T>> getSubTypesOf(final Class<T> type) {
-        return forNames(store.getAll(SubTypesScanner.class, type.getName()), loaders());
+        return query(() -> forNames(getTypeHierarchy().getSubTypes(type.getName()), loaders()), "getSubTypesOf", type);
+    }
+
+    /**
+     * gets all sub types in hierarchy of each of the given types, as
+     * {@link #getSubTypesOf(Class)}, in one pass for callers asking for many
+     * types at once: the type hierarchy is read once, and each distinct sub
+     * type is loaded once, however many of the given types it belongs to
+     * <p/>
+     * depends on SubTypesScanner configured
+     *
+     * @param types the super types
+     * @return the sub types of each super type, in the order of the given types
+     */
+    public Map<Class<?>, Set<Class<?>>> getSubTypesOf(final Collection<? extends Class<?>> types) {
+        TypeHierarchy hierarchy = getTypeHierarchy();
+        Map<Class<?>, Set<String>> names = new LinkedHashMap<>();
+        for (Class<?> type : types) {
+            names.computeIfAbsent(type, key -> hierarchy.getSubTypes(key.getName()));
+        }
+        return resolve(names);
+    }
+
+    /**
+     * streams the sub types in hierarchy of a given type, traversing the
+     * hierarchy and loading each type only as it is consumed, so that
+     * {@code findFirst()} or {@code anyMatch} stop as soon as they can
+     * <p/>
+     * depends on SubTypesScanner configured
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Stream<Class<? extends T>> streamSubTypesOf(final Class<T> type) {
+        return streamSubTypeNamesOf(type.getName())
+                .<Class<? extends T>>map(subType -> (Class<? extends T>) forName(subType, loaders()))
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * streams the names of the sub types in hierarchy of a given type,
+     * traversing the hierarchy only as they are consumed, without loading
+     * classes
+     * <p>
+     * depends on SubTypesScanner configured
+     *
+     * @param type the type name
+     * @return the names of the transitive sub types
+     */
+    public Stream<String> streamSubTypeNamesOf(final String type) {
+        return store.streamAll(SubTypesScanner.class, type).filter(subType -> !subType.equals(type));
+    }
+
+    /**
+     * gets the direct superclass and interfaces of a given type, by name,
+     * without loading classes
+     * <p>
+     * depends on SubTypesScanner configured
+     *
+     * @param type the type name
+     * @return the names of the direct super types
+     */
+    public Set<String> getSuperTypesOf(final String type) {
+        if (!store.keySet().contains(SubTypesScanner.SUPERTYPES_INDEX)) {
+            //super types not indexed, or nothing scanned yet: the keys having the type as sub type.
+            //fails if SubTypesScanner is not configured
+            store.get(SubTypesScanner.class, type);
+            Set<String> result = new LinkedHashSet<>();
+            for (String key : store.keys(Utils.index(SubTypesScanner.class))) {
+                if (store.get(SubTypesScanner.class, key).contains(type)) {
+                    result.add(key);
+                }
+            }
+            return result;
+        }
+        return store.get(SubTypesScanner.SUPERTYPES_INDEX, type);
+    }
+
+    /**
+     * gets all super types in hierarchy of a given type, by name, without
+     * loading classes
+     * <p>
+     * depends on SubTypesScanner configured
+     *
+     * @param type the type name
+     * @return the names of the transitive super types
+     */
+    public Set<String> getAllSuperTypesOf(final String type) {
+        Set<String> result = new LinkedHashSet<>();
+        List<String> workKeys = new ArrayList<>(getSuperTypesOf(type));
+        for (int i = 0; i < workKeys.size(); i++) {
+            String key = workKeys.get(i);
+            if (result.add(key)) {
+                workKeys.addAll(getSuperTypesOf(key));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * streams the super types in hierarchy of a given type, by name, as
+     * {@link #getAllSuperTypesOf(String)}, traversing the hierarchy only as
+     * they are consumed
+     * <p>
+     * depends on SubTypesScanner configured
+     *
+     * @param type the type name
+     * @return the names of the transitive super types
+     */
+    public Stream<String> streamAllSuperTypesOf(final String type) {
+        if (!store.keySet().contains(SubTypesScanner.SUPERTYPES_INDEX)) {
+            return getAllSuperTypesOf(type).stream();
+        }
+        return store.streamAll(SubTypesScanner.SUPERTYPES_INDEX, type).filter(superType -> !superType.equals(type));
     }
 
     /**
@@ -267,9 +669,114 @@ public class RocketReflection {
      * depends on TypeAnnotationsScanner and SubTypesScanner configured
      */
     public Set<Class<?>> getTypesAnnotatedWith(final Class<? extends Annotation> annotation, boolean honorInherited) {
+        return query(() -> {
+            Set<String> annotated = store.get(TypeAnnotationsScanner.class, annotation.getName());
+            annotated.addAll(getAllAnnotated(annotated, annotation, honorInherited));
+            return forNames(annotated, loaders());
+        }, "getTypesAnnotatedWith", annotation, honorInherited);
+    }
+
+    /**
+     * get types annotated with each of the given annotations, as
+     * {@link #getTypesAnnotatedWith(Class, boolean)}, in one pass for callers
+     * asking for many annotations at once. the annotations annotating others
+     * are traversed once, the traversal of an annotation reusing that of the
+     * given annotations it reaches, and each distinct type is loaded once,
+     * however many of the annotations it is annotated with.
+     * <p/>
+     * depends on TypeAnnotationsScanner and SubTypesScanner configured
+     *
+     * @param annotations the annotations
+     * @param honorInherited whether to honor {@link Inherited}
+     * @return the annotated types of each annotation, in the order of the
+     * given annotations
+     */
+    public Map<Class<? extends Annotation>, Set<Class<?>>> getTypesAnnotatedWith(
+            final Collection<? extends Class<? extends Annotation>> annotations, boolean honorInherited) {
+        Map<String, Set<String>> closures = new HashMap<>();
+        Map<Class<? extends Annotation>, Set<String>> names = new LinkedHashMap<>();
+        for (Class<? extends Annotation> annotation : annotations) {
+            if (names.containsKey(annotation)) {
+                continue;
+            }
+            Set<String> annotated = store.get(TypeAnnotationsScanner.class, annotation.getName());
+            if (honorInherited) {
+                annotated.addAll(getAllAnnotated(annotated, annotation, true));
+            } else {
+                annotated.addAll(getTypeHierarchy().getSubTypesIncluding(annotatedClosure(annotation.getName(), closures)));
+            }
+            names.put(annotation, annotated);
+        }
+        return resolve(names);
+    }
+
+    /**
+     * the types transitively annotated with an annotation, as
+     * {@code store.getAll(TypeAnnotationsScanner.class, annotation)}, kept in
+     * {@code closures}. the traversal does not go past an annotation whose
+     * closure is already known, and adds that closure instead.
+     */
+    private Set<String> annotatedClosure(String annotation, Map<String, Set<String>> closures) {
+        Set<String> known = closures.get(annotation);
+        if (known != null) {
+            return known;
+        }
+        Set<String> result = new LinkedHashSet<>();
+        List<String> workKeys = new ArrayList<>(store.get(TypeAnnotationsScanner.class, annotation));
+        for (int i = 0; i < workKeys.size(); i++) {
+            String key = workKeys.get(i);
+            if (result.add(key)) {
+                Set<String> closure = closures.get(key);
+                if (closure != null) {
+                    result.addAll(closure);
+                } else {
+                    workKeys.addAll(store.get(TypeAnnotationsScanner.class, key));
+                }
+            }
+        }
+        closures.put(annotation, result);
+        return result;
+    }
+
+    /**
+     * loads the types of each key, resolving the class loaders once and
+     * loading each distinct type once
+     */
+    private <K> Map<K, Set<Class<?>>> resolve(Map<K, Set<String>> names) {
+        ClassLoader[] classLoaders = ClasspathHelper.classLoaders(loaders());
+        Map<String, Class<?>> classes = new HashMap<>();
+        Map<K, Set<Class<?>>> result = new LinkedHashMap<>();
+        for (Map.Entry<K, Set<String>> entry : names.entrySet()) {
+            Set<Class<?>> types = new LinkedHashSet<>();
+            for (String name : entry.getValue()) {
+                Class<?> type = classes.get(name);
+                if (type == null && !classes.containsKey(name)) {
+                    type = forName(name, classLoaders);
+                    classes.put(name, type);
+                }
+                if (type != null) {
+                    types.add(type);
+                }
+            }
+            result.put(entry.getKey(), types);
+        }
+        return result;
+    }
+
+    /**
+     * streams the types annotated with a given annotation, as
+     * {@link #getTypesAnnotatedWith(Class)}, traversing the annotations and
+     * the hierarchy and loading each type only as it is consumed
+     * <p/>
+     * depends on TypeAnnotationsScanner and SubTypesScanner configured
+     */
+    public Stream<Class<?>> streamTypesAnnotatedWith(final Class<? extends Annotation> annotation) {
         Set<String> annotated = store.get(TypeAnnotationsScanner.class, annotation.getName());
-        annotated.addAll(getAllAnnotated(annotated, annotation, honorInherited));
-        return forNames(annotated, loaders());
+        return store.streamAllIncluding(TypeAnnotationsScanner.class, annotated)
+                .flatMap(type -> store.streamAllIncluding(SubTypesScanner.class, Collections.singletonList(type)))
+                .distinct()
+                .<Class<?>>map(type -> forName(type, loaders()))
+                .filter(Objects::nonNull);
     }
 
     /**
@@ -294,13 +801,52 @@ public class RocketReflection {
      * depends on TypeAnnotationsScanner configured
      */
     public Set<Class<?>> getTypesAnnotatedWith(final Annotation annotation, boolean honorInherited) {
+        return query(() -> getTypesAnnotatedWithInstance(annotation, honorInherited), "getTypesAnnotatedWith", annotation, honorInherited);
+    }
+
+    private Set<Class<?>> getTypesAnnotatedWithInstance(final Annotation annotation, boolean honorInherited) {
         Set<String> annotated = store.get(TypeAnnotationsScanner.class, annotation.annotationType().getName());
-        Set<Class<?>> allAnnotated = Utils.filter(forNames(annotated, loaders()), withAnnotation(annotation));
+        Set<String> matching = withMemberValues(TypeAnnotationsScanner.VALUES_INDEX, annotation, annotated);
+        Set<Class<?>> allAnnotated = Utils.filter(forNames(matching, loaders()), withAnnotation(annotation));
         Set<Class<?>> classes = forNames(Utils.filter(getAllAnnotated(Utils.names(allAnnotated), annotation.annotationType(), honorInherited), s -> !annotated.contains(s)), loaders());
         allAnnotated.addAll(classes);
         return allAnnotated;
     }
 
+    /**
+     * the annotated elements whose annotation member values may match those
+     * of the given annotation, as recorded in a member values index. members
+     * not set on an element match the default value. without the index, or
+     * for members holding nested annotations, all elements are kept, as they
+     * are anyway checked once loaded.
+     */
+    private Set<String> withMemberValues(String valuesIndex, Annotation annotation, Set<String> annotated) {
+        if (annotated.isEmpty() || !store.keySet().contains(valuesIndex)) {
+            return annotated;
+        }
+        String type = annotation.annotationType().getName();
+        Set<String> result = new LinkedHashSet<>(annotated);
+        for (Method member : annotation.annotationType().getDeclaredMethods()) {
+            String value;
+            try {
+                value = AnnotationValues.encode(member.invoke(annotation));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                continue; //left to the check on the loaded elements
+            }
+            if (value == null) {
+                continue;
+            }
+            Set<String> matching = store.get(valuesIndex, AnnotationValues.key(type, member.getName(), value));
+            if (member.getDefaultValue() != null && value.equals(AnnotationValues.encode(member.getDefaultValue()))) {
+                Set<String> set = store.get(valuesIndex, AnnotationValues.key(type, member.getName()));
+                result.removeIf(element -> set.contains(element) && !matching.contains(element));
+            } else {
+                result.retainAll(matching);
+            }
+        }
+        return result;
+    }
+
     protected Collection<String> getAllAnnotated(Collection<String> annotated, Class<? extends Annotation> annotation, boolean honorInherited) {
         if (honorInherited) {
             if (annotation.isAnnotationPresent(Inherited.class)) {
@@ -308,13 +854,13 @@ public class RocketReflection {
                     final Class<?> type = forName(input, loaders());
                     return type != null && !type.isInterface();
                 }));
-                return store.getAllIncluding(SubTypesScanner.class, subTypes);
+                return getTypeHierarchy().getSubTypesIncluding(subTypes);
             } else {
                 return annotated;
             }
         } else {
             Collection<String> subTypes = store.getAllIncluding(TypeAnnotationsScanner.class, annotated);
-            return store.getAllIncluding(SubTypesScanner.class, subTypes);
+            return getTypeHierarchy().getSubTypesIncluding(subTypes);
         }
     }
 
@@ -324,7 +870,8 @@ public class RocketReflection {
      * depends on MethodAnnotationsScanner configured
      */
     public Set<Method> getMethodsAnnotatedWith(final Class<? extends Annotation> annotation) {
-        return Utils.getMethodsFromDescriptors(store.get(MethodAnnotationsScanner.class, annotation.getName()), loaders());
+        return query(() -> Utils.getMethodsFromDescriptors(store.get(MethodAnnotationsScanner.class, annotation.getName()), loaders()),
+                "getMethodsAnnotatedWith", annotation);
     }
 
     /**
@@ -334,7 +881,9 @@ public class RocketReflection {
      * depends on MethodAnnotationsScanner configured
      */
     public Set<Method> getMethodsAnnotatedWith(final Annotation annotation) {
-        return Utils.filter(getMethodsAnnotatedWith(annotation.annotationType()), withAnnotation(annotation));
+        Set<String> annotated = store.get(MethodAnnotationsScanner.class, annotation.annotationType().getName());
+        Set<String> matching = withMemberValues(MethodAnnotationsScanner.VALUES_INDEX, annotation, annotated);
+        return Utils.filter(Utils.getMethodsFromDescriptors(matching, loaders()), withAnnotation(annotation));
     }
 
     /**
@@ -414,9 +963,9 @@ public class RocketReflection {
      * depends on FieldAnnotationsScanner configured
      */
     public Set<Field> getFieldsAnnotatedWith(final Class<? extends Annotation> annotation) {
-        return store.get(FieldAnnotationsScanner.class, annotation.getName()).stream()
+        return query(() -> store.get(FieldAnnotationsScanner.class, annotation.getName()).stream()
                 .map(annotated -> Utils.getFieldFromString(annotated, loaders()))
-                .collect(Collectors.toSet());
+                .collect(Collectors.toSet()), "getFieldsAnnotatedWith", annotation);
     }
 
     /**
@@ -426,7 +975,11 @@ public class RocketReflection {
      * depends on FieldAnnotationsScanner configured
      */
     public Set<Field> getFieldsAnnotatedWith(final Annotation annotation) {
-        return Utils.filter(getFieldsAnnotatedWith(annotation.annotationType()), withAnnotation(annotation));
+        Set<String> annotated = store.get(FieldAnnotationsScanner.class, annotation.annotationType().getName());
+        Set<String> matching = withMemberValues(FieldAnnotationsScanner.VALUES_INDEX, annotation, annotated);
+        return Utils.filter(matching.stream()
+                .map(field -> Utils.getFieldFromString(field, loaders()))
+                .collect(Collectors.toSet()), withAnnotation(annotation));
     }
 
     /**
@@ -441,13 +994,57 @@ public class RocketReflection {
         return store.get(ResourcesScanner.class, resources);
     }
 
+    /**
+     * streams resources relative paths where simple name (key) matches given
+     * namePredicate, over the keys of the store rather than a copy of them
+     * <p>
+     * depends on ResourcesScanner configured
+     */
+    public Stream<String> streamResources(final Predicate<String> namePredicate) {
+        return store.keyStream(Utils.index(ResourcesScanner.class))
+                .filter(namePredicate)
+                .flatMap(name -> store.stream(ResourcesScanner.class, name))
+                .distinct();
+    }
+
     /**
      * get resources relative paths where simple name (key) matches given
      * regular expression
      *
      */
     public Set<String> getResources(final Pattern pattern) {
-        return getResources(input -> pattern.matcher(input).matches());
+        return getResourceTrie().getByName(pattern);
+    }
+
+    /**
+     * get resources relative paths starting with a given prefix, such as
+     * {@code META-INF/services/}
+     * <p>
+     * depends on ResourcesScanner configured
+     */
+    public Set<String> getResourcesByPrefix(final String prefix) {
+        return getResourceTrie().getByPathPrefix(prefix);
+    }
+
+    /**
+     * get resources relative paths with a given extension, such as
+     * {@code properties}
+     * <p>
+     * depends on ResourcesScanner configured
+     */
+    public Set<String> getResourcesByExtension(final String extension) {
+        return getResourceTrie().getByExtension(extension);
+    }
+
+    /**
+     * get resources relative paths matching a glob, such as
+     * {@code META-INF/**}{@code /*.xml}, where {@code *} matches within a
+     * directory and {@code **} across directories
+     * <p>
+     * depends on ResourcesScanner configured
+     */
+    public Set<String> getResourcesByGlob(final String glob) {
+        return getResourceTrie().getByGlob(glob);
     }
 
     /**
@@ -497,6 +1094,142 @@ public class RocketReflection {
         return Utils.getMembersFromDescriptors(store.get(MemberUsageScanner.class, Utils.name(cons)));
     }
 
+    /**
+     * get the call graph of the scanned methods, constructors and fields, for
+     * transitive usage and reachability queries. it is built from the store
+     * on first use, and again once the store changed.
+     * <p>
+     * depends on MemberUsageScanner configured
+     */
+    public CallGraph getCallGraph() {
+        return derived(() -> callGraph, graph -> callGraph = graph, CallGraph::of);
+    }
+
+    /**
+     * get the type hierarchy of the scanned types, answering transitive
+     * subtype queries without walking the store. it is built from the store
+     * on first use, and again once the store changed, such as after
+     * {@link #expandSuperTypes()}.
+     * <p>
+     * depends on SubTypesScanner configured
+     */
+    public TypeHierarchy getTypeHierarchy() {
+        return derived(() -> typeHierarchy, hierarchy -> typeHierarchy = hierarchy, TypeHierarchy::of);
+    }
+
+    /**
+     * get the index of the scanned types, answering subtype, annotation and
+     * package queries as {@link TypeSet}s, so that compound queries are
+     * combined as bitmaps before any class is loaded, for instance
+     * <pre>
+     * TypeIndex types = reflections.getTypeIndex();
+     * Set&#60;Class&#60;?&#62;&#62; classes = reflections.getClasses(types.subTypesOf(X.class.getName())
+     *         .and(types.annotatedWith(Y.class.getName()))
+     *         .and(types.inPackage("com.acme")));
+     * </pre>
+     * it is built from the store on first use, and again once the store
+     * changed.
+     * <p>
+     * depends on SubTypesScanner or TypeAnnotationsScanner configured
+     */
+    public TypeIndex getTypeIndex() {
+        return derived(() -> typeIndex, index -> typeIndex = index, current -> TypeIndex.of(current,
+                current.keySet().contains(Utils.index(SubTypesScanner.class)) ? getTypeHierarchy() : null));
+    }
+
+    /**
+     * a query over the scanned types, combining subtype, annotation, package
+     * and annotated member criteria, planned from the index statistics and
+     * evaluated without loading classes, for instance
+     * <pre>
+     * reflections.queryTypes().subTypesOf(X.class).annotatedWith(Y.class).inPackage("com.acme")
+     * </pre>
+     * <p>
+     * depends on SubTypesScanner or TypeAnnotationsScanner configured
+     *
+     * @return a query matching all types, to be narrowed
+     * @see TypeQuery
+     */
+    public TypeQuery queryTypes() {
+        return getTypeIndex().query();
+    }
+
+    /**
+     * loads the types matching a query, with the class loaders of the
+     * configuration
+     *
+     * @param query the query
+     * @return the classes
+     */
+    public Set<Class<?>> getClasses(final TypeQuery query) {
+        return getClasses(query.toTypeSet());
+    }
+
+    /**
+     * loads the types of a set, with the class loaders of the configuration
+     *
+     * @param types a set of the {@link #getTypeIndex() type index}
+     * @return the classes
+     */
+    public Set<Class<?>> getClasses(final TypeSet types) {
+        return types.getClasses(loaders());
+    }
+
+    /**
+     * get the index of the scanned resources by path and name, answering
+     * prefix, extension and glob queries without testing every resource. it
+     * is built from the store on first use, and again once the store changed.
+     * <p>
+     * depends on ResourcesScanner configured
+     */
+    public ResourceTrie getResourceTrie() {
+        return derived(() -> resourceTrie, trie -> resourceTrie = trie, ResourceTrie::of);
+    }
+
+    /**
+     * the value of an index derived from the store, built again if the store
+     * changed since it was last built
+     *
+     * @param field reads the field keeping the index
+     * @param set writes the field keeping the index
+     * @param build builds the index from the store
+     * @return the index
+     */
+    private <T> T derived(Supplier<Derived<T>> field, Consumer<Derived<T>> set, Function<Store, T> build) {
+        Derived<T> derived = field.get();
+        if (derived == null || !derived.isCurrent(store)) {
+            synchronized (this) {
+                derived = field.get();
+                if (derived == null || !derived.isCurrent(store)) {
+                    long version = store.version();
+                    derived = new Derived<>(store, version, build.apply(store));
+                    set.accept(derived);
+                }
+            }
+        }
+        return derived.value;
+    }
+
+    /**
+     * an index built from a version of the store
+     */
+    private static final class Derived<T> {
+
+        private final Store store;
+        private final long version;
+        private final T value;
+
+        Derived(Store store, long version, T value) {
+            this.store = store;
+            this.version = version;
+            this.value = value;
+        }
+
+        boolean isCurrent(Store store) {
+            return this.store == store && version == store.version();
+        }
+    }
+
     /**
      * get all types scanned. this is effectively similar to getting all
      * subtypes of Object.
@@ -513,7 +1246,7 @@ public class RocketReflection {
      * all types in PermGen
      */
     public Set<String> getAllTypes() {
-        Set<String> allTypes = new HashSet<>(store.getAll(SubTypesScanner.class, Object.class.getName()));
+        Set<String> allTypes = getTypeHierarchy().getSubTypes(Object.class.getName());
         if (allTypes.isEmpty()) {
             throw new ReflectionException("Couldn't find subtypes of Object. "
                     + "Make sure SubTypesScanner initialized to include Object class - new SubTypesScanner(false)");
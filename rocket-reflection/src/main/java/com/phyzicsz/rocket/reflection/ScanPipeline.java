@@ -0,0 +1,301 @@
+package com.phyzicsz.rocket.reflection;
+
+import com.phyzicsz.rocket.reflection.adapters.MetadataAdapter;
+import com.phyzicsz.rocket.reflection.adapters.MetadataLevel;
+import com.phyzicsz.rocket.reflection.exception.ReflectionException;
+import com.phyzicsz.rocket.reflection.vfs.BufferedFile;
+import com.phyzicsz.rocket.reflection.vfs.Vfs;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * a staged scan engine, where reading, parsing and indexing of files are done
+ * by separate pools of threads.
+ * <ul>
+ * <li>io threads walk the urls and read the accepted files into memory</li>
+ * <li>parser threads drop the class files rejected by the constant pool filter,
+ * if any, and create the class objects using the configured
+ * {@link MetadataAdapter}</li>
+ * <li>indexer threads run the scanners and put the results in the
+ * {@link Store}</li>
+ * </ul>
+ * the stages are connected by bounded queues, so a fast stage blocks instead of
+ * buffering an unbounded amount of files, while reading and parsing still
+ * overlap. the store is published once all the files of a url are indexed.
+ * a file failing to be scanned is skipped, as in a sequential scan, while a
+ * stage failing fails the scan and cancels the other stages.
+ */
+public class ScanPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScanPipeline.class);
+
+    private final int ioThreads;
+    private final int parserThreads;
+    private final int indexerThreads;
+    private final int queueCapacity;
+
+    /**
+     * creates a pipeline with 2 io threads, availableProcessors() parser
+     * threads, 2 indexer threads and queues of 256 files
+     */
+    public ScanPipeline() {
+        this(2, Runtime.getRuntime().availableProcessors(), 2, 256);
+    }
+
+    /**
+     * creates a pipeline
+     *
+     * @param ioThreads the number of threads reading files
+     * @param parserThreads the number of threads creating class objects
+     * @param indexerThreads the number of threads running the scanners
+     * @param queueCapacity the maximum number of files waiting between two
+     * stages
+     */
+    public ScanPipeline(int ioThreads, int parserThreads, int indexerThreads, int queueCapacity) {
+        if (ioThreads < 1 || parserThreads < 1 || indexerThreads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("pipeline threads and queue capacity must be positive");
+        }
+        this.ioThreads = ioThreads;
+        this.parserThreads = parserThreads;
+        this.indexerThreads = indexerThreads;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    public int getParserThreads() {
+        return parserThreads;
+    }
+
+    public int getIndexerThreads() {
+        return indexerThreads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * scans the given urls, blocking until all stages are done
+     *
+     * @param reflection the reflection the files are scanned into
+     * @param urls the urls to scan
+     * @return the number of urls scanned
+     */
+    int scan(RocketReflection reflection, Collection<URL> urls) {
+        MetadataAdapter<?, ?, ?> adapter = reflection.getConfiguration().getMetadataAdapter();
+        MetadataLevel level = reflection.getConfiguration().getMetadataLevel();
+        Queue queue = new Queue(urls);
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        ExecutorService executor = Executors.newFixedThreadPool(ioThreads + parserThreads + indexerThreads, r -> {
+            Thread t = new Thread(r);
+            t.setName("scanner-pipeline-" + threadNumber.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+
+        //stages are waited on as they complete, so that a stage failing is seen at once, and the others are
+        //cancelled by shutdownNow below rather than left blocked on the queues
+        CompletionService<Void> stages = new ExecutorCompletionService<>(executor);
+        int count = 0;
+        try {
+            for (int i = 0; i < ioThreads; i++, count++) {
+                stages.submit(() -> read(reflection, queue), null);
+            }
+            for (int i = 0; i < parserThreads; i++, count++) {
+                stages.submit(() -> parse(reflection, adapter, level, queue), null);
+            }
+            for (int i = 0; i < indexerThreads; i++, count++) {
+                stages.submit(() -> index(reflection, queue), null);
+            }
+            for (int i = 0; i < count; i++) {
+                stages.take().get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReflectionException("interrupted while scanning", e);
+        } catch (ExecutionException e) {
+            throw new ReflectionException("could not scan urls", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return queue.scannedUrls.get();
+    }
+
+    private void read(RocketReflection reflection, Queue queue) {
+        try {
+            URL url;
+            while ((url = queue.urls.poll()) != null) {
+                Vfs.Dir dir;
+                try {
+                    dir = Vfs.fromURL(url);
+                } catch (ReflectionException e) {
+                    logger.warn("could not create Vfs.Dir from url. ignoring the exception and continuing", e);
+                    continue;
+                }
+                UrlProgress progress = new UrlProgress(url);
+                try {
+                    for (Vfs.File file : dir.getFiles()) {
+                        if (reflection.acceptsInput(file)) {
+                            BufferedFile buffered;
+                            try {
+                                buffered = BufferedFile.read(file);
+                            } catch (IOException e) {
+                                if (logger.isTraceEnabled()) {
+                                    logger.trace("could not read file {} in url {}", file.getRelativePath(), url.toExternalForm(), e);
+                                }
+                                continue;
+                            }
+                            progress.pending.incrementAndGet();
+                            queue.read.put(new Item(progress, buffered, null));
+                        }
+                    }
+                } finally {
+                    dir.close();
+                }
+                progress.done(reflection.getStore());
+                queue.scannedUrls.incrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (queue.readers.decrementAndGet() == 0) {
+                queue.end(queue.read, parserThreads);
+            }
+        }
+    }
+
+    private void parse(RocketReflection reflection, MetadataAdapter<?, ?, ?> adapter, MetadataLevel level, Queue queue) {
+        try {
+            Item item;
+            while ((item = queue.read.take()) != Item.END) {
+                if (!reflection.passesConstantPoolFilter(item.file)) {
+                    item.progress.done(reflection.getStore());
+                    continue;
+                }
+                Object classObject = null;
+                if (adapter.acceptsInput(item.file.getRelativePath())) {
+                    try {
+                        classObject = adapter.getOrCreateClassObject(item.file, level);
+                    } catch (Exception e) {
+                        if (logger.isTraceEnabled()) {
+                            logger.trace("could not create class object from file {} in url {}", item.file.getRelativePath(), item.progress.url.toExternalForm(), e);
+                        }
+                    }
+                }
+                queue.parsed.put(new Item(item.progress, item.file, classObject));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (queue.parsers.decrementAndGet() == 0) {
+                queue.end(queue.parsed, indexerThreads);
+            }
+        }
+    }
+
+    private void index(RocketReflection reflection, Queue queue) {
+        try {
+            Item item;
+            while ((item = queue.parsed.take()) != Item.END) {
+                try {
+                    reflection.scan(item.progress.url, item.file, item.classObject);
+                } catch (RuntimeException e) {
+                    if (logger.isTraceEnabled()) {
+                        logger.trace("could not scan file {} in url {}", item.file.getRelativePath(), item.progress.url.toExternalForm(), e);
+                    }
+                }
+                item.progress.done(reflection.getStore());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * a file travelling through the pipeline, with its class object once
+     * parsed
+     */
+    private static final class Item {
+
+        static final Item END = new Item(null, null, null);
+
+        final UrlProgress progress;
+        final BufferedFile file;
+        final Object classObject;
+
+        Item(UrlProgress progress, BufferedFile file, Object classObject) {
+            this.progress = progress;
+            this.file = file;
+            this.classObject = classObject;
+        }
+    }
+
+    /**
+     * the files of a url still travelling through the pipeline, so that the
+     * store is published once the last of them is indexed
+     */
+    private static final class UrlProgress {
+
+        final URL url;
+        /**
+         * the files not indexed yet, plus one held by the io thread until it
+         * has read them all
+         */
+        final AtomicInteger pending = new AtomicInteger(1);
+
+        UrlProgress(URL url) {
+            this.url = url;
+        }
+
+        void done(Store store) {
+            if (pending.decrementAndGet() == 0) {
+                store.publish();
+            }
+        }
+    }
+
+    /**
+     * the queues connecting the stages of one scan
+     */
+    private final class Queue {
+
+        final ConcurrentLinkedQueue<URL> urls;
+        final BlockingQueue<Item> read = new ArrayBlockingQueue<>(queueCapacity);
+        final BlockingQueue<Item> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        final AtomicInteger readers = new AtomicInteger(ioThreads);
+        final AtomicInteger parsers = new AtomicInteger(parserThreads);
+        final AtomicInteger scannedUrls = new AtomicInteger();
+
+        Queue(Collection<URL> urls) {
+            this.urls = new ConcurrentLinkedQueue<>(urls);
+        }
+
+        /**
+         * signals the end of the stream to each consumer of the queue
+         */
+        void end(BlockingQueue<Item> queue, int consumers) {
+            try {
+                for (int i = 0; i < consumers; i++) {
+                    queue.put(Item.END);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
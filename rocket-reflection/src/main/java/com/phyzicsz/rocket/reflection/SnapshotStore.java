@@ -0,0 +1,478 @@
+package com.phyzicsz.rocket.reflection;
+
+import com.phyzicsz.rocket.reflection.scanners.Scanner;
+import static com.phyzicsz.rocket.reflection.util.Utils.index;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * a store whose readers see the values as of the last {@link #publish()},
+ * so that it can be queried while a scan is still running.
+ * <p>
+ * the published values are an immutable snapshot, replaced as a whole on
+ * each publish, which the scan does once each url is scanned. reads take no
+ * lock and see a consistent version of the store, and {@link #version()} is
+ * the version of that snapshot, so that results computed from the store are
+ * recomputed once a url is published. values put since are kept apart until
+ * the next publish. with a sharded store, see
+ * {@link Configuration#shouldShardStore()}, the values of the scanning
+ * threads only reach this store once scanning is done, so readers see
+ * nothing of a running scan.
+ * <p>
+ * a publish copies only the buckets of the keys it changes, the number of
+ * buckets growing with the number of keys, and appends to the values of a
+ * key in place, past the end seen by the previous snapshot. the rest is
+ * shared with the previous snapshot.
+ * <p>
+ * {@link #snapshot()} pins the current snapshot, for a series of queries
+ * that should all see the same version.
+ */
+public class SnapshotStore extends Store {
+
+    /**
+     * approximate bytes taken by a key: the string, its pending and published
+     * map entries and its pending list
+     */
+    private static final int KEY_OVERHEAD = 40 + 2 * 32 + 56;
+    /**
+     * approximate bytes taken by a value: the string and its pending and
+     * published array slots
+     */
+    private static final int VALUE_OVERHEAD = 40 + 2 * 4;
+
+    /**
+     * held for reading by puts, for writing by publishes, so that no put is
+     * lost between draining the pending values and replacing the snapshot
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Snapshot current;
+    private Map<String, Map<String, Collection<String>>> pending = new ConcurrentHashMap<>();
+
+    public SnapshotStore(Configuration configuration) {
+        Map<String, Index> indices = new HashMap<>();
+        for (Scanner scanner : configuration.getScanners()) {
+            indices.put(index(scanner.getClass()), Index.EMPTY);
+        }
+        current = new Snapshot(0, indices);
+    }
+
+    /**
+     * the version of the published snapshot
+     *
+     * @return the version of the store
+     */
+    @Override
+    public long version() {
+        return current.version;
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return current.indices.keySet();
+    }
+
+    @Override
+    protected Collection<String> lookup(String index, String key) {
+        return current.lookup(index, key);
+    }
+
+    @Override
+    public Set<String> keys(String index) {
+        return current.keys(index);
+    }
+
+    @Override
+    public Set<String> values(String index) {
+        return current.values(index);
+    }
+
+    @Override
+    public Stream<String> keyStream(String index) {
+        Index map = current.indices.get(index);
+        return map != null ? map.keyStream() : Stream.empty();
+    }
+
+    /**
+     * puts a value, visible to readers after the next {@link #publish()}.
+     * values already published are not put again, values put twice since
+     * are kept once by the publish.
+     */
+    @Override
+    public boolean put(String index, String key, String value) {
+        lock.readLock().lock();
+        try {
+            Values published = current.lookup(index, key);
+            if (published != null && published.contains(value)) {
+                recordPut(index, false, false, 0);
+                return false;
+            }
+            Map<String, Collection<String>> map = pending.computeIfAbsent(index, s -> new ConcurrentHashMap<>());
+            Collection<String> values = map.get(key);
+            boolean newKey = false;
+            if (values == null) {
+                Collection<String> created = Collections.synchronizedList(new ArrayList<>());
+                values = map.putIfAbsent(key, created);
+                if (values == null) {
+                    values = created;
+                    newKey = published == null;
+                }
+            }
+            boolean added = values.add(value);
+            recordPut(index, newKey, added, (newKey ? KEY_OVERHEAD + key.length() : 0) + VALUE_OVERHEAD + value.length());
+            return added;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * publishes the values put since the last publish as a new snapshot
+     */
+    @Override
+    public void publish() {
+        lock.writeLock().lock();
+        try {
+            if (!pending.isEmpty()) {
+                current = current.with(pending, super.version());
+                pending = new ConcurrentHashMap<>();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * a read only store of the current snapshot, which later publishes do not
+     * change
+     *
+     * @return the snapshot
+     */
+    public Store snapshot() {
+        return new View(current);
+    }
+
+    /**
+     * an immutable version of the store
+     */
+    private static final class Snapshot {
+
+        private final long version;
+        private final Map<String, Index> indices;
+
+        Snapshot(long version, Map<String, Index> indices) {
+            this.version = version;
+            this.indices = Collections.unmodifiableMap(indices);
+        }
+
+        Values lookup(String index, String key) {
+            Index map = indices.get(index);
+            return map != null ? map.get(key) : null;
+        }
+
+        Set<String> keys(String index) {
+            Index map = indices.get(index);
+            return map != null ? map.keys() : Collections.emptySet();
+        }
+
+        Set<String> values(String index) {
+            Index map = indices.get(index);
+            return map != null ? map.values() : Collections.emptySet();
+        }
+
+        /**
+         * the next snapshot, with the given values added
+         */
+        Snapshot with(Map<String, Map<String, Collection<String>>> values, long version) {
+            Map<String, Index> result = new HashMap<>(indices);
+            for (Map.Entry<String, Map<String, Collection<String>>> entry : values.entrySet()) {
+                result.put(entry.getKey(), result.getOrDefault(entry.getKey(), Index.EMPTY).with(entry.getValue()));
+            }
+            return new Snapshot(version, result);
+        }
+    }
+
+    /**
+     * the immutable multimap of an index, its keys hashed into buckets that
+     * are copied only when one of their keys changes. the buckets are
+     * doubled, and all keys hashed again, once they hold more than
+     * {@link #BUCKET_SIZE} keys on average, so that a publish copies a few
+     * keys per key it changes whatever the size of the index.
+     */
+    private static final class Index {
+
+        /**
+         * the average number of keys per bucket above which the buckets are
+         * doubled
+         */
+        private static final int BUCKET_SIZE = 8;
+        private static final Index EMPTY = new Index(newBuckets(1), 0);
+
+        private final Map<String, Values>[] buckets;
+        private final int size;
+
+        Index(Map<String, Values>[] buckets, int size) {
+            this.buckets = buckets;
+            this.size = size;
+        }
+
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        private static Map<String, Values>[] newBuckets(int count) {
+            return new Map[count];
+        }
+
+        private static int bucket(String key, int count) {
+            int hash = key.hashCode();
+            return (hash ^ (hash >>> 16)) & (count - 1);
+        }
+
+        Values get(String key) {
+            Map<String, Values> bucket = buckets[bucket(key, buckets.length)];
+            return bucket != null ? bucket.get(key) : null;
+        }
+
+        Set<String> keys() {
+            Set<String> result = new HashSet<>(size);
+            for (Map<String, Values> bucket : buckets) {
+                if (bucket != null) {
+                    result.addAll(bucket.keySet());
+                }
+            }
+            return result;
+        }
+
+        Stream<String> keyStream() {
+            return Arrays.stream(buckets).filter(Objects::nonNull).flatMap(bucket -> bucket.keySet().stream());
+        }
+
+        Set<String> values() {
+            Set<String> result = new HashSet<>();
+            for (Map<String, Values> bucket : buckets) {
+                if (bucket != null) {
+                    for (Values values : bucket.values()) {
+                        result.addAll(values);
+                    }
+                }
+            }
+            return result;
+        }
+
+        Index with(Map<String, Collection<String>> values) {
+            Map<String, Values>[] result;
+            int count = buckets.length;
+            while ((long) count * BUCKET_SIZE < size + values.size()) {
+                count *= 2;
+            }
+            boolean[] copied = new boolean[count];
+            if (count != buckets.length) {
+                //hash all keys again, in fresh buckets
+                result = newBuckets(count);
+                Arrays.fill(copied, true);
+                for (Map<String, Values> bucket : buckets) {
+                    if (bucket != null) {
+                        for (Map.Entry<String, Values> entry : bucket.entrySet()) {
+                            int index = bucket(entry.getKey(), count);
+                            if (result[index] == null) {
+                                result[index] = new HashMap<>();
+                            }
+                            result[index].put(entry.getKey(), entry.getValue());
+                        }
+                    }
+                }
+            } else {
+                result = buckets.clone();
+            }
+            int keys = size;
+            for (Map.Entry<String, Collection<String>> entry : values.entrySet()) {
+                int bucket = bucket(entry.getKey(), count);
+                if (!copied[bucket]) {
+                    result[bucket] = result[bucket] != null ? new HashMap<>(result[bucket]) : new HashMap<>();
+                    copied[bucket] = true;
+                } else if (result[bucket] == null) {
+                    result[bucket] = new HashMap<>();
+                }
+                Values previous = result[bucket].get(entry.getKey());
+                if (previous == null) {
+                    keys++;
+                }
+                synchronized (entry.getValue()) {
+                    result[bucket].put(entry.getKey(), (previous != null ? previous : Values.EMPTY).with(entry.getValue()));
+                }
+            }
+            return new Index(result, keys);
+        }
+    }
+
+    /**
+     * the immutable values of a key, in the order they were put, as the first
+     * {@code size} elements of an array shared with the later versions of the
+     * key, which append past them. the array is copied only when it is full.
+     * past {@link #INDEXED} values, the positions of the values are kept in a
+     * map shared the same way, so that membership takes no scan.
+     */
+    private static final class Values extends AbstractSet<String> {
+
+        /**
+         * the number of values above which their positions are kept
+         */
+        private static final int INDEXED = 8;
+        private static final Values EMPTY = new Values(new String[0], 0, null);
+
+        private final String[] array;
+        private final int size;
+        /**
+         * the position of each value of the array, shared with the later
+         * versions, or null while there are few values
+         */
+        private final Map<String, Integer> positions;
+
+        private Values(String[] array, int size, Map<String, Integer> positions) {
+            this.array = array;
+            this.size = size;
+            this.positions = positions;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (positions == null) {
+                return contains(array, size, o);
+            }
+            Integer position = positions.get(o);
+            return position != null && position < size;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return Arrays.asList(array).subList(0, size).iterator();
+        }
+
+        /**
+         * the next version, with the given values appended. as a publish only
+         * extends the latest version of a key, the slots past {@code size} are
+         * free, and no reader of an earlier version looks at them.
+         */
+        Values with(Collection<String> values) {
+            String[] result = array;
+            int count = size;
+            Map<String, Integer> index = positions;
+            for (String value : values) {
+                if (index != null ? index.containsKey(value) : contains(result, count, value)) {
+                    continue;
+                }
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, Math.max(4, count * 2));
+                }
+                result[count] = value;
+                if (index != null) {
+                    index.put(value, count);
+                } else if (count + 1 > INDEXED) {
+                    index = new ConcurrentHashMap<>();
+                    for (int i = 0; i <= count; i++) {
+                        index.put(result[i], i);
+                    }
+                }
+                count++;
+            }
+            return count != size ? new Values(result, count, index) : this;
+        }
+
+        private static boolean contains(String[] array, int size, Object value) {
+            for (int i = 0; i < size; i++) {
+                if (array[i].equals(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * a read only store of a snapshot
+     */
+    private static final class View extends Store {
+
+        private final Snapshot snapshot;
+
+        View(Snapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public long version() {
+            return snapshot.version;
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return snapshot.indices.keySet();
+        }
+
+        @Override
+        protected Collection<String> lookup(String index, String key) {
+            return snapshot.lookup(index, key);
+        }
+
+        @Override
+        public Set<String> keys(String index) {
+            return snapshot.keys(index);
+        }
+
+        @Override
+        public Set<String> values(String index) {
+            return snapshot.values(index);
+        }
+
+        @Override
+        public Stream<String> keyStream(String index) {
+            Index map = snapshot.indices.get(index);
+            return map != null ? map.keyStream() : Stream.empty();
+        }
+
+        @Override
+        public boolean isReadOnly() {
+            return true;
+        }
+
+        @Override
+        public boolean put(String index, String key, String value) {
+            throw new UnsupportedOperationException("a snapshot is read only");
+        }
+
+        @Override
+        public Map<String, IndexStats> stats() {
+            Map<String, IndexStats> result = new TreeMap<>();
+            for (Map.Entry<String, Index> entry : snapshot.indices.entrySet()) {
+                long keys = 0;
+                long values = 0;
+                for (Map<String, Values> bucket : entry.getValue().buckets) {
+                    if (bucket != null) {
+                        keys += bucket.size();
+                        for (Values set : bucket.values()) {
+                            values += set.size();
+                        }
+                    }
+                }
+                result.put(entry.getKey(), new IndexStats(entry.getKey(), keys, values, 0, 0));
+            }
+            return Collections.unmodifiableMap(result);
+        }
+    }
+}
@@ -3,32 +3,119 @@ package com.phyzicsz.rocket.reflection;
 import com.phyzicsz.rocket.reflection.exception.ReflectionException;
 import com.phyzicsz.rocket.reflection.scanners.Scanner;
 import static com.phyzicsz.rocket.reflection.util.Utils.index;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * stores metadata information in multimaps
+ * <p>
+ * the queries are built on {@link #keySet()}, {@link #lookup},
+ * {@link #keys(String)}, {@link #values(String)} and
+ * {@link #put(String, String, String)}, so that subclasses, such as
+ * {@link SymbolStore}, can keep the multimaps in another layout.
  */
 public class Store {
 
+    /**
+     * approximate bytes taken by a key: the string, its map entry and its list
+     */
+    private static final int KEY_OVERHEAD = 40 + 32 + 56;
+    /**
+     * approximate bytes taken by a value: the string and its list slot
+     */
+    private static final int VALUE_OVERHEAD = 40 + 4;
+
     private final ConcurrentHashMap<String, Map<String, Collection<String>>> storeMap;
+    private final LongAdder version = new LongAdder();
+    private final ConcurrentHashMap<String, Counters> counters = new ConcurrentHashMap<>();
 
     protected Store(Configuration configuration) {
-        storeMap = new ConcurrentHashMap<>();
+        this();
         for (Scanner scanner : configuration.getScanners()) {
             String index = index(scanner.getClass());
             storeMap.computeIfAbsent(index, s -> new ConcurrentHashMap<>());
         }
     }
 
+    /**
+     * creates an empty store, for subclasses keeping their own multimaps
+     */
+    protected Store() {
+        storeMap = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * a counter incremented on each put adding a value, so that results
+     * computed from the store can tell whether it changed since. in this
+     * store, every put adds a value
+     *
+     * @return the version of the store
+     */
+    public long version() {
+        return version.sum();
+    }
+
+    /**
+     * updates the counters of {@link #stats()} and the version, to be called
+     * by subclasses after each put
+     *
+     * @param index the index
+     * @param newKey true if the key had no value before
+     * @param added true if the value was added, false if it was a duplicate
+     * @param bytes the approximate number of bytes the put took
+     */
+    protected final void recordPut(String index, boolean newKey, boolean added, long bytes) {
+        Counters counter = counters.computeIfAbsent(index, s -> new Counters());
+        if (newKey) {
+            counter.keys.increment();
+        }
+        if (added) {
+            counter.values.increment();
+            counter.bytes.add(bytes);
+            version.increment();
+        } else {
+            counter.duplicates.increment();
+        }
+    }
+
+    /**
+     * the counters of each index, kept as values are put, so that they cost
+     * nothing to read. bytes are estimated by the store from the length of
+     * the keys and values and the overhead of the structures holding them.
+     * duplicates are only counted by stores whose structure already finds
+     * them: this store keeps each key's values in a list, which holds a
+     * duplicate as one more value.
+     *
+     * @return the counters by index
+     */
+    public Map<String, IndexStats> stats() {
+        Map<String, IndexStats> result = new TreeMap<>();
+        for (String index : keySet()) {
+            Counters counter = counters.get(index);
+            result.put(index, counter != null
+                    ? new IndexStats(index, counter.keys.sum(), counter.values.sum(), counter.duplicates.sum(), counter.bytes.sum())
+                    : new IndexStats(index, 0, 0, 0, 0));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+
     /**
      * return all indices
      *
@@ -39,15 +126,31 @@ public class Store {
     }
 
     /**
-     * get the multimap object for the given {@code index}, otherwise throws a
-     * ReflectionsException
+     * throws a ReflectionsException if there is no multimap for the given
+     * {@code index}
      */
-    private Map<String, Collection<String>> get(String index) {
-        Map<String, Collection<String>> mmap = storeMap.get(index);
-        if (mmap == null) {
+    private void checkIndex(String index) {
+        if (!keySet().contains(index)) {
             throw new ReflectionException("Scanner " + index + " was not configured");
         }
-        return mmap;
+    }
+
+    /**
+     * get the values stored for the given {@code index} and {@code key}
+     *
+     * @param index an existing index
+     * @param key the key
+     * @return the values, or null if there are none
+     */
+    protected Collection<String> lookup(String index, String key) {
+        Collection<String> values = storeMap.get(index).get(key);
+        if (values == null) {
+            return null;
+        }
+        //copied under the lock of the set, as puts may run concurrently
+        synchronized (values) {
+            return new ArrayList<>(values);
+        }
     }
 
     /**
@@ -87,10 +190,10 @@ public class Store {
      * get the values stored for the given {@code index} and {@code keys}
      */
     private Set<String> get(String index, Collection<String> keys) {
-        Map<String, Collection<String>> mmap = get(index);
+        checkIndex(index);
         Set<String> result = new LinkedHashSet<>();
         for (String key : keys) {
-            Collection<String> values = mmap.get(key);
+            Collection<String> values = lookup(index, key);
             if (values != null) {
                 result.addAll(values);
             }
@@ -108,14 +211,14 @@ public class Store {
      */
     public Set<String> getAllIncluding(Class<?> scannerClass, Collection<String> keys) {
         String index = index(scannerClass);
-        Map<String, Collection<String>> mmap = get(index);
+        checkIndex(index);
         List<String> workKeys = new ArrayList<>(keys);
 
         Set<String> result = new HashSet<>();
         for (int i = 0; i < workKeys.size(); i++) {
             String key = workKeys.get(i);
             if (result.add(key)) {
-                Collection<String> values = mmap.get(key);
+                Collection<String> values = lookup(index, key);
                 if (values != null) {
                     workKeys.addAll(values);
                 }
@@ -146,6 +249,135 @@ public class Store {
         return getAllIncluding(scannerClass, get(scannerClass, keys));
     }
 
+    /**
+     * streams the distinct values stored for the given {@code index} and
+     * {@code key}, as {@link #get(String, String)}. the values are looked up
+     * as by {@code get}, which in this store copies them, but are not
+     * collected in a set
+     *
+     * @param scannerClass the scanner class
+     * @param key the key
+     * @return the values
+     */
+    public Stream<String> stream(Class<?> scannerClass, String key) {
+        return stream(index(scannerClass), key);
+    }
+
+    /**
+     * streams the distinct values stored for the given {@code index} and
+     * {@code key}, as {@link #get(String, String)}. the values are looked up
+     * as by {@code get}, which in this store copies them, but are not
+     * collected in a set
+     *
+     * @param index the index
+     * @param key the key
+     * @return the values
+     */
+    public Stream<String> stream(String index, String key) {
+        checkIndex(index);
+        Collection<String> values = lookup(index, key);
+        return values != null ? values.stream().distinct() : Stream.empty();
+    }
+
+    /**
+     * streams the distinct values stored for the given {@code index} and
+     * {@code keys}, looking up each key only once the values of the previous
+     * ones are consumed
+     *
+     * @param scannerClass the scanner class
+     * @param keys the keys
+     * @return the values
+     */
+    public Stream<String> stream(Class<?> scannerClass, Collection<String> keys) {
+        String index = index(scannerClass);
+        checkIndex(index);
+        return keys.stream().flatMap(key -> {
+            Collection<String> values = lookup(index, key);
+            return values != null ? values.stream() : Stream.<String>empty();
+        }).distinct();
+    }
+
+    /**
+     * lazily traverses the values stored for the given {@code index} and
+     * {@code keys}, as {@link #getAllIncluding}, in breadth first order.
+     * each value is looked up only once it is consumed, so that a short
+     * circuiting operation, such as {@code anyMatch}, stops the traversal.
+     *
+     * @param scannerClass the scanner class
+     * @param keys the keys
+     * @return the keys and their transitive values
+     */
+    public Stream<String> streamAllIncluding(Class<?> scannerClass, Collection<String> keys) {
+        return streamAllIncluding(index(scannerClass), keys);
+    }
+
+    /**
+     * lazily traverses the values stored for the given {@code index} and
+     * {@code keys}, as {@link #streamAllIncluding(Class, Collection)}
+     *
+     * @param index the index
+     * @param keys the keys
+     * @return the keys and their transitive values
+     */
+    public Stream<String> streamAllIncluding(String index, Collection<String> keys) {
+        checkIndex(index);
+        return StreamSupport.stream(new Closure(index, keys), false);
+    }
+
+    /**
+     * lazily traverses the values stored for the given {@code index} and
+     * {@code key}, not including the key, as {@link #getAll(Class, String)}
+     *
+     * @param scannerClass the scanner class
+     * @param key the key
+     * @return the transitive values
+     */
+    public Stream<String> streamAll(Class<?> scannerClass, String key) {
+        return streamAll(index(scannerClass), key);
+    }
+
+    /**
+     * lazily traverses the values stored for the given {@code index} and
+     * {@code key}, not including the key, as {@link #getAll(Class, String)}
+     *
+     * @param index the index
+     * @param key the key
+     * @return the transitive values
+     */
+    public Stream<String> streamAll(String index, String key) {
+        checkIndex(index);
+        Collection<String> values = lookup(index, key);
+        return values != null ? StreamSupport.stream(new Closure(index, values), false) : Stream.empty();
+    }
+
+    /**
+     * streams the keys of the given {@code index}, over the store itself
+     * rather than a copy of them. keys put while the stream is consumed may
+     * or may not be seen.
+     *
+     * @param index the index
+     * @return the keys
+     */
+    public Stream<String> keyStream(String index) {
+        Map<String, Collection<String>> map = storeMap.get(index);
+        //subclasses keep their own multimaps, read through keys()
+        return map != null ? map.keySet().stream() : keys(index).stream();
+    }
+
+    /**
+     * streams the distinct values of the given {@code index}, looking up the
+     * values of each key only once those of the previous ones are consumed
+     *
+     * @param index the index
+     * @return the values
+     */
+    public Stream<String> valueStream(String index) {
+        return keyStream(index).flatMap(key -> {
+            Collection<String> values = lookup(index, key);
+            return values != null ? values.stream() : Stream.<String>empty();
+        }).distinct();
+    }
+
     public Set<String> keys(String index) {
         Map<String, Collection<String>> map = storeMap.get(index);
         return map != null ? new HashSet<>(map.keySet()) : Collections.emptySet();
@@ -153,7 +385,16 @@ public class Store {
 
     public Set<String> values(String index) {
         Map<String, Collection<String>> map = storeMap.get(index);
-        return map != null ? map.values().stream().flatMap(Collection::stream).collect(Collectors.toSet()) : Collections.emptySet();
+        if (map == null) {
+            return Collections.emptySet();
+        }
+        Set<String> result = new HashSet<>();
+        for (Collection<String> values : map.values()) {
+            synchronized (values) {
+                result.addAll(values);
+            }
+        }
+        return result;
     }
 
     //
@@ -162,23 +403,111 @@ public class Store {
     }
 
     public boolean put(String index, String key, String value) {
-        return storeMap.computeIfAbsent(index, s -> new ConcurrentHashMap<>())
-                .computeIfAbsent(key, s -> Collections.synchronizedList(new ArrayList<>()))
-                .add(value);
+        Map<String, Collection<String>> map = storeMap.computeIfAbsent(index, s -> new ConcurrentHashMap<>());
+        Collection<String> values = map.get(key);
+        boolean newKey = false;
+        if (values == null) {
+            Collection<String> created = Collections.synchronizedList(new ArrayList<>());
+            values = map.putIfAbsent(key, created);
+            if (values == null) {
+                values = created;
+                newKey = true;
+            }
+        }
+        boolean added = values.add(value);
+        recordPut(index, newKey, added, (newKey ? KEY_OVERHEAD + key.length() : 0) + VALUE_OVERHEAD + value.length());
+        return added;
+    }
+
+    /**
+     * makes the values put so far visible to readers of the store. called
+     * once each url is scanned, and once scanning is done. values put in this
+     * store are visible at once, so this does nothing.
+     */
+    public void publish() {
+    }
+
+    /**
+     * whether {@link #put(String, String, String)} is unsupported, as for a
+     * frozen or mapped store
+     *
+     * @return true if the store can't be modified
+     */
+    public boolean isReadOnly() {
+        return false;
+    }
+
+    /**
+     * compacts the store into an immutable {@link FrozenStore}, which answers
+     * the same queries without locking, once scanning is done
+     *
+     * @return the frozen store
+     */
+    public FrozenStore freeze() {
+        return FrozenStore.of(this);
     }
 
     void merge(Store store) {
         if (store != null) {
             for (String indexName : store.keySet()) {
-                Map<String, Collection<String>> index = store.get(indexName);
-                if (index != null) {
-                    for (String key : index.keySet()) {
-                        for (String string : index.get(key)) {
-                            put(indexName, key, string);
-                        }
+                merge(store, indexName);
+            }
+        }
+    }
+
+    /**
+     * put the values of the given {@code index} of another store in this one
+     */
+    void merge(Store store, String index) {
+        if (store.keySet().contains(index)) {
+            for (String key : store.keys(index)) {
+                for (String string : store.lookup(index, key)) {
+                    put(index, key, string);
+                }
+            }
+        }
+    }
+
+    /**
+     * a breadth first traversal of an index, looking up the values of a key
+     * as it is consumed. each lookup is a copy of the values of the key in
+     * this store, so the traversal saves the lookups of the keys it does not
+     * reach, not the copies of those it does
+     */
+    private final class Closure extends Spliterators.AbstractSpliterator<String> {
+
+        private final String index;
+        private final Deque<String> work;
+        private final Set<String> seen = new HashSet<>();
+
+        Closure(String index, Collection<String> keys) {
+            super(Long.MAX_VALUE, Spliterator.DISTINCT | Spliterator.NONNULL);
+            this.index = index;
+            this.work = new ArrayDeque<>(keys);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            String key;
+            while ((key = work.poll()) != null) {
+                if (seen.add(key)) {
+                    Collection<String> values = lookup(index, key);
+                    if (values != null) {
+                        work.addAll(values);
                     }
+                    action.accept(key);
+                    return true;
                 }
             }
+            return false;
         }
     }
+
+    private static final class Counters {
+
+        private final LongAdder keys = new LongAdder();
+        private final LongAdder values = new LongAdder();
+        private final LongAdder duplicates = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+    }
 }
@@ -0,0 +1,139 @@
+package com.phyzicsz.rocket.reflection;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * the content of a store as arrays, shared by {@link FrozenStore} and
+ * {@link MappedStore}.
+ * <p>
+ * keys and values are replaced by ids into a sorted array of the distinct
+ * strings of all indices. each index keeps its key ids sorted, and the value
+ * ids of each key, in the order they were put and without duplicates, in a
+ * single array sliced by offsets.
+ */
+final class StoreLayout {
+
+    /**
+     * the order of strings by unicode code point, which is the unsigned byte
+     * order of their utf-8 encoding
+     */
+    static final Comparator<String> CODE_POINT_ORDER = StoreLayout::compareCodePoints;
+
+    private final String[] symbols;
+    private final Map<String, Index> indices;
+
+    private StoreLayout(String[] symbols, Map<String, Index> indices) {
+        this.symbols = symbols;
+        this.indices = indices;
+    }
+
+    /**
+     * lays out the content of a store
+     *
+     * @param store the store
+     * @param order the order of the symbols
+     * @param indexNames whether the names of the indices are symbols too
+     * @return the layout
+     */
+    static StoreLayout of(Store store, Comparator<String> order, boolean indexNames) {
+        Set<String> strings = new HashSet<>();
+        Map<String, Map<String, Collection<String>>> content = new HashMap<>();
+        for (String index : store.keySet()) {
+            Map<String, Collection<String>> map = new HashMap<>();
+            for (String key : store.keys(index)) {
+                Collection<String> values = store.lookup(index, key);
+                if (values != null && !values.isEmpty()) {
+                    map.put(key, values);
+                    strings.add(key);
+                    strings.addAll(values);
+                }
+            }
+            content.put(index, map);
+            if (indexNames) {
+                strings.add(index);
+            }
+        }
+        String[] symbols = strings.toArray(new String[0]);
+        Arrays.sort(symbols, order);
+
+        Map<String, Index> indices = new HashMap<>();
+        for (Map.Entry<String, Map<String, Collection<String>>> entry : content.entrySet()) {
+            indices.put(entry.getKey(), new Index(symbols, order, entry.getValue()));
+        }
+        return new StoreLayout(symbols, indices);
+    }
+
+    String[] symbols() {
+        return symbols;
+    }
+
+    Map<String, Index> indices() {
+        return indices;
+    }
+
+    private static int compareCodePoints(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int x = a.codePointAt(i);
+            int y = b.codePointAt(j);
+            if (x != y) {
+                return Integer.compare(x, y);
+            }
+            i += Character.charCount(x);
+            j += Character.charCount(y);
+        }
+        return Boolean.compare(i < a.length(), j < b.length());
+    }
+
+    /**
+     * an index as sorted key ids, with the value ids of key {@code keys[k]}, in
+     * the order they were put, at {@code values[offsets[k]]} to
+     * {@code values[offsets[k + 1]]}
+     */
+    static final class Index {
+
+        final int[] keys;
+        final int[] offsets;
+        final int[] values;
+
+        Index(String[] symbols, Comparator<String> order, Map<String, Collection<String>> map) {
+            keys = new int[map.size()];
+            int k = 0;
+            int size = 0;
+            for (Map.Entry<String, Collection<String>> entry : map.entrySet()) {
+                keys[k++] = Arrays.binarySearch(symbols, entry.getKey(), order);
+                size += entry.getValue().size();
+            }
+            Arrays.sort(keys);
+
+            offsets = new int[keys.length + 1];
+            int[] buffer = new int[size];
+            //the values already in the current key, cleared after each key
+            BitSet seen = new BitSet(symbols.length);
+            int end = 0;
+            for (k = 0; k < keys.length; k++) {
+                int start = end;
+                for (String value : map.get(symbols[keys[k]])) {
+                    int id = Arrays.binarySearch(symbols, value, order);
+                    if (!seen.get(id)) {
+                        seen.set(id);
+                        buffer[end++] = id;
+                    }
+                }
+                for (int i = start; i < end; i++) {
+                    seen.clear(buffer[i]);
+                }
+                offsets[k + 1] = end;
+            }
+            values = Arrays.copyOf(buffer, end);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.phyzicsz.rocket.reflection;
+
+import com.phyzicsz.rocket.reflection.util.VirtualThreads;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * the per thread stores scanning threads put their results in, so that they
+ * don't contend on the shared store, merged into it once scanning is done.
+ * <p>
+ * virtual threads are short lived, one per file, so they put in the shared
+ * store directly.
+ */
+class StoreShards {
+
+    private final Map<Thread, Shard> shards = new ConcurrentHashMap<>();
+
+    /**
+     * the store the current thread should put its results in
+     *
+     * @param store the shared store
+     * @return the shard of the current thread, or the shared store
+     */
+    Store get(Store store) {
+        if (VirtualThreads.isVirtual(Thread.currentThread())) {
+            return store;
+        }
+        return shards.computeIfAbsent(Thread.currentThread(), thread -> new Shard());
+    }
+
+    /**
+     * merges the shards into the shared store, each index in its own task, and
+     * empties them
+     *
+     * @param store the shared store
+     */
+    void merge(Store store) {
+        Set<String> indices = new HashSet<>();
+        for (Shard s : shards.values()) {
+            indices.addAll(s.keySet());
+        }
+        indices.parallelStream().forEach(index -> {
+            for (Shard s : shards.values()) {
+                store.merge(s, index);
+            }
+        });
+        shards.clear();
+    }
+
+    /**
+     * an unsynchronized store, only used by the thread owning it
+     */
+    static final class Shard extends Store {
+
+        private final Map<String, Map<String, List<String>>> shardMap = new HashMap<>();
+
+        @Override
+        public Set<String> keySet() {
+            return shardMap.keySet();
+        }
+
+        @Override
+        protected Collection<String> lookup(String index, String key) {
+            return shardMap.get(index).get(key);
+        }
+
+        @Override
+        public Set<String> keys(String index) {
+            Map<String, List<String>> map = shardMap.get(index);
+            return map != null ? new HashSet<>(map.keySet()) : Collections.emptySet();
+        }
+
+        @Override
+        public Set<String> values(String index) {
+            Map<String, List<String>> map = shardMap.get(index);
+            Set<String> result = new LinkedHashSet<>();
+            if (map != null) {
+                map.values().forEach(result::addAll);
+            }
+            return result;
+        }
+
+        @Override
+        public boolean put(String index, String key, String value) {
+            return shardMap.computeIfAbsent(index, s -> new HashMap<>())
+                    .computeIfAbsent(key, s -> new ArrayList<>())
+                    .add(value);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.phyzicsz.rocket.reflection;
+
+import com.phyzicsz.rocket.reflection.scanners.Scanner;
+import static com.phyzicsz.rocket.reflection.util.Utils.index;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * a store keeping each distinct key and value once, in a symbol table shared
+ * by all indices, and the multimaps as int ids.
+ * <p>
+ * the same class names are found in the keys and values of most indices, so
+ * on large classpaths this takes a fraction of the heap of {@link Store},
+ * which keeps a string and a list entry per value. the string queries of
+ * {@link Store} work as before, decoding the ids they return.
+ * <p>
+ * writes are serialized, reads may run concurrently with each other.
+ */
+public class SymbolStore extends Store {
+
+    /**
+     * approximate bytes taken by a symbol besides its characters: the string,
+     * its array slot and its table slots
+     */
+    private static final int SYMBOL_OVERHEAD = 40 + 4 + 8;
+    /**
+     * approximate bytes taken by a key: its table slots and its value array
+     */
+    private static final int KEY_OVERHEAD = 24 + 24;
+    /**
+     * approximate bytes taken by a value: its slot in the value array
+     */
+    private static final int VALUE_OVERHEAD = 4;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, IntMultimap> indices = new ConcurrentHashMap<>();
+
+    private String[] symbols = new String[1024];
+    private int symbolCount;
+    /**
+     * open addressing table of symbol ids + 1, 0 for an empty slot
+     */
+    private int[] symbolTable = new int[2048];
+
+    public SymbolStore(Configuration configuration) {
+        for (Scanner scanner : configuration.getScanners()) {
+            indices.computeIfAbsent(index(scanner.getClass()), s -> new IntMultimap());
+        }
+    }
+
+    /**
+     * the number of distinct keys and values, across all indices
+     *
+     * @return the number of symbols
+     */
+    public int symbolCount() {
+        lock.readLock().lock();
+        try {
+            return symbolCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return indices.keySet();
+    }
+
+    @Override
+    protected Collection<String> lookup(String index, String key) {
+        IntMultimap map = indices.get(index);
+        lock.readLock().lock();
+        try {
+            int id = find(key);
+            int[] values = id >= 0 ? map.get(id) : null;
+            if (values == null) {
+                return null;
+            }
+            List<String> result = new ArrayList<>(values[0]);
+            for (int i = 1; i <= values[0]; i++) {
+                result.add(symbols[values[i]]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<String> keys(String index) {
+        IntMultimap map = indices.get(index);
+        if (map == null) {
+            return Collections.emptySet();
+        }
+        lock.readLock().lock();
+        try {
+            Set<String> result = new HashSet<>(map.size * 4 / 3 + 1);
+            for (int slot = 0; slot < map.keys.length; slot++) {
+                if (map.keys[slot] != 0) {
+                    result.add(symbols[map.keys[slot] - 1]);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<String> values(String index) {
+        IntMultimap map = indices.get(index);
+        if (map == null) {
+            return Collections.emptySet();
+        }
+        lock.readLock().lock();
+        try {
+            Set<String> result = new HashSet<>();
+            for (int slot = 0; slot < map.keys.length; slot++) {
+                int[] values = map.values[slot];
+                if (values != null) {
+                    for (int i = 1; i <= values[0]; i++) {
+                        result.add(symbols[values[i]]);
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean put(String index, String key, String value) {
+        IntMultimap map = indices.computeIfAbsent(index, s -> new IntMultimap());
+        int result;
+        long bytes;
+        lock.writeLock().lock();
+        try {
+            int symbols = symbolCount;
+            int keyId = intern(key);
+            int valueId = intern(value);
+            bytes = symbolCount == symbols ? 0
+                    : (symbolCount - symbols == 2 ? SYMBOL_OVERHEAD * 2 + key.length() + value.length()
+                    : SYMBOL_OVERHEAD + (symbols == keyId ? key.length() : value.length()));
+            result = map.put(keyId, valueId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        recordPut(index, result == IntMultimap.NEW_KEY, true,
+                bytes + (result == IntMultimap.NEW_KEY ? KEY_OVERHEAD : 0) + VALUE_OVERHEAD);
+        return true;
+    }
+
+    /**
+     * the id of a symbol, or -1 if it is not in the table
+     */
+    private int find(String symbol) {
+        int mask = symbolTable.length - 1;
+        for (int slot = mix(symbol.hashCode()) & mask; symbolTable[slot] != 0; slot = (slot + 1) & mask) {
+            int id = symbolTable[slot] - 1;
+            if (symbols[id].equals(symbol)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * the id of a symbol, adding it to the table if needed. called with the
+     * write lock held.
+     */
+    private int intern(String symbol) {
+        int mask = symbolTable.length - 1;
+        int slot = mix(symbol.hashCode()) & mask;
+        for (; symbolTable[slot] != 0; slot = (slot + 1) & mask) {
+            int id = symbolTable[slot] - 1;
+            if (symbols[id].equals(symbol)) {
+                return id;
+            }
+        }
+        int id = symbolCount++;
+        if (id == symbols.length) {
+            symbols = Arrays.copyOf(symbols, id * 2);
+        }
+        symbols[id] = symbol;
+        symbolTable[slot] = id + 1;
+        if (symbolCount * 2 > symbolTable.length) {
+            rehashSymbols();
+        }
+        return id;
+    }
+
+    private void rehashSymbols() {
+        int[] table = new int[symbolTable.length * 2];
+        int mask = table.length - 1;
+        for (int id = 0; id < symbolCount; id++) {
+            int slot = mix(symbols[id].hashCode()) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id + 1;
+        }
+        symbolTable = table;
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * an open addressing multimap of int ids. the values of a key are kept in
+     * an array holding their count first, followed by the values in insertion
+     * order. as in the lists of {@link Store}, a duplicate is one more value.
+     */
+    private static final class IntMultimap {
+
+        static final int ADDED = 1;
+        static final int NEW_KEY = 2;
+
+        private int[] keys = new int[16];
+        private int[][] values = new int[16][];
+        private int size;
+
+        int[] get(int key) {
+            int mask = keys.length - 1;
+            for (int slot = mix(key) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == key + 1) {
+                    return values[slot];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * adds a value for a key
+         *
+         * @return {@link #ADDED} or {@link #NEW_KEY}
+         */
+        int put(int key, int value) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != 0 && keys[slot] != key + 1) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == 0) {
+                keys[slot] = key + 1;
+                values[slot] = new int[]{1, value};
+                if (++size * 2 > keys.length) {
+                    rehash();
+                }
+                return NEW_KEY;
+            }
+            int[] current = values[slot];
+            int count = current[0] + 1;
+            if (count == current.length) {
+                current = Arrays.copyOf(current, count + (count >> 1) + 1);
+                values[slot] = current;
+            }
+            current[count] = value;
+            current[0] = count;
+            return ADDED;
+        }
+
+        private void rehash() {
+            int[] oldKeys = keys;
+            int[][] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2][];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = mix(oldKeys[i] - 1) & mask;
+                    while (keys[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.phyzicsz.rocket.reflection.adapters;
+
+import java.lang.reflect.Array;
+import java.util.List;
+
+/**
+ * encodes annotation member values as strings, the same way whether they are
+ * read from a class file or from an annotation instance, so that member
+ * values can be indexed at scan time and matched without loading classes.
+ * <p>
+ * a member value is recorded as {@code type#member=value}, such as
+ * {@code com.acme.Named#value=x}. numbers, booleans, characters, strings and
+ * enum constant names are written as is, classes as {@link Class#getName()}
+ * and arrays as their encoded elements within brackets. nested annotations
+ * are not encoded. different values may encode the same, an array of strings
+ * containing commas for instance, so matches are to be checked on the final
+ * elements.
+ */
+public final class AnnotationValues {
+
+    private AnnotationValues() {
+    }
+
+    /**
+     * the key of a member value
+     *
+     * @param annotationType the annotation type name
+     * @param member the member name
+     * @param value the encoded value
+     * @return the key
+     */
+    public static String key(String annotationType, String member, String value) {
+        return annotationType + "#" + member + "=" + value;
+    }
+
+    /**
+     * the key of a member set to any value
+     *
+     * @param annotationType the annotation type name
+     * @param member the member name
+     * @return the key
+     */
+    public static String key(String annotationType, String member) {
+        return annotationType + "#" + member;
+    }
+
+    /**
+     * the key of a member set to any value, from the key of a member value
+     *
+     * @param valueKey the key of a member value
+     * @return the key of the member
+     */
+    public static String memberKey(String valueKey) {
+        return valueKey.substring(0, valueKey.indexOf('=', valueKey.indexOf('#')));
+    }
+
+    /**
+     * the annotation type name of the key of a member value
+     *
+     * @param valueKey the key of a member value
+     * @return the annotation type name
+     */
+    public static String annotationType(String valueKey) {
+        return valueKey.substring(0, valueKey.indexOf('#'));
+    }
+
+    /**
+     * encodes a member value of an annotation instance
+     *
+     * @param value the value returned by the member
+     * @return the encoded value, or null if it holds a nested annotation
+     */
+    public static String encode(Object value) {
+        if (value instanceof Class) {
+            return ((Class<?>) value).getName();
+        } else if (value instanceof Enum) {
+            return ((Enum<?>) value).name();
+        } else if (value instanceof java.lang.annotation.Annotation) {
+            return null;
+        } else if (value != null && value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            StringBuilder result = new StringBuilder("[");
+            for (int i = 0; i < length; i++) {
+                String element = encode(Array.get(value, i));
+                if (element == null) {
+                    return null;
+                }
+                result.append(i > 0 ? "," : "").append(element);
+            }
+            return result.append(']').toString();
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * encodes a class member value given by its descriptor, as found in a
+     * class file
+     *
+     * @param descriptor the type descriptor, such as {@code Ljava/lang/String;}
+     * @return the encoded value
+     */
+    public static String encodeClass(String descriptor) {
+        if (descriptor.charAt(0) == '[') {
+            return descriptor.replace('/', '.');
+        }
+        return Descriptors.typeName(descriptor, 0, descriptor.length());
+    }
+
+    /**
+     * encodes a class member value given by its type name, such as
+     * {@code java.lang.String[]}
+     *
+     * @param typeName the type name
+     * @return the encoded value
+     */
+    public static String encodeClassName(String typeName) {
+        int end = typeName.length();
+        StringBuilder result = new StringBuilder();
+        while (typeName.startsWith("[]", end - 2)) {
+            result.append('[');
+            end -= 2;
+        }
+        if (result.length() == 0) {
+            return typeName;
+        }
+        String component = typeName.substring(0, end);
+        switch (component) {
+            case "boolean":
+                return result.append('Z').toString();
+            case "byte":
+                return result.append('B').toString();
+            case "char":
+                return result.append('C').toString();
+            case "short":
+                return result.append('S').toString();
+            case "int":
+                return result.append('I').toString();
+            case "long":
+                return result.append('J').toString();
+            case "float":
+                return result.append('F').toString();
+            case "double":
+                return result.append('D').toString();
+            default:
+                return result.append('L').append(component).append(';').toString();
+        }
+    }
+
+    /**
+     * encodes an array member value from its encoded elements
+     *
+     * @param elements the encoded elements
+     * @return the encoded value, or null if an element is null
+     */
+    static String encodeArray(List<String> elements) {
+        StringBuilder result = new StringBuilder("[");
+        for (int i = 0; i < elements.size(); i++) {
+            if (elements.get(i) == null) {
+                return null;
+            }
+            result.append(i > 0 ? "," : "").append(elements.get(i));
+        }
+        return result.append(']').toString();
+    }
+}
@@ -0,0 +1,644 @@
+package com.phyzicsz.rocket.reflection.adapters;
+
+import com.phyzicsz.rocket.reflection.exception.ReflectionException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * a light, read-only class file reader.
+ * <p>
+ * the constructor only indexes the class file: it records the offset of each
+ * constant pool entry, and of the members and annotation attributes. strings
+ * are decoded from the constant pool on first use, and all other attributes,
+ * such as method bodies, are skipped.
+ * <p>
+ * given a {@link MetadataLevel}, the reader stops indexing once that level is
+ * reached: a {@link MetadataLevel#HEADER} reader never walks the fields and
+ * methods tables. asking for metadata beyond the level throws a
+ * {@link ReflectionException}.
+ *
+ * @see
+ * <a href="https://docs.oracle.com/javase/specs/jvms/se11/html/jvms-4.html">The
+ * class File Format</a>
+ */
+public final class ClassReader {
+
+    static final int UTF8 = 1;
+    static final int INTEGER = 3;
+    static final int FLOAT = 4;
+    static final int LONG = 5;
+    static final int DOUBLE = 6;
+    static final int CLASS = 7;
+    static final int STRING = 8;
+    static final int FIELD_REF = 9;
+    static final int METHOD_REF = 10;
+    static final int INTERFACE_METHOD_REF = 11;
+    static final int NAME_AND_TYPE = 12;
+    static final int METHOD_HANDLE = 15;
+    static final int METHOD_TYPE = 16;
+    static final int DYNAMIC = 17;
+    static final int INVOKE_DYNAMIC = 18;
+    static final int MODULE = 19;
+    static final int PACKAGE = 20;
+
+    private static final byte[] VISIBLE_ANNOTATIONS = ascii("RuntimeVisibleAnnotations");
+    private static final byte[] INVISIBLE_ANNOTATIONS = ascii("RuntimeInvisibleAnnotations");
+    private static final byte[] VISIBLE_PARAMETER_ANNOTATIONS = ascii("RuntimeVisibleParameterAnnotations");
+    private static final byte[] INVISIBLE_PARAMETER_ANNOTATIONS = ascii("RuntimeInvisibleParameterAnnotations");
+
+    private final byte[] b;
+    private final MetadataLevel level;
+    private final int[] offsets;
+    private final String[] strings;
+    private final int accessFlags;
+    private final int thisClass;
+    private final int superClass;
+    private final int interfaces;
+    private final int interfacesCount;
+    private final List<Member> fields;
+    private final List<Member> methods;
+    private final Attributes attributes;
+
+    /**
+     * @param bytes the class file. the array is not copied, and should not be
+     * modified while the reader is used.
+     */
+    public ClassReader(byte[] bytes) {
+        this(bytes, MetadataLevel.CODE);
+    }
+
+    /**
+     * @param bytes the class file. the array is not copied, and should not be
+     * modified while the reader is used.
+     * @param level the metadata to index
+     */
+    public ClassReader(byte[] bytes, MetadataLevel level) {
+        this.b = bytes;
+        this.level = level;
+        if (bytes.length < 10 || u4(0) != 0xCAFEBABE) {
+            throw new ReflectionException("not a class file");
+        }
+
+        int count = u2(8);
+        offsets = new int[count];
+        strings = new String[count];
+        int u = 10;
+        for (int i = 1; i < count; i++) {
+            offsets[i] = u;
+            u += entrySize(b, u);
+            if (b[offsets[i]] == LONG || b[offsets[i]] == DOUBLE) {
+                i++; //takes two entries
+            }
+        }
+
+        accessFlags = u2(u);
+        thisClass = u2(u + 2);
+        superClass = u2(u + 4);
+        interfacesCount = u2(u + 6);
+        interfaces = u + 8;
+        u = interfaces + 2 * interfacesCount;
+
+        if (!level.includes(MetadataLevel.MEMBERS)) {
+            fields = null;
+            methods = null;
+            attributes = null;
+            return;
+        }
+        boolean annotations = level.includes(MetadataLevel.ANNOTATIONS);
+
+        int fieldsCount = u2(u);
+        fields = new ArrayList<>(fieldsCount);
+        u += 2;
+        for (int i = 0; i < fieldsCount; i++) {
+            Member field = new Member(u, annotations);
+            fields.add(field);
+            u = field.attributes.end;
+        }
+
+        int methodsCount = u2(u);
+        methods = new ArrayList<>(methodsCount);
+        u += 2;
+        for (int i = 0; i < methodsCount; i++) {
+            Member method = new Member(u, annotations);
+            methods.add(method);
+            u = method.attributes.end;
+        }
+
+        attributes = annotations ? new Attributes(u, true) : null;
+    }
+
+    /**
+     * @param buffer the class file, from its position to its limit. the
+     * backing array is used directly when it covers the whole class file, and
+     * copied otherwise.
+     */
+    public ClassReader(ByteBuffer buffer) {
+        this(array(buffer), MetadataLevel.CODE);
+    }
+
+    /**
+     * @param buffer the class file, from its position to its limit
+     * @param level the metadata to index
+     */
+    public ClassReader(ByteBuffer buffer, MetadataLevel level) {
+        this(array(buffer), level);
+    }
+
+    private static byte[] array(ByteBuffer buffer) {
+        if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0
+                && buffer.limit() == buffer.array().length) {
+            return buffer.array();
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    public MetadataLevel getMetadataLevel() {
+        return level;
+    }
+
+    public int getAccessFlags() {
+        return accessFlags;
+    }
+
+    public String getName() {
+        return getClassName(thisClass);
+    }
+
+    /**
+     * the super class of the class
+     *
+     * @return the name of the super class, or null for java.lang.Object and
+     * module-info
+     */
+    public String getSuperclassName() {
+        return superClass != 0 ? getClassName(superClass) : null;
+    }
+
+    public List<String> getInterfaceNames() {
+        if (interfacesCount == 0) {
+            return Collections.emptyList();
+        }
+        List<String> names = new ArrayList<>(interfacesCount);
+        for (int i = 0; i < interfacesCount; i++) {
+            names.add(getClassName(u2(interfaces + 2 * i)));
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    public List<Member> getFields() {
+        require(MetadataLevel.MEMBERS);
+        return fields;
+    }
+
+    public List<Member> getMethods() {
+        require(MetadataLevel.MEMBERS);
+        return methods;
+    }
+
+    /**
+     * the annotations of the class
+     *
+     * @param includeInvisible if true, include annotations not retained at
+     * runtime
+     * @return the type names of the annotations of the class
+     */
+    public List<String> getAnnotationNames(boolean includeInvisible) {
+        require(MetadataLevel.ANNOTATIONS);
+        return attributes.annotationNames(includeInvisible);
+    }
+
+    /**
+     * the member values explicitly set on the annotations of the class
+     *
+     * @param includeInvisible if true, include annotations not retained at
+     * runtime
+     * @return the member value keys, as encoded by {@link AnnotationValues}
+     */
+    public List<String> getAnnotationValues(boolean includeInvisible) {
+        require(MetadataLevel.ANNOTATIONS);
+        return attributes.annotationValues(includeInvisible);
+    }
+
+    /**
+     * decodes a CONSTANT_Utf8 entry, once
+     *
+     * @param index a constant pool index
+     * @return the decoded CONSTANT_Utf8 entry at the given index
+     */
+    public String getUtf8(int index) {
+        String s = strings[index];
+        if (s == null) {
+            int offset = offsets[index];
+            if (b[offset] != UTF8) {
+                throw new ReflectionException("constant pool entry " + index + " is not a utf8 entry");
+            }
+            s = strings[index] = decode(offset + 3, u2(offset + 1));
+        }
+        return s;
+    }
+
+    /**
+     * the name of a CONSTANT_Class entry
+     *
+     * @param index the constant pool index of a CONSTANT_Class entry
+     * @return the type name of the class
+     */
+    public String getClassName(int index) {
+        return Descriptors.className(getUtf8(u2(offsets[index] + 1)));
+    }
+
+    private void require(MetadataLevel required) {
+        if (!level.includes(required)) {
+            throw new ReflectionException(required + " metadata of " + getName() + " was not read, the reader was created for " + level);
+        }
+    }
+
+    //
+    int u1(int offset) {
+        return b[offset] & 0xFF;
+    }
+
+    int u2(int offset) {
+        return ((b[offset] & 0xFF) << 8) | (b[offset + 1] & 0xFF);
+    }
+
+    int u4(int offset) {
+        return ((b[offset] & 0xFF) << 24) | ((b[offset + 1] & 0xFF) << 16)
+                | ((b[offset + 2] & 0xFF) << 8) | (b[offset + 3] & 0xFF);
+    }
+
+    /**
+     * @return the size in bytes of the constant pool entry at the given
+     * offset, including the tag
+     */
+    static int entrySize(byte[] b, int offset) {
+        int tag = b[offset];
+        switch (tag) {
+            case UTF8:
+                return 3 + (((b[offset + 1] & 0xFF) << 8) | (b[offset + 2] & 0xFF));
+            case CLASS:
+            case STRING:
+            case METHOD_TYPE:
+            case MODULE:
+            case PACKAGE:
+                return 3;
+            case METHOD_HANDLE:
+                return 4;
+            case INTEGER:
+            case FLOAT:
+            case FIELD_REF:
+            case METHOD_REF:
+            case INTERFACE_METHOD_REF:
+            case NAME_AND_TYPE:
+            case DYNAMIC:
+            case INVOKE_DYNAMIC:
+                return 5;
+            case LONG:
+            case DOUBLE:
+                return 9;
+            default:
+                throw new ReflectionException("unknown constant pool tag " + tag + " at offset " + offset);
+        }
+    }
+
+    /**
+     * @return true if the utf8 entry at the given index equals the given
+     * ascii bytes, without decoding it
+     */
+    private boolean utf8Equals(int index, byte[] ascii) {
+        int offset = offsets[index];
+        if (b[offset] != UTF8 || u2(offset + 1) != ascii.length) {
+            return false;
+        }
+        for (int i = 0; i < ascii.length; i++) {
+            if (b[offset + 3 + i] != ascii[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * decodes modified utf-8, as used by the constant pool
+     */
+    private String decode(int offset, int length) {
+        char[] chars = new char[length];
+        int n = 0;
+        int i = offset;
+        int end = offset + length;
+        while (i < end) {
+            int c = b[i++] & 0xFF;
+            if (c < 0x80) {
+                chars[n++] = (char) c;
+            } else if (c < 0xE0) {
+                chars[n++] = (char) (((c & 0x1F) << 6) | (b[i++] & 0x3F));
+            } else {
+                chars[n++] = (char) (((c & 0x0F) << 12) | ((b[i++] & 0x3F) << 6) | (b[i++] & 0x3F));
+            }
+        }
+        return new String(chars, 0, n);
+    }
+
+    private static byte[] ascii(String s) {
+        byte[] bytes = new byte[s.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) s.charAt(i);
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the offset after the annotation starting at the given offset
+     */
+    private int skipAnnotation(int offset) {
+        int pairs = u2(offset + 2);
+        int u = offset + 4;
+        for (int i = 0; i < pairs; i++) {
+            u = skipElementValue(u + 2);
+        }
+        return u;
+    }
+
+    /**
+     * @return the offset after the element value starting at the given offset
+     */
+    private int skipElementValue(int offset) {
+        switch (b[offset]) {
+            case 'e':
+                return offset + 5;
+            case '@':
+                return skipAnnotation(offset + 1);
+            case '[':
+                int values = u2(offset + 1);
+                int u = offset + 3;
+                for (int i = 0; i < values; i++) {
+                    u = skipElementValue(u);
+                }
+                return u;
+            default:
+                return offset + 3;
+        }
+    }
+
+    /**
+     * adds the type names of the annotations of an annotations table
+     *
+     * @return the offset after the table
+     */
+    private int addAnnotationNames(int offset, List<String> names) {
+        int count = u2(offset);
+        int u = offset + 2;
+        for (int i = 0; i < count; i++) {
+            String descriptor = getUtf8(u2(u));
+            names.add(Descriptors.typeName(descriptor, 0, descriptor.length()));
+            u = skipAnnotation(u);
+        }
+        return u;
+    }
+
+    /**
+     * adds the keys of the member values of the annotations of an annotations
+     * table
+     *
+     * @return the offset after the table
+     */
+    private int addAnnotationValues(int offset, List<String> values) {
+        int count = u2(offset);
+        int u = offset + 2;
+        for (int i = 0; i < count; i++) {
+            String descriptor = getUtf8(u2(u));
+            String type = Descriptors.typeName(descriptor, 0, descriptor.length());
+            int pairs = u2(u + 2);
+            u += 4;
+            for (int j = 0; j < pairs; j++) {
+                String value = elementValue(u + 2);
+                if (value != null) {
+                    values.add(AnnotationValues.key(type, getUtf8(u2(u)), value));
+                }
+                u = skipElementValue(u + 2);
+            }
+        }
+        return u;
+    }
+
+    /**
+     * encodes the element value starting at the given offset
+     *
+     * @return the encoded value, or null for a nested annotation
+     */
+    private String elementValue(int offset) {
+        switch (b[offset]) {
+            case 'B':
+            case 'S':
+            case 'I':
+                return Integer.toString(u4(offsets[u2(offset + 1)] + 1));
+            case 'C':
+                return String.valueOf((char) u4(offsets[u2(offset + 1)] + 1));
+            case 'Z':
+                return Boolean.toString(u4(offsets[u2(offset + 1)] + 1) != 0);
+            case 'J':
+                return Long.toString(u8(offsets[u2(offset + 1)] + 1));
+            case 'F':
+                return Float.toString(Float.intBitsToFloat(u4(offsets[u2(offset + 1)] + 1)));
+            case 'D':
+                return Double.toString(Double.longBitsToDouble(u8(offsets[u2(offset + 1)] + 1)));
+            case 's':
+                return getUtf8(u2(offset + 1));
+            case 'e':
+                return getUtf8(u2(offset + 3));
+            case 'c':
+                return AnnotationValues.encodeClass(getUtf8(u2(offset + 1)));
+            case '[':
+                int count = u2(offset + 1);
+                List<String> elements = new ArrayList<>(count);
+                int u = offset + 3;
+                for (int i = 0; i < count; i++) {
+                    elements.add(elementValue(u));
+                    u = skipElementValue(u);
+                }
+                return AnnotationValues.encodeArray(elements);
+            default:
+                return null;
+        }
+    }
+
+    private long u8(int offset) {
+        return ((long) u4(offset) << 32) | (u4(offset + 4) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * the annotation attributes of a class or member, remembered by offset
+     */
+    private final class Attributes {
+
+        final int end;
+        int visibleAnnotations;
+        int invisibleAnnotations;
+        int visibleParameterAnnotations;
+        int invisibleParameterAnnotations;
+
+        /**
+         * @param record if false, only find the end of the attributes table
+         */
+        Attributes(int offset, boolean record) {
+            int count = u2(offset);
+            int u = offset + 2;
+            for (int i = 0; i < count; i++) {
+                int info = u + 6;
+                if (record) {
+                    record(u2(u), info);
+                }
+                u = info + u4(u + 2);
+            }
+            end = u;
+        }
+
+        private void record(int name, int info) {
+            if (utf8Equals(name, VISIBLE_ANNOTATIONS)) {
+                visibleAnnotations = info;
+            } else if (utf8Equals(name, INVISIBLE_ANNOTATIONS)) {
+                invisibleAnnotations = info;
+            } else if (utf8Equals(name, VISIBLE_PARAMETER_ANNOTATIONS)) {
+                visibleParameterAnnotations = info;
+            } else if (utf8Equals(name, INVISIBLE_PARAMETER_ANNOTATIONS)) {
+                invisibleParameterAnnotations = info;
+            }
+        }
+
+        List<String> annotationNames(boolean includeInvisible) {
+            if (visibleAnnotations == 0 && (invisibleAnnotations == 0 || !includeInvisible)) {
+                return Collections.emptyList();
+            }
+            List<String> names = new ArrayList<>();
+            if (visibleAnnotations != 0) {
+                addAnnotationNames(visibleAnnotations, names);
+            }
+            if (invisibleAnnotations != 0 && includeInvisible) {
+                addAnnotationNames(invisibleAnnotations, names);
+            }
+            return Collections.unmodifiableList(names);
+        }
+
+        List<String> annotationValues(boolean includeInvisible) {
+            if (visibleAnnotations == 0 && (invisibleAnnotations == 0 || !includeInvisible)) {
+                return Collections.emptyList();
+            }
+            List<String> values = new ArrayList<>();
+            if (visibleAnnotations != 0) {
+                addAnnotationValues(visibleAnnotations, values);
+            }
+            if (invisibleAnnotations != 0 && includeInvisible) {
+                addAnnotationValues(invisibleAnnotations, values);
+            }
+            return Collections.unmodifiableList(values);
+        }
+
+        List<String> parameterAnnotationNames(int parameterIndex) {
+            List<String> names = new ArrayList<>();
+            for (int table : new int[]{visibleParameterAnnotations, invisibleParameterAnnotations}) {
+                if (table != 0 && parameterIndex < u1(table)) {
+                    int u = table + 1;
+                    for (int i = 0; i < parameterIndex; i++) {
+                        int count = u2(u);
+                        u += 2;
+                        for (int j = 0; j < count; j++) {
+                            u = skipAnnotation(u);
+                        }
+                    }
+                    addAnnotationNames(u, names);
+                }
+            }
+            return names;
+        }
+    }
+
+    /**
+     * a field or a method of the class
+     */
+    public final class Member {
+
+        private final int accessFlags;
+        private final int name;
+        private final int descriptor;
+        private final Attributes attributes;
+
+        Member(int offset, boolean annotations) {
+            accessFlags = u2(offset);
+            name = u2(offset + 2);
+            descriptor = u2(offset + 4);
+            attributes = new Attributes(offset + 6, annotations);
+        }
+
+        public int getAccessFlags() {
+            return accessFlags;
+        }
+
+        public String getName() {
+            return getUtf8(name);
+        }
+
+        public String getDescriptor() {
+            return getUtf8(descriptor);
+        }
+
+        /**
+         * the annotations of the member
+         *
+         * @param includeInvisible if true, include annotations not retained at
+         * runtime
+         * @return the type names of the annotations of the member
+         */
+        public List<String> getAnnotationNames(boolean includeInvisible) {
+            require(MetadataLevel.ANNOTATIONS);
+            return attributes.annotationNames(includeInvisible);
+        }
+
+        /**
+         * the member values explicitly set on the annotations of the member
+         *
+         * @param includeInvisible if true, include annotations not retained at
+         * runtime
+         * @return the member value keys, as encoded by
+         * {@link AnnotationValues}
+         */
+        public List<String> getAnnotationValues(boolean includeInvisible) {
+            require(MetadataLevel.ANNOTATIONS);
+            return attributes.annotationValues(includeInvisible);
+        }
+
+        /**
+         * the annotations of a method parameter
+         *
+         * @param parameterIndex the index of a method parameter
+         * @return the type names of the annotations of the parameter, both
+         * visible and invisible
+         */
+        public List<String> getParameterAnnotationNames(int parameterIndex) {
+            require(MetadataLevel.ANNOTATIONS);
+            return attributes.parameterAnnotationNames(parameterIndex);
+        }
+
+        /**
+         * the class this member is declared in
+         *
+         * @return the declaring class
+         */
+        public ClassReader getDeclaringClass() {
+            return ClassReader.this;
+        }
+
+        @Override
+        public String toString() {
+            return getName() + getDescriptor();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
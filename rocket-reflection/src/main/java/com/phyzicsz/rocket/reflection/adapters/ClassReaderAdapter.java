@@ -0,0 +1,147 @@
+package com.phyzicsz.rocket.reflection.adapters;
+
+import com.phyzicsz.rocket.reflection.exception.ReflectionException;
+import static com.phyzicsz.rocket.reflection.util.Utils.join;
+import com.phyzicsz.rocket.reflection.vfs.BufferedFile;
+import com.phyzicsz.rocket.reflection.vfs.Vfs;
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+/**
+ * MetadataAdapter implementation over {@link ClassReader}, a class file
+ * reader without dependencies that only decodes what the scanners ask for, and
+ * stops at the {@link MetadataLevel} they require.
+ * <p>
+ * <i>{@link com.phyzicsz.rocket.reflection.scanners.MethodParameterNamesScanner}
+ * and {@link com.phyzicsz.rocket.reflection.scanners.MemberUsageScanner}
+ * depend on {@link JavassistAdapter} configured</i>
+ */
+public class ClassReaderAdapter implements MetadataAdapter<ClassReader, ClassReader.Member, ClassReader.Member> {
+
+    /**setting this to false will result in returning only visible annotations from the relevant methods here (only {@link java.lang.annotation.RetentionPolicy#RUNTIME})*/
+    public static boolean includeInvisibleTag = true;
+
+    @Override
+    public String getClassName(final ClassReader cls) {
+        return cls.getName();
+    }
+
+    @Override
+    public String getSuperclassName(final ClassReader cls) {
+        return cls.getSuperclassName();
+    }
+
+    @Override
+    public List<String> getInterfacesNames(final ClassReader cls) {
+        return cls.getInterfaceNames();
+    }
+
+    @Override
+    public List<ClassReader.Member> getFields(final ClassReader cls) {
+        return cls.getFields();
+    }
+
+    @Override
+    public List<ClassReader.Member> getMethods(final ClassReader cls) {
+        return cls.getMethods();
+    }
+
+    @Override
+    public String getMethodName(final ClassReader.Member method) {
+        return method.getName();
+    }
+
+    @Override
+    public List<String> getParameterNames(final ClassReader.Member method) {
+        return Descriptors.parameterTypeNames(method.getDescriptor());
+    }
+
+    @Override
+    public List<String> getClassAnnotationNames(final ClassReader aClass) {
+        return aClass.getAnnotationNames(includeInvisibleTag);
+    }
+
+    @Override
+    public List<String> getFieldAnnotationNames(final ClassReader.Member field) {
+        return field.getAnnotationNames(includeInvisibleTag);
+    }
+
+    @Override
+    public List<String> getMethodAnnotationNames(final ClassReader.Member method) {
+        return method.getAnnotationNames(includeInvisibleTag);
+    }
+
+    @Override
+    public List<String> getClassAnnotationValues(final ClassReader aClass) {
+        return aClass.getAnnotationValues(includeInvisibleTag);
+    }
+
+    @Override
+    public List<String> getFieldAnnotationValues(final ClassReader.Member field) {
+        return field.getAnnotationValues(includeInvisibleTag);
+    }
+
+    @Override
+    public List<String> getMethodAnnotationValues(final ClassReader.Member method) {
+        return method.getAnnotationValues(includeInvisibleTag);
+    }
+
+    @Override
+    public List<String> getParameterAnnotationNames(final ClassReader.Member method, final int parameterIndex) {
+        return method.getParameterAnnotationNames(parameterIndex);
+    }
+
+    @Override
+    public String getReturnTypeName(final ClassReader.Member method) {
+        return Descriptors.returnTypeName(method.getDescriptor());
+    }
+
+    @Override
+    public String getFieldName(final ClassReader.Member field) {
+        return field.getName();
+    }
+
+    @Override
+    public ClassReader getOrCreateClassObject(final Vfs.File file) {
+        return getOrCreateClassObject(file, MetadataLevel.CODE);
+    }
+
+    @Override
+    public ClassReader getOrCreateClassObject(final Vfs.File file, final MetadataLevel level) {
+        try {
+            return new ClassReader(BufferedFile.read(file).getBytes(), level);
+        } catch (IOException e) {
+            throw new ReflectionException("could not create class file from " + file.getName(), e);
+        }
+    }
+
+    @Override
+    public String getMethodModifier(final ClassReader.Member method) {
+        int accessFlags = method.getAccessFlags();
+        return Modifier.isPrivate(accessFlags) ? "private" :
+               Modifier.isProtected(accessFlags) ? "protected" :
+               Modifier.isPublic(accessFlags) ? "public" : "";
+    }
+
+    @Override
+    public String getMethodKey(final ClassReader cls, final ClassReader.Member method) {
+        return getMethodName(method) + "(" + join(getParameterNames(method), ", ") + ")";
+    }
+
+    @Override
+    public String getMethodFullKey(final ClassReader cls, final ClassReader.Member method) {
+        return getClassName(cls) + "." + getMethodKey(cls, method);
+    }
+
+    @Override
+    public boolean isPublic(Object o) {
+        return o instanceof ClassReader ? Modifier.isPublic(((ClassReader) o).getAccessFlags()) :
+               o instanceof ClassReader.Member && Modifier.isPublic(((ClassReader.Member) o).getAccessFlags());
+    }
+
+    @Override
+    public boolean acceptsInput(String file) {
+        return file.endsWith(".class");
+    }
+}
@@ -0,0 +1,133 @@
+package com.phyzicsz.rocket.reflection.adapters;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * a cheap test on the raw bytes of a class file, run before the class object
+ * is created.
+ * <p>
+ * a class can only be annotated with, or extend, a type that its constant pool
+ * refers to: the type's internal name, such as {@code com/acme/Service}, is
+ * part of a CONSTANT_Utf8 entry, either as a class name or inside a descriptor
+ * such as {@code Lcom/acme/Service;}. this filter walks the constant pool and
+ * accepts the class file if any utf8 entry contains any of the target
+ * literals, so classes that cannot match are dropped without being parsed.
+ * <p>
+ * the test may accept classes that do not match in the end, but never rejects
+ * one that does.
+ */
+public final class ConstantPoolFilter implements Predicate<byte[]> {
+
+    private final List<String> literals;
+    private final byte[][] targets;
+
+    /**
+     * @param literals type names, or fragments of type names, in either binary
+     * ({@code com.acme.Service}) or internal ({@code com/acme/Service}) form
+     */
+    public ConstantPoolFilter(Collection<String> literals) {
+        Set<String> internal = new LinkedHashSet<>();
+        for (String literal : literals) {
+            internal.add(literal.replace('.', '/'));
+        }
+        this.literals = Collections.unmodifiableList(new ArrayList<>(internal));
+        this.targets = new byte[this.literals.size()][];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = this.literals.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * accepts class files referring to any of the given types
+     *
+     * @param typeNames the type names, such as
+     * {@code com.acme.Service}
+     * @return the filter
+     */
+    public static ConstantPoolFilter forTypes(String... typeNames) {
+        return new ConstantPoolFilter(Arrays.asList(typeNames));
+    }
+
+    /**
+     * accepts class files referring to any of the given types
+     *
+     * @param types the types
+     * @return the filter
+     */
+    public static ConstantPoolFilter forTypes(Class<?>... types) {
+        List<String> typeNames = new ArrayList<>(types.length);
+        for (Class<?> type : types) {
+            typeNames.add(type.getName());
+        }
+        return new ConstantPoolFilter(typeNames);
+    }
+
+    /**
+     * the literals searched for, in internal form
+     *
+     * @return the literals
+     */
+    public List<String> getLiterals() {
+        return literals;
+    }
+
+    /**
+     * tests the constant pool of a class file. bytes that are not a class file
+     * are accepted, and left to the metadata adapter to reject.
+     *
+     * @param classFile the bytes of a class file
+     * @return false if the class file refers to none of the literals
+     */
+    @Override
+    public boolean test(byte[] classFile) {
+        if (classFile.length < 10 || (classFile[0] & 0xFF) != 0xCA || (classFile[1] & 0xFF) != 0xFE) {
+            return true;
+        }
+        try {
+            int count = ((classFile[8] & 0xFF) << 8) | (classFile[9] & 0xFF);
+            int u = 10;
+            for (int i = 1; i < count; i++) {
+                int tag = classFile[u];
+                if (tag == ClassReader.UTF8 && contains(classFile, u + 3, ((classFile[u + 1] & 0xFF) << 8) | (classFile[u + 2] & 0xFF))) {
+                    return true;
+                }
+                if (tag == ClassReader.LONG || tag == ClassReader.DOUBLE) {
+                    i++; //takes two entries
+                }
+                u += ClassReader.entrySize(classFile, u);
+            }
+            return false;
+        } catch (RuntimeException e) {
+            return true; //malformed, let the adapter report it
+        }
+    }
+
+    private boolean contains(byte[] b, int offset, int length) {
+        for (byte[] target : targets) {
+            int last = offset + length - target.length;
+            outer:
+            for (int i = offset; i <= last; i++) {
+                for (int j = 0; j < target.length; j++) {
+                    if (b[i + j] != target[j]) {
+                        continue outer;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "ConstantPoolFilter" + literals;
+    }
+}
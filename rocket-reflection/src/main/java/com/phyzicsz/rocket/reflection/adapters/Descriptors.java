@@ -0,0 +1,221 @@
+package com.phyzicsz.rocket.reflection.adapters;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.phyzicsz.rocket.reflection.exception.ReflectionException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * decodes jvm type descriptors, such as {@code (I[Ljava/lang/String;)V}, into
+ * type names, such as {@code int} and {@code java.lang.String[]}
+ * <p>
+ * method descriptors recur across classes, so decoded method descriptors are
+ * kept in a bounded cache shared by all adapters and scanners, and the type
+ * names in them are interned.
+ */
+public final class Descriptors {
+
+    /**
+     * the maximum number of method descriptors kept decoded
+     */
+    public static final int CACHE_SIZE = 16 * 1024;
+
+    private static final Interner<String> TYPE_NAMES = Interners.newWeakInterner();
+
+    private static final LoadingCache<String, MethodTypes> METHODS = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_SIZE)
+            .recordStats()
+            .build(new CacheLoader<String, MethodTypes>() {
+                @Override
+                public MethodTypes load(String methodDescriptor) {
+                    return decode(methodDescriptor);
+                }
+            });
+
+    private Descriptors() {
+    }
+
+    /**
+     * decodes the parameter types of a method descriptor
+     *
+     * @param methodDescriptor a method descriptor
+     * @return the type names of the parameters, as an immutable list
+     */
+    public static List<String> parameterTypeNames(String methodDescriptor) {
+        return methodTypes(methodDescriptor).parameterTypeNames;
+    }
+
+    /**
+     * decodes the return type of a method descriptor
+     *
+     * @param methodDescriptor a method descriptor
+     * @return the type name of the return type
+     */
+    public static String returnTypeName(String methodDescriptor) {
+        return methodTypes(methodDescriptor).returnTypeName;
+    }
+
+    /**
+     * the hit and miss counts of the method descriptor cache
+     *
+     * @return the cache statistics
+     */
+    public static CacheStats cacheStats() {
+        return METHODS.stats();
+    }
+
+    private static MethodTypes methodTypes(String methodDescriptor) {
+        try {
+            return METHODS.getUnchecked(methodDescriptor);
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof ReflectionException) {
+                throw (ReflectionException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static MethodTypes decode(String methodDescriptor) {
+        int end = methodDescriptor.lastIndexOf(')');
+        if (!methodDescriptor.startsWith("(") || end < 0) {
+            throw new ReflectionException("not a method descriptor " + methodDescriptor);
+        }
+        ImmutableList.Builder<String> parameterTypeNames = ImmutableList.builder();
+        for (String typeName : typeNames(methodDescriptor, 1, end)) {
+            parameterTypeNames.add(TYPE_NAMES.intern(typeName));
+        }
+        String returnTypeName = TYPE_NAMES.intern(typeName(methodDescriptor, end + 1, methodDescriptor.length()));
+        return new MethodTypes(parameterTypeNames.build(), returnTypeName);
+    }
+
+    /**
+     * decodes the consecutive type descriptors between the given offsets
+     *
+     * @param descriptors the descriptors
+     * @param from the offset of the first descriptor
+     * @param to the offset after the last descriptor
+     * @return the type names
+     */
+    public static List<String> typeNames(String descriptors, int from, int to) {
+        if (from == to) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>();
+        int start = from;
+        while (start < to) {
+            int end = end(descriptors, start);
+            result.add(typeName(descriptors, start, end));
+            start = end;
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * decodes a single type descriptor between the given offsets
+     *
+     * @param descriptor the descriptor
+     * @param from the offset of the descriptor
+     * @param to the offset after the descriptor
+     * @return the type name
+     */
+    public static String typeName(String descriptor, int from, int to) {
+        int dimensions = 0;
+        while (descriptor.charAt(from + dimensions) == '[') {
+            dimensions++;
+        }
+        int start = from + dimensions;
+        String component;
+        if (descriptor.charAt(start) == 'L') {
+            component = descriptor.substring(start + 1, to - 1).replace('/', '.');
+        } else {
+            component = primitiveName(descriptor.charAt(start));
+        }
+        if (dimensions == 0) {
+            return component;
+        }
+        StringBuilder name = new StringBuilder(component.length() + 2 * dimensions).append(component);
+        for (int i = 0; i < dimensions; i++) {
+            name.append("[]");
+        }
+        return name.toString();
+    }
+
+    /**
+     * converts an internal class name, such as {@code java/lang/String}, to its
+     * type name, such as {@code java.lang.String}. array classes are given as
+     * descriptors in the constant pool, and are decoded as such.
+     *
+     * @param internalName the internal name
+     * @return the type name
+     */
+    public static String className(String internalName) {
+        return internalName.startsWith("[")
+                ? typeName(internalName, 0, internalName.length())
+                : internalName.replace('/', '.');
+    }
+
+    /**
+     * @return the offset after the type descriptor starting at the given
+     * offset
+     */
+    private static int end(String descriptors, int start) {
+        int i = start;
+        while (descriptors.charAt(i) == '[') {
+            i++;
+        }
+        if (descriptors.charAt(i) == 'L') {
+            i = descriptors.indexOf(';', i);
+            if (i < 0) {
+                throw new ReflectionException("bad descriptor " + descriptors);
+            }
+        }
+        return i + 1;
+    }
+
+    /**
+     * a decoded method descriptor
+     */
+    private static final class MethodTypes {
+
+        final ImmutableList<String> parameterTypeNames;
+        final String returnTypeName;
+
+        MethodTypes(ImmutableList<String> parameterTypeNames, String returnTypeName) {
+            this.parameterTypeNames = parameterTypeNames;
+            this.returnTypeName = returnTypeName;
+        }
+    }
+
+    private static String primitiveName(char c) {
+        switch (c) {
+            case 'Z':
+                return "boolean";
+            case 'B':
+                return "byte";
+            case 'C':
+                return "char";
+            case 'S':
+                return "short";
+            case 'I':
+                return "int";
+            case 'J':
+                return "long";
+            case 'F':
+                return "float";
+            case 'D':
+                return "double";
+            case 'V':
+                return "void";
+            default:
+                throw new ReflectionException("bad descriptor type " + c);
+        }
+    }
+}
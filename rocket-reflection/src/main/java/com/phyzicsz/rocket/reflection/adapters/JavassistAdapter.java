@@ -14,17 +14,28 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import javassist.bytecode.AccessFlag;
 import static javassist.bytecode.AccessFlag.isPrivate;
 import static javassist.bytecode.AccessFlag.isProtected;
 import javassist.bytecode.AnnotationsAttribute;
 import javassist.bytecode.ClassFile;
-import javassist.bytecode.Descriptor;
 import javassist.bytecode.FieldInfo;
 import javassist.bytecode.MethodInfo;
 import javassist.bytecode.ParameterAnnotationsAttribute;
 import javassist.bytecode.annotation.Annotation;
+import javassist.bytecode.annotation.ArrayMemberValue;
+import javassist.bytecode.annotation.BooleanMemberValue;
+import javassist.bytecode.annotation.ByteMemberValue;
+import javassist.bytecode.annotation.CharMemberValue;
+import javassist.bytecode.annotation.ClassMemberValue;
+import javassist.bytecode.annotation.DoubleMemberValue;
+import javassist.bytecode.annotation.EnumMemberValue;
+import javassist.bytecode.annotation.FloatMemberValue;
+import javassist.bytecode.annotation.IntegerMemberValue;
+import javassist.bytecode.annotation.LongMemberValue;
+import javassist.bytecode.annotation.MemberValue;
+import javassist.bytecode.annotation.ShortMemberValue;
+import javassist.bytecode.annotation.StringMemberValue;
 
 /**
  * JavaAssist implementation of MetadataAdapter
@@ -52,9 +63,7 @@ public class JavassistAdapter implements MetadataAdapter<ClassFile, FieldInfo, M
 
     @Override
     public List<String> getParameterNames(final MethodInfo method) {
-        String descriptor = method.getDescriptor();
-        descriptor = descriptor.substring(descriptor.indexOf("(") + 1, descriptor.lastIndexOf(")"));
-        return splitDescriptorToTypeNames(descriptor);
+        return Descriptors.parameterTypeNames(method.getDescriptor());
     }
 
     @Override
@@ -75,6 +84,24 @@ public class JavassistAdapter implements MetadataAdapter<ClassFile, FieldInfo, M
                 includeInvisibleTag ? (AnnotationsAttribute) method.getAttribute(AnnotationsAttribute.invisibleTag) : null);
     }
 
+    @Override
+    public List<String> getClassAnnotationValues(final ClassFile aClass) {
+        return getAnnotationValues((AnnotationsAttribute) aClass.getAttribute(AnnotationsAttribute.visibleTag),
+                includeInvisibleTag ? (AnnotationsAttribute) aClass.getAttribute(AnnotationsAttribute.invisibleTag) : null);
+    }
+
+    @Override
+    public List<String> getFieldAnnotationValues(final FieldInfo field) {
+        return getAnnotationValues((AnnotationsAttribute) field.getAttribute(AnnotationsAttribute.visibleTag),
+                includeInvisibleTag ? (AnnotationsAttribute) field.getAttribute(AnnotationsAttribute.invisibleTag) : null);
+    }
+
+    @Override
+    public List<String> getMethodAnnotationValues(final MethodInfo method) {
+        return getAnnotationValues((AnnotationsAttribute) method.getAttribute(AnnotationsAttribute.visibleTag),
+                includeInvisibleTag ? (AnnotationsAttribute) method.getAttribute(AnnotationsAttribute.invisibleTag) : null);
+    }
+
     @Override
     public List<String> getParameterAnnotationNames(final MethodInfo method, final int parameterIndex) {
         List<String> result = new ArrayList<>();
@@ -98,9 +125,7 @@ public class JavassistAdapter implements MetadataAdapter<ClassFile, FieldInfo, M
 
     @Override
     public String getReturnTypeName(final MethodInfo method) {
-        String descriptor = method.getDescriptor();
-        descriptor = descriptor.substring(descriptor.lastIndexOf(")") + 1);
-        return splitDescriptorToTypeNames(descriptor).get(0);
+        return Descriptors.returnTypeName(method.getDescriptor());
     }
 
     @Override
@@ -185,28 +210,62 @@ public class JavassistAdapter implements MetadataAdapter<ClassFile, FieldInfo, M
         }
     }
 
-    private List<String> getAnnotationNames(final Annotation[] annotations) {
-        return Arrays.stream(annotations).map(Annotation::getTypeName).collect(Collectors.toList());
-    }
-
-    private List<String> splitDescriptorToTypeNames(final String descriptors) {
+    private List<String> getAnnotationValues(final AnnotationsAttribute... annotationsAttributes) {
         List<String> result = new ArrayList<>();
-
-        if (descriptors != null && descriptors.length() != 0) {
-
-            List<Integer> indices = new ArrayList<>();
-            Descriptor.Iterator iterator = new Descriptor.Iterator(descriptors);
-            while (iterator.hasNext()) {
-                indices.add(iterator.next());
+        for (AnnotationsAttribute annotationsAttribute : annotationsAttributes) {
+            if (annotationsAttribute != null) {
+                for (Annotation annotation : annotationsAttribute.getAnnotations()) {
+                    if (annotation.getMemberNames() != null) {
+                        for (String member : annotation.getMemberNames()) {
+                            String value = encode(annotation.getMemberValue(member));
+                            if (value != null) {
+                                result.add(AnnotationValues.key(annotation.getTypeName(), member, value));
+                            }
+                        }
+                    }
+                }
             }
-            indices.add(descriptors.length());
-
-            result = IntStream.range(0, indices.size() - 1)
-                    .mapToObj(i -> Descriptor.toString(descriptors.substring(indices.get(i), indices.get(i + 1))))
-                    .collect(Collectors.toList());
+        }
+        return result;
+    }
 
+    /**
+     * encodes a member value as {@link AnnotationValues} does
+     *
+     * @return the encoded value, or null for a nested annotation
+     */
+    private static String encode(final MemberValue value) {
+        if (value instanceof BooleanMemberValue) {
+            return Boolean.toString(((BooleanMemberValue) value).getValue());
+        } else if (value instanceof ByteMemberValue) {
+            return Byte.toString(((ByteMemberValue) value).getValue());
+        } else if (value instanceof CharMemberValue) {
+            return String.valueOf(((CharMemberValue) value).getValue());
+        } else if (value instanceof ShortMemberValue) {
+            return Short.toString(((ShortMemberValue) value).getValue());
+        } else if (value instanceof IntegerMemberValue) {
+            return Integer.toString(((IntegerMemberValue) value).getValue());
+        } else if (value instanceof LongMemberValue) {
+            return Long.toString(((LongMemberValue) value).getValue());
+        } else if (value instanceof FloatMemberValue) {
+            return Float.toString(((FloatMemberValue) value).getValue());
+        } else if (value instanceof DoubleMemberValue) {
+            return Double.toString(((DoubleMemberValue) value).getValue());
+        } else if (value instanceof StringMemberValue) {
+            return ((StringMemberValue) value).getValue();
+        } else if (value instanceof EnumMemberValue) {
+            return ((EnumMemberValue) value).getValue();
+        } else if (value instanceof ClassMemberValue) {
+            return AnnotationValues.encodeClassName(((ClassMemberValue) value).getValue());
+        } else if (value instanceof ArrayMemberValue) {
+            MemberValue[] elements = ((ArrayMemberValue) value).getValue();
+            return AnnotationValues.encodeArray(elements == null ? Collections.emptyList()
+                    : Arrays.stream(elements).map(JavassistAdapter::encode).collect(Collectors.toList()));
         }
+        return null;
+    }
 
-        return result;
+    private List<String> getAnnotationNames(final Annotation[] annotations) {
+        return Arrays.stream(annotations).map(Annotation::getTypeName).collect(Collectors.toList());
     }
 }
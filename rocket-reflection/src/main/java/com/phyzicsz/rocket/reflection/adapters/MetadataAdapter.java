@@ -32,12 +32,65 @@ public interface MetadataAdapter<C,F,M> {
 
     List<String> getParameterAnnotationNames(final M method, final int parameterIndex);
 
+    /**
+     * the member values explicitly set on the annotations of a class, keyed
+     * as by {@link AnnotationValues#key(String, String, String)}
+     * <p>
+     * by default member values are not read, and null is returned.
+     *
+     * @param aClass the class object
+     * @return the member value keys, or null if the adapter does not read
+     * member values
+     */
+    default List<String> getClassAnnotationValues(final C aClass) {
+        return null;
+    }
+
+    /**
+     * the member values explicitly set on the annotations of a field
+     *
+     * @param field the field
+     * @return the member value keys, or null if the adapter does not read
+     * member values
+     * @see #getClassAnnotationValues(Object)
+     */
+    default List<String> getFieldAnnotationValues(final F field) {
+        return null;
+    }
+
+    /**
+     * the member values explicitly set on the annotations of a method
+     *
+     * @param method the method
+     * @return the member value keys, or null if the adapter does not read
+     * member values
+     * @see #getClassAnnotationValues(Object)
+     */
+    default List<String> getMethodAnnotationValues(final M method) {
+        return null;
+    }
+
     String getReturnTypeName(final M method);
 
     String getFieldName(final F field);
 
     C getOrCreateClassObject(Vfs.File file) throws Exception;
 
+    /**
+     * creates the class object, parsing the class file at least up to the
+     * given level. accessing metadata beyond that level may fail.
+     * <p>
+     * by default the whole class file is parsed.
+     *
+     * @param file the class file
+     * @param level the metadata required by the scanners
+     * @return the class object
+     * @throws Exception if the class object could not be created
+     */
+    default C getOrCreateClassObject(Vfs.File file, MetadataLevel level) throws Exception {
+        return getOrCreateClassObject(file);
+    }
+
     String getMethodModifier(M method);
 
     String getMethodKey(C cls, M method);
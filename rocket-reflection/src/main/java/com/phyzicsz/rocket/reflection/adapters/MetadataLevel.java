@@ -0,0 +1,47 @@
+package com.phyzicsz.rocket.reflection.adapters;
+
+/**
+ * how much of a class file a scanner needs, in the order the class file is
+ * laid out. a {@link MetadataAdapter} may stop parsing once the highest level
+ * required by the configured scanners is reached.
+ */
+public enum MetadataLevel {
+
+    /**
+     * the class name, super class and interfaces
+     */
+    HEADER,
+    /**
+     * the names, descriptors and modifiers of fields and methods
+     */
+    MEMBERS,
+    /**
+     * the annotations of the class, its members and method parameters
+     */
+    ANNOTATIONS,
+    /**
+     * everything, including method bodies
+     */
+    CODE;
+
+    /**
+     * whether this level includes the given one
+     *
+     * @param level the level to compare to
+     * @return true if this level is the given one or a higher one
+     */
+    public boolean includes(MetadataLevel level) {
+        return compareTo(level) >= 0;
+    }
+
+    /**
+     * the higher of two levels
+     *
+     * @param a a level
+     * @param b another level
+     * @return the higher level
+     */
+    public static MetadataLevel max(MetadataLevel a, MetadataLevel b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+}
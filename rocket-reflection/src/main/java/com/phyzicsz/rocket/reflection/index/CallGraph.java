@@ -0,0 +1,362 @@
+package com.phyzicsz.rocket.reflection.index;
+
+import com.phyzicsz.rocket.reflection.Store;
+import com.phyzicsz.rocket.reflection.exception.ReflectionException;
+import com.phyzicsz.rocket.reflection.scanners.MemberUsageScanner;
+import com.phyzicsz.rocket.reflection.util.Utils;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * an immutable call graph, built from the usages recorded by
+ * {@link MemberUsageScanner}.
+ * <p>
+ * each member, a method, constructor or field, is given an integer id, in the
+ * order of its name, such as {@code a.B.m(int)} or {@code a.B.field}. an edge
+ * goes from a calling method or constructor to the member it uses, and is kept
+ * with its line number in compressed adjacency arrays, both forward (callees)
+ * and reverse (callers), so traversals do not look up strings.
+ */
+public final class CallGraph {
+
+    private final String[] members;
+
+    private final int[] calleeOffsets;
+    private final int[] callees;
+    private final int[] calleeLines;
+
+    private final int[] callerOffsets;
+    private final int[] callers;
+    private final int[] callerLines;
+
+    private CallGraph(String[] members, int[] from, int[] to, int[] lines, int edges) {
+        this.members = members;
+        int size = members.length;
+
+        calleeOffsets = new int[size + 1];
+        callees = new int[edges];
+        calleeLines = new int[edges];
+        callerOffsets = new int[size + 1];
+        callers = new int[edges];
+        callerLines = new int[edges];
+
+        for (int e = 0; e < edges; e++) {
+            calleeOffsets[from[e] + 1]++;
+            callerOffsets[to[e] + 1]++;
+        }
+        for (int i = 0; i < size; i++) {
+            calleeOffsets[i + 1] += calleeOffsets[i];
+            callerOffsets[i + 1] += callerOffsets[i];
+        }
+        int[] calleeNext = Arrays.copyOf(calleeOffsets, size);
+        int[] callerNext = Arrays.copyOf(callerOffsets, size);
+        for (int e = 0; e < edges; e++) {
+            int c = calleeNext[from[e]]++;
+            callees[c] = to[e];
+            calleeLines[c] = lines[e];
+            int r = callerNext[to[e]]++;
+            callers[r] = from[e];
+            callerLines[r] = lines[e];
+        }
+    }
+
+    /**
+     * builds the call graph from the store
+     *
+     * @param store a store holding the index of {@link MemberUsageScanner}
+     * @return the call graph
+     */
+    public static CallGraph of(Store store) {
+        String index = Utils.index(MemberUsageScanner.class);
+        if (!store.keySet().contains(index)) {
+            throw new ReflectionException("Scanner " + index + " was not configured");
+        }
+
+        Map<String, Set<String>> usages = new HashMap<>();
+        Set<String> names = new TreeSet<>();
+        int edges = 0;
+        for (String key : store.keys(index)) {
+            Set<String> values = store.get(index, key);
+            usages.put(key, values);
+            names.add(key);
+            for (String value : values) {
+                names.add(user(value));
+            }
+            edges += values.size();
+        }
+        String[] members = names.toArray(new String[0]);
+
+        int[] from = new int[edges];
+        int[] to = new int[edges];
+        int[] lines = new int[edges];
+        int e = 0;
+        for (Map.Entry<String, Set<String>> usage : usages.entrySet()) {
+            int callee = Arrays.binarySearch(members, usage.getKey());
+            for (String value : usage.getValue()) {
+                from[e] = Arrays.binarySearch(members, user(value));
+                to[e] = callee;
+                lines[e] = line(value);
+                e++;
+            }
+        }
+        return new CallGraph(members, from, to, lines, edges);
+    }
+
+    /**
+     * the using member of a value of the usage index, such as
+     * {@code a.B.m(int) #42}
+     */
+    private static String user(String value) {
+        int i = value.lastIndexOf(" #");
+        return i < 0 ? value : value.substring(0, i);
+    }
+
+    private static int line(String value) {
+        int i = value.lastIndexOf(" #");
+        try {
+            return i < 0 ? -1 : Integer.parseInt(value.substring(i + 2));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * the number of members
+     *
+     * @return the number of members
+     */
+    public int size() {
+        return members.length;
+    }
+
+    /**
+     * the number of usages, counting each call site
+     *
+     * @return the number of edges
+     */
+    public int edges() {
+        return callees.length;
+    }
+
+    /**
+     * the id of a member
+     *
+     * @param member a member name, as given by {@link Utils#name}
+     * @return the id, or -1 if the member neither uses nor is used
+     */
+    public int id(String member) {
+        int id = Arrays.binarySearch(members, member);
+        return id >= 0 ? id : -1;
+    }
+
+    /**
+     * the name of a member
+     *
+     * @param id the id of the member
+     * @return the member name
+     */
+    public String member(int id) {
+        return members[id];
+    }
+
+    /**
+     * the ids of the members the given member uses, one per call site
+     *
+     * @param id the id of the member
+     * @return the callee ids
+     */
+    public int[] callees(int id) {
+        return Arrays.copyOfRange(callees, calleeOffsets[id], calleeOffsets[id + 1]);
+    }
+
+    /**
+     * the line numbers of the call sites in {@link #callees(int)}, or -1 if
+     * unknown
+     *
+     * @param id the id of the member
+     * @return the line numbers
+     */
+    public int[] calleeLines(int id) {
+        return Arrays.copyOfRange(calleeLines, calleeOffsets[id], calleeOffsets[id + 1]);
+    }
+
+    /**
+     * the ids of the members using the given member, one per call site
+     *
+     * @param id the id of the member
+     * @return the caller ids
+     */
+    public int[] callers(int id) {
+        return Arrays.copyOfRange(callers, callerOffsets[id], callerOffsets[id + 1]);
+    }
+
+    /**
+     * the line numbers of the call sites in {@link #callers(int)}, or -1 if
+     * unknown
+     *
+     * @param id the id of the member
+     * @return the line numbers
+     */
+    public int[] callerLines(int id) {
+        return Arrays.copyOfRange(callerLines, callerOffsets[id], callerOffsets[id + 1]);
+    }
+
+    /**
+     * the members directly using the given member
+     *
+     * @param member the member name
+     * @return the callers
+     */
+    public Set<String> getCallers(String member) {
+        return getCallers(member, 1);
+    }
+
+    /**
+     * the members using the given member, directly or through other members
+     *
+     * @param member the member name
+     * @return the transitive callers
+     */
+    public Set<String> getAllCallers(String member) {
+        return getCallers(member, Integer.MAX_VALUE);
+    }
+
+    /**
+     * the members using the given member through at most {@code maxDepth}
+     * calls
+     *
+     * @param member the member name
+     * @param maxDepth the maximum number of edges from the member
+     * @return the callers
+     */
+    public Set<String> getCallers(String member, int maxDepth) {
+        return traverse(Collections.singleton(member), maxDepth, callerOffsets, callers, false);
+    }
+
+    /**
+     * the members the given member directly uses
+     *
+     * @param member the member name
+     * @return the callees
+     */
+    public Set<String> getCallees(String member) {
+        return getCallees(member, 1);
+    }
+
+    /**
+     * the members the given member uses, directly or through other members
+     *
+     * @param member the member name
+     * @return the transitive callees
+     */
+    public Set<String> getAllCallees(String member) {
+        return getCallees(member, Integer.MAX_VALUE);
+    }
+
+    /**
+     * the members the given member uses through at most {@code maxDepth} calls
+     *
+     * @param member the member name
+     * @param maxDepth the maximum number of edges from the member
+     * @return the callees
+     */
+    public Set<String> getCallees(String member, int maxDepth) {
+        return traverse(Collections.singleton(member), maxDepth, calleeOffsets, callees, false);
+    }
+
+    /**
+     * the members reachable from the given entry points, including the entry
+     * points that are part of the graph
+     *
+     * @param entryPoints the member names to start from
+     * @return the reachable members
+     */
+    public Set<String> getReachable(Collection<String> entryPoints) {
+        return traverse(entryPoints, Integer.MAX_VALUE, calleeOffsets, callees, true);
+    }
+
+    /**
+     * whether a member can be reached from another one
+     *
+     * @param from the member name to start from
+     * @param to the member name to reach
+     * @return true if {@code to} is used by {@code from}, directly or not
+     */
+    public boolean isReachable(String from, String to) {
+        int target = id(to);
+        return target >= 0 && id(from) >= 0 && visit(Collections.singleton(from), Integer.MAX_VALUE, calleeOffsets, callees, target).get(target);
+    }
+
+    private Set<String> traverse(Collection<String> start, int maxDepth, int[] offsets, int[] targets, boolean includeStart) {
+        BitSet reached = visit(start, maxDepth, offsets, targets, -1);
+        if (includeStart) {
+            for (String member : start) {
+                int id = id(member);
+                if (id >= 0) {
+                    reached.set(id);
+                }
+            }
+        }
+        Set<String> result = new LinkedHashSet<>();
+        for (int id = reached.nextSetBit(0); id >= 0; id = reached.nextSetBit(id + 1)) {
+            result.add(members[id]);
+        }
+        return result;
+    }
+
+    /**
+     * breadth first traversal from the start members. a start member is only
+     * reached through an edge leading back to it, as with recursion.
+     *
+     * @param target a member id to stop at once reached, or -1
+     * @return the reached member ids
+     */
+    private BitSet visit(Collection<String> start, int maxDepth, int[] offsets, int[] targets, int target) {
+        BitSet reached = new BitSet(members.length);
+        BitSet queued = new BitSet(members.length);
+        int[] queue = new int[members.length];
+        int head = 0;
+        int tail = 0;
+        for (String member : start) {
+            int id = id(member);
+            if (id >= 0 && !queued.get(id)) {
+                queued.set(id);
+                queue[tail++] = id;
+            }
+        }
+        int depth = 0;
+        while (head < tail && depth < maxDepth) {
+            int levelEnd = tail;
+            while (head < levelEnd) {
+                int id = queue[head++];
+                for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+                    int next = targets[i];
+                    if (!reached.get(next)) {
+                        reached.set(next);
+                        if (next == target) {
+                            return reached;
+                        }
+                        if (!queued.get(next)) {
+                            queued.set(next);
+                            queue[tail++] = next;
+                        }
+                    }
+                }
+            }
+            depth++;
+        }
+        return reached;
+    }
+
+    @Override
+    public String toString() {
+        return "CallGraph[" + members.length + " members, " + callees.length + " edges]";
+    }
+}
@@ -0,0 +1,299 @@
+package com.phyzicsz.rocket.reflection.index;
+
+import com.phyzicsz.rocket.reflection.Store;
+import com.phyzicsz.rocket.reflection.exception.ReflectionException;
+import com.phyzicsz.rocket.reflection.scanners.ResourcesScanner;
+import com.phyzicsz.rocket.reflection.util.Utils;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * an immutable index of the resources recorded by {@link ResourcesScanner},
+ * keeping their relative paths and simple names in compressed radix tries.
+ * <p>
+ * a query descends the trie along its literal prefix, the part of a path
+ * prefix, a glob or a regular expression before any wildcard, and only tests
+ * the resources below it, so it takes time in proportion to the resources
+ * sharing that prefix rather than to all resources.
+ */
+public final class ResourceTrie {
+
+    private final Node names = new Node("");
+    private final Node paths = new Node("");
+    private final Map<String, List<String>> extensions = new HashMap<>();
+    private int size;
+
+    private ResourceTrie() {
+    }
+
+    /**
+     * builds the index from the store
+     *
+     * @param store a store holding the index of {@link ResourcesScanner}
+     * @return the resource index
+     */
+    public static ResourceTrie of(Store store) {
+        String index = Utils.index(ResourcesScanner.class);
+        if (!store.keySet().contains(index)) {
+            throw new ReflectionException("Scanner " + index + " was not configured");
+        }
+        ResourceTrie trie = new ResourceTrie();
+        for (String name : store.keys(index)) {
+            for (String path : store.get(index, name)) {
+                trie.names.put(name, 0, path);
+                trie.paths.put(path, 0, path);
+                int dot = name.lastIndexOf('.');
+                if (dot >= 0) {
+                    trie.extensions.computeIfAbsent(name.substring(dot + 1), s -> new ArrayList<>()).add(path);
+                }
+                trie.size++;
+            }
+        }
+        return trie;
+    }
+
+    /**
+     * the number of resources
+     *
+     * @return the number of resources
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * the resources whose relative path starts with the given prefix
+     *
+     * @param prefix the path prefix, such as {@code META-INF/services/}
+     * @return the relative paths
+     */
+    public Set<String> getByPathPrefix(String prefix) {
+        return find(paths, prefix, null);
+    }
+
+    /**
+     * the resources with the given extension
+     *
+     * @param extension the extension, without the dot, such as {@code xml}
+     * @return the relative paths
+     */
+    public Set<String> getByExtension(String extension) {
+        List<String> result = extensions.get(extension);
+        return result != null ? new LinkedHashSet<>(result) : new LinkedHashSet<>();
+    }
+
+    /**
+     * the resources whose relative path matches a glob, where {@code *}
+     * matches within a directory, {@code **} across directories and
+     * {@code ?} a single character
+     *
+     * @param glob the glob, such as {@code META-INF/**}{@code /*.xml}
+     * @return the relative paths
+     */
+    public Set<String> getByGlob(String glob) {
+        Pattern pattern = Pattern.compile(globToRegex(glob));
+        return find(paths, literalPrefix(pattern.pattern()), key -> pattern.matcher(key).matches());
+    }
+
+    /**
+     * the resources whose simple name matches a regular expression
+     *
+     * @param pattern the regular expression, matched against the whole name
+     * @return the relative paths
+     */
+    public Set<String> getByName(Pattern pattern) {
+        String prefix = pattern.flags() == 0 ? literalPrefix(pattern.pattern()) : "";
+        return find(names, prefix, key -> pattern.matcher(key).matches());
+    }
+
+    /**
+     * the resources whose simple name is accepted by a predicate. as nothing
+     * is known of the names it accepts, all names are tested.
+     *
+     * @param predicate the predicate on names
+     * @return the relative paths
+     */
+    public Set<String> getByName(Predicate<String> predicate) {
+        return find(names, "", predicate);
+    }
+
+    /**
+     * the literal prefix of a regular expression, which any match starts with
+     *
+     * @param regex the regular expression
+     * @return the prefix, possibly empty
+     */
+    public static String literalPrefix(String regex) {
+        if (regex.indexOf('|') >= 0) {
+            return ""; //alternatives may start differently
+        }
+        StringBuilder prefix = new StringBuilder();
+        int i = 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            int length = prefix.length();
+            if (regex.startsWith("\\Q", i)) {
+                int end = regex.indexOf("\\E", i + 2);
+                prefix.append(regex, i + 2, end < 0 ? regex.length() : end);
+                i = end < 0 ? regex.length() : end + 2;
+                if (i < regex.length() && isQuantifier(regex.charAt(i))) {
+                    //only the last quoted character is optional
+                    prefix.setLength(Math.max(length, prefix.length() - 1));
+                    break;
+                }
+                continue;
+            } else if (c == '\\' && i + 1 < regex.length() && !Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                prefix.append(regex.charAt(i + 1));
+                i += 2;
+            } else if (c == '\\' || ".[]()*+?{}^$".indexOf(c) >= 0) {
+                break;
+            } else {
+                prefix.append(c);
+                i++;
+            }
+            if (i < regex.length() && isQuantifier(regex.charAt(i))) {
+                prefix.setLength(length);
+                break;
+            }
+        }
+        return prefix.toString();
+    }
+
+    private static boolean isQuantifier(char c) {
+        return c == '?' || c == '*' || c == '{';
+    }
+
+    private static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                if (c == '?') {
+                    regex.append("[^/]");
+                } else if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                    regex.append(".*");
+                    i++;
+                } else {
+                    regex.append("[^/]*");
+                }
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return regex.toString();
+    }
+
+    /**
+     * the values of the keys starting with the prefix, and accepted by the
+     * filter if any
+     */
+    private static Set<String> find(Node root, String prefix, Predicate<String> filter) {
+        Set<String> result = new LinkedHashSet<>();
+        StringBuilder key = new StringBuilder();
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node child = node.children != null ? node.children.get(prefix.charAt(i)) : null;
+            if (child == null) {
+                return result;
+            }
+            int common = commonLength(child.label, prefix, i);
+            if (common < child.label.length() && i + common < prefix.length()) {
+                return result; //diverges within the label
+            }
+            key.append(child.label);
+            i += child.label.length();
+            node = child;
+        }
+        collect(node, key, filter, result);
+        return result;
+    }
+
+    private static void collect(Node node, StringBuilder key, Predicate<String> filter, Set<String> result) {
+        if (node.values != null && (filter == null || filter.test(key.toString()))) {
+            result.addAll(node.values);
+        }
+        if (node.children != null) {
+            for (Node child : node.children.values()) {
+                int length = key.length();
+                key.append(child.label);
+                collect(child, key, filter, result);
+                key.setLength(length);
+            }
+        }
+    }
+
+    private static int commonLength(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * a node of a radix trie, reached by the characters of its label. the
+     * children are kept by the first character of their label.
+     */
+    private static final class Node {
+
+        private String label;
+        private TreeMap<Character, Node> children;
+        private List<String> values;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        /**
+         * adds a value for the key, from its given offset, below this node
+         */
+        void put(String key, int offset, String value) {
+            if (offset == key.length()) {
+                if (values == null) {
+                    values = new ArrayList<>(1);
+                }
+                values.add(value);
+                return;
+            }
+            if (children == null) {
+                children = new TreeMap<>();
+            }
+            char first = key.charAt(offset);
+            Node child = children.get(first);
+            if (child == null) {
+                child = new Node(key.substring(offset));
+                children.put(first, child);
+                child.put(key, key.length(), value);
+                return;
+            }
+            int common = commonLength(child.label, key, offset);
+            if (common < child.label.length()) {
+                //split the child at the end of the common part
+                Node split = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                split.children = new TreeMap<>(Collections.singletonMap(child.label.charAt(0), child));
+                children.put(first, split);
+                child = split;
+            }
+            child.put(key, offset + common, value);
+        }
+    }
+}
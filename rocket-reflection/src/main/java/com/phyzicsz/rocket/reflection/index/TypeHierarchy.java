@@ -0,0 +1,328 @@
+package com.phyzicsz.rocket.reflection.index;
+
+import com.phyzicsz.rocket.reflection.Store;
+import com.phyzicsz.rocket.reflection.exception.ReflectionException;
+import com.phyzicsz.rocket.reflection.scanners.SubTypesScanner;
+import com.phyzicsz.rocket.reflection.util.Utils;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.IntConsumer;
+
+/**
+ * an immutable index of the type hierarchy recorded by
+ * {@link SubTypesScanner}, answering transitive subtype queries without
+ * walking the hierarchy.
+ * <p>
+ * the types are numbered in post order of a depth first walk from the types
+ * without a known super type, and each type is labelled with the intervals of
+ * post order numbers of all its subtypes. in a tree this is a single interval,
+ * that of the subtree, and each interface implemented across the tree adds
+ * one interval per branch not already covered, so labels stay short for
+ * class hierarchies. {@link #isSubtype} is a binary search over the labels of
+ * the super type, and {@link #getSubTypes} reads the intervals in order.
+ */
+public final class TypeHierarchy {
+
+    private final String[] types;
+    /**
+     * type id by post order number
+     */
+    private final int[] order;
+    /**
+     * post order number by type id
+     */
+    private final int[] post;
+    private final int[] labelOffsets;
+    /**
+     * pairs of inclusive interval bounds, sorted and disjoint for each type
+     */
+    private final int[] labels;
+
+    private TypeHierarchy(String[] types, int[] childOffsets, int[] children) {
+        this.types = types;
+        int size = types.length;
+        order = new int[size];
+        post = new int[size];
+        int[][] intervals = new int[size][];
+
+        boolean[] hasParent = new boolean[size];
+        for (int child : children) {
+            hasParent[child] = true;
+        }
+        //0 unvisited, 1 on the walk, 2 done
+        byte[] state = new byte[size];
+        int[] low = new int[size];
+        int[] stack = new int[size];
+        int[] next = new int[size];
+        int counter = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int root = 0; root < size; root++) {
+                //roots first, then whatever is only reachable through a cycle
+                if (state[root] != 0 || (pass == 0 && hasParent[root])) {
+                    continue;
+                }
+                int depth = 0;
+                stack[0] = root;
+                next[root] = childOffsets[root];
+                low[root] = counter;
+                state[root] = 1;
+                while (depth >= 0) {
+                    int id = stack[depth];
+                    if (next[id] < childOffsets[id + 1]) {
+                        int child = children[next[id]++];
+                        if (state[child] == 0) {
+                            state[child] = 1;
+                            low[child] = counter;
+                            next[child] = childOffsets[child];
+                            stack[++depth] = child;
+                        }
+                    } else {
+                        post[id] = counter;
+                        order[counter++] = id;
+                        state[id] = 2;
+                        intervals[id] = label(id, low[id], post[id], childOffsets, children, state, intervals);
+                        depth--;
+                    }
+                }
+            }
+        }
+
+        labelOffsets = new int[size + 1];
+        for (int id = 0; id < size; id++) {
+            labelOffsets[id + 1] = labelOffsets[id] + intervals[id].length;
+        }
+        labels = new int[labelOffsets[size]];
+        for (int id = 0; id < size; id++) {
+            System.arraycopy(intervals[id], 0, labels, labelOffsets[id], intervals[id].length);
+        }
+    }
+
+    /**
+     * the intervals of a type, its own subtree and the labels of its children
+     * reached through other branches, merged. children still on the walk are
+     * part of a cycle and skipped.
+     */
+    private static int[] label(int id, int low, int post, int[] childOffsets, int[] children, byte[] state, int[][] intervals) {
+        int count = 2;
+        for (int i = childOffsets[id]; i < childOffsets[id + 1]; i++) {
+            int child = children[i];
+            if (state[child] == 2) {
+                count += intervals[child].length;
+            }
+        }
+        long[] all = new long[count / 2];
+        all[0] = ((long) low << 32) | post;
+        int n = 1;
+        for (int i = childOffsets[id]; i < childOffsets[id + 1]; i++) {
+            int child = children[i];
+            if (state[child] == 2) {
+                int[] label = intervals[child];
+                for (int j = 0; j < label.length; j += 2) {
+                    all[n++] = ((long) label[j] << 32) | label[j + 1];
+                }
+            }
+        }
+        Arrays.sort(all, 0, n);
+
+        int[] merged = new int[n * 2];
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            int start = (int) (all[i] >>> 32);
+            int end = (int) all[i];
+            if (m > 0 && start <= merged[m - 1] + 1) {
+                merged[m - 1] = Math.max(merged[m - 1], end);
+            } else {
+                merged[m++] = start;
+                merged[m++] = end;
+            }
+        }
+        return Arrays.copyOf(merged, m);
+    }
+
+    /**
+     * builds the type hierarchy from the store
+     *
+     * @param store a store holding the index of {@link SubTypesScanner}
+     * @return the type hierarchy
+     */
+    public static TypeHierarchy of(Store store) {
+        String index = Utils.index(SubTypesScanner.class);
+        if (!store.keySet().contains(index)) {
+            throw new ReflectionException("Scanner " + index + " was not configured");
+        }
+
+        Set<String> supertypes = store.keys(index);
+        Set<String> names = new TreeSet<>(supertypes);
+        names.addAll(store.values(index));
+        String[] types = names.toArray(new String[0]);
+
+        int[] childOffsets = new int[types.length + 1];
+        int[][] byType = new int[types.length][];
+        for (String supertype : supertypes) {
+            int id = Arrays.binarySearch(types, supertype);
+            byType[id] = store.get(index, supertype).stream()
+                    .mapToInt(subtype -> Arrays.binarySearch(types, subtype))
+                    .filter(subtype -> subtype >= 0)
+                    .toArray();
+        }
+        for (int id = 0; id < types.length; id++) {
+            childOffsets[id + 1] = childOffsets[id] + (byType[id] != null ? byType[id].length : 0);
+        }
+        int[] children = new int[childOffsets[types.length]];
+        for (int id = 0; id < types.length; id++) {
+            if (byType[id] != null) {
+                System.arraycopy(byType[id], 0, children, childOffsets[id], byType[id].length);
+            }
+        }
+        return new TypeHierarchy(types, childOffsets, children);
+    }
+
+    /**
+     * the number of types
+     *
+     * @return the number of types
+     */
+    public int size() {
+        return types.length;
+    }
+
+    /**
+     * the id of a type
+     *
+     * @param type a type name
+     * @return the id, or -1 if the type is not in the hierarchy
+     */
+    public int id(String type) {
+        int id = Arrays.binarySearch(types, type);
+        return id >= 0 ? id : -1;
+    }
+
+    /**
+     * the name of a type
+     *
+     * @param id the id of the type
+     * @return the type name
+     */
+    public String type(int id) {
+        return types[id];
+    }
+
+    /**
+     * whether a type is the same as, or a transitive subtype of, another one,
+     * as far as the hierarchy knows
+     *
+     * @param type the type name
+     * @param supertype the super type name
+     * @return true if {@code type} is {@code supertype} or one of its subtypes
+     */
+    public boolean isSubtype(String type, String supertype) {
+        if (type.equals(supertype)) {
+            return true;
+        }
+        int sub = id(type);
+        int sup = id(supertype);
+        return sub >= 0 && sup >= 0 && contains(sup, post[sub]);
+    }
+
+    /**
+     * whether the labels of a type contain a post order number
+     */
+    private boolean contains(int id, int number) {
+        int low = labelOffsets[id] / 2;
+        int high = labelOffsets[id + 1] / 2 - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (labels[mid * 2 + 1] < number) {
+                low = mid + 1;
+            } else if (labels[mid * 2] > number) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * the transitive subtypes of a type, not including the type itself
+     *
+     * @param type the type name
+     * @return the subtype names
+     */
+    public Set<String> getSubTypes(String type) {
+        Set<String> result = new LinkedHashSet<>();
+        int id = id(type);
+        if (id >= 0) {
+            addSubTypes(id, result);
+            result.remove(type);
+        }
+        return result;
+    }
+
+    /**
+     * the given types and their transitive subtypes
+     *
+     * @param types the type names
+     * @return the type names and their subtype names
+     */
+    public Set<String> getSubTypesIncluding(Collection<String> types) {
+        Set<String> result = new LinkedHashSet<>(types);
+        for (String type : types) {
+            int id = id(type);
+            if (id >= 0) {
+                addSubTypes(id, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * the number of transitive subtypes of a type, not including the type
+     * itself
+     *
+     * @param type the type name
+     * @return the number of subtypes
+     */
+    public int countSubTypes(String type) {
+        int id = id(type);
+        if (id < 0) {
+            return 0;
+        }
+        int count = -1;
+        for (int i = labelOffsets[id]; i < labelOffsets[id + 1]; i += 2) {
+            count += labels[i + 1] - labels[i] + 1;
+        }
+        return count;
+    }
+
+    /**
+     * calls an action with the id of a type and the ids of its transitive
+     * subtypes
+     *
+     * @param id the id of the type
+     * @param action the action
+     */
+    public void forEachSubTypeIncluding(int id, IntConsumer action) {
+        for (int i = labelOffsets[id]; i < labelOffsets[id + 1]; i += 2) {
+            for (int number = labels[i]; number <= labels[i + 1]; number++) {
+                action.accept(order[number]);
+            }
+        }
+    }
+
+    private void addSubTypes(int id, Set<String> result) {
+        for (int i = labelOffsets[id]; i < labelOffsets[id + 1]; i += 2) {
+            for (int number = labels[i]; number <= labels[i + 1]; number++) {
+                result.add(types[order[number]]);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TypeHierarchy[" + types.length + " types, " + labels.length / 2 + " intervals]";
+    }
+}
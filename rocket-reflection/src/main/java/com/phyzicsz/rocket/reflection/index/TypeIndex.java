@@ -0,0 +1,320 @@
+package com.phyzicsz.rocket.reflection.index;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.phyzicsz.rocket.reflection.Store;
+import com.phyzicsz.rocket.reflection.exception.ReflectionException;
+import com.phyzicsz.rocket.reflection.scanners.FieldAnnotationsScanner;
+import com.phyzicsz.rocket.reflection.scanners.MethodAnnotationsScanner;
+import com.phyzicsz.rocket.reflection.scanners.SubTypesScanner;
+import com.phyzicsz.rocket.reflection.scanners.TypeAnnotationsScanner;
+import com.phyzicsz.rocket.reflection.util.Utils;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * an immutable numbering of the types recorded by {@link SubTypesScanner} and
+ * {@link TypeAnnotationsScanner}, and of those declaring members recorded by
+ * {@link MethodAnnotationsScanner} and {@link FieldAnnotationsScanner},
+ * answering queries as {@link TypeSet}s, so that compound queries such as
+ * "subtypes of X annotated with Y in package Z" are set operations over
+ * bitmaps, without loading any class. {@link #query()} plans such queries.
+ * <p>
+ * types are numbered in name order, so the types of a package have
+ * consecutive ids. the sets of subtypes and of annotated types are computed
+ * on first use and kept in bounded caches.
+ * <p>
+ * sets are plain {@link BitSet}s of one bit per type: they are intersected
+ * and united a word at a time, need no dependency, and the largest, such as
+ * the subtypes of {@code java.lang.Object}, are dense. a set takes an eighth
+ * of a byte per type whatever its size, which the cache bound keeps in check.
+ */
+public final class TypeIndex {
+
+    /**
+     * the maximum number of sets of subtypes, and of annotated types, kept
+     */
+    public static final int CACHE_SIZE = 1024;
+
+    private final Store store;
+    private final TypeHierarchy hierarchy;
+    private final String[] types;
+    /**
+     * id by id in the hierarchy
+     */
+    private final int[] hierarchyIds;
+    private final LoadingCache<String, BitSet> subTypes = cache(this::computeSubTypesOf);
+    private final LoadingCache<String, BitSet> annotated = cache(this::computeAnnotatedWith);
+
+    private TypeIndex(Store store, TypeHierarchy hierarchy, String[] types) {
+        this.store = store;
+        this.hierarchy = hierarchy;
+        this.types = types;
+        if (hierarchy != null) {
+            hierarchyIds = new int[hierarchy.size()];
+            for (int id = 0; id < hierarchyIds.length; id++) {
+                hierarchyIds[id] = id(hierarchy.type(id));
+            }
+        } else {
+            hierarchyIds = null;
+        }
+    }
+
+    /**
+     * builds the type index from the store
+     *
+     * @param store a store holding the index of {@link SubTypesScanner} or
+     * {@link TypeAnnotationsScanner}, or both
+     * @param hierarchy the type hierarchy of the store, or null if
+     * {@link SubTypesScanner} is not configured
+     * @return the type index
+     */
+    public static TypeIndex of(Store store, TypeHierarchy hierarchy) {
+        Set<String> names = new TreeSet<>();
+        for (String index : Arrays.asList(Utils.index(SubTypesScanner.class), Utils.index(TypeAnnotationsScanner.class))) {
+            if (store.keySet().contains(index)) {
+                names.addAll(store.keys(index));
+                names.addAll(store.values(index));
+            }
+        }
+        //types known only by their annotated members
+        for (String index : Arrays.asList(Utils.index(MethodAnnotationsScanner.class), Utils.index(FieldAnnotationsScanner.class))) {
+            if (store.keySet().contains(index)) {
+                for (String member : store.values(index)) {
+                    names.add(declaringType(member));
+                }
+            }
+        }
+        return new TypeIndex(store, hierarchy, names.toArray(new String[0]));
+    }
+
+    private static LoadingCache<String, BitSet> cache(Function<String, BitSet> compute) {
+        return CacheBuilder.newBuilder()
+                .maximumSize(CACHE_SIZE)
+                .build(new CacheLoader<String, BitSet>() {
+                    @Override
+                    public BitSet load(String key) {
+                        return compute.apply(key);
+                    }
+                });
+    }
+
+    private static BitSet get(LoadingCache<String, BitSet> cache, String key) {
+        try {
+            return cache.getUnchecked(key);
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof ReflectionException) {
+                throw (ReflectionException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * the declaring type of a field, such as {@code a.B.field}, or of a
+     * method, such as {@code a.B.method(int)}
+     */
+    static String declaringType(String member) {
+        int parameters = member.indexOf('(');
+        return member.substring(0, member.lastIndexOf('.', parameters >= 0 ? parameters : member.length()));
+    }
+
+    /**
+     * a query over the types of the index
+     *
+     * @return a query without criteria, matching all types
+     */
+    public TypeQuery query() {
+        return new TypeQuery(this);
+    }
+
+    Store store() {
+        return store;
+    }
+
+    TypeHierarchy hierarchy() {
+        return hierarchy;
+    }
+
+    /**
+     * the number of types whose name starts with a prefix, from two binary
+     * searches
+     */
+    int countWithPrefix(String prefix) {
+        if (prefix.isEmpty()) {
+            return types.length;
+        }
+        //the character after '.' is '/', after which no type name continues
+        return rank(prefix.substring(0, prefix.length() - 1) + "/") - rank(prefix);
+    }
+
+    private int rank(String name) {
+        int id = Arrays.binarySearch(types, name);
+        return id >= 0 ? id : -id - 1;
+    }
+
+    /**
+     * the number of types
+     *
+     * @return the number of types
+     */
+    public int size() {
+        return types.length;
+    }
+
+    /**
+     * the id of a type
+     *
+     * @param type a type name
+     * @return the id, or -1 if the type is not in the index
+     */
+    public int id(String type) {
+        int id = Arrays.binarySearch(types, type);
+        return id >= 0 ? id : -1;
+    }
+
+    /**
+     * the name of a type
+     *
+     * @param id the id of the type
+     * @return the type name
+     */
+    public String type(int id) {
+        return types[id];
+    }
+
+    /**
+     * all the types of the index
+     *
+     * @return the types
+     */
+    public TypeSet all() {
+        BitSet bits = new BitSet(types.length);
+        bits.set(0, types.length);
+        return new TypeSet(this, bits);
+    }
+
+    /**
+     * no type
+     *
+     * @return an empty set
+     */
+    public TypeSet none() {
+        return new TypeSet(this, new BitSet());
+    }
+
+    /**
+     * the given types, as far as the index knows them
+     *
+     * @param types the type names
+     * @return the types
+     */
+    public TypeSet of(Collection<String> types) {
+        BitSet bits = new BitSet(this.types.length);
+        for (String type : types) {
+            int id = id(type);
+            if (id >= 0) {
+                bits.set(id);
+            }
+        }
+        return new TypeSet(this, bits);
+    }
+
+    /**
+     * the transitive subtypes of a type, not including the type itself, as
+     * {@link com.phyzicsz.rocket.reflection.RocketReflection#getSubTypesOf}
+     * <p>
+     * depends on SubTypesScanner configured
+     *
+     * @param type the type name
+     * @return the subtypes
+     */
+    public TypeSet subTypesOf(String type) {
+        if (hierarchy == null) {
+            throw new ReflectionException("Scanner " + Utils.index(SubTypesScanner.class) + " was not configured");
+        }
+        return new TypeSet(this, get(subTypes, type));
+    }
+
+    private BitSet computeSubTypesOf(String type) {
+        BitSet bits = new BitSet(types.length);
+        int id = hierarchy.id(type);
+        if (id >= 0) {
+            hierarchy.forEachSubTypeIncluding(id, sub -> bits.set(hierarchyIds[sub]));
+            bits.clear(hierarchyIds[id]);
+        }
+        return bits;
+    }
+
+    /**
+     * the types annotated with an annotation, directly or through annotations
+     * annotated with it, and their subtypes, as
+     * {@link com.phyzicsz.rocket.reflection.RocketReflection#getTypesAnnotatedWith(Class)}
+     * <p>
+     * depends on TypeAnnotationsScanner and SubTypesScanner configured
+     *
+     * @param annotation the annotation type name
+     * @return the annotated types
+     */
+    public TypeSet annotatedWith(String annotation) {
+        if (hierarchy == null) {
+            throw new ReflectionException("Scanner " + Utils.index(SubTypesScanner.class) + " was not configured");
+        }
+        return new TypeSet(this, get(annotated, annotation));
+    }
+
+    private BitSet computeAnnotatedWith(String annotation) {
+        Set<String> direct = store.get(TypeAnnotationsScanner.class, annotation);
+        BitSet bits = new BitSet(types.length);
+        for (String type : store.getAllIncluding(TypeAnnotationsScanner.class, direct)) {
+            int id = hierarchy.id(type);
+            if (id >= 0) {
+                hierarchy.forEachSubTypeIncluding(id, sub -> bits.set(hierarchyIds[sub]));
+            } else if ((id = id(type)) >= 0) {
+                bits.set(id);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * the types directly annotated with an annotation
+     * <p>
+     * depends on TypeAnnotationsScanner configured
+     *
+     * @param annotation the annotation type name
+     * @return the annotated types
+     */
+    public TypeSet directlyAnnotatedWith(String annotation) {
+        return of(store.get(TypeAnnotationsScanner.class, annotation));
+    }
+
+    /**
+     * the types of a package, not including its sub packages. as the ids of
+     * a package are consecutive, only those are looked at.
+     *
+     * @param packageName the package name, such as {@code java.util}
+     * @return the types of the package
+     */
+    public TypeSet inPackage(String packageName) {
+        String prefix = packageName.isEmpty() ? "" : packageName + ".";
+        BitSet bits = new BitSet(types.length);
+        for (int id = rank(prefix); id < types.length && types[id].startsWith(prefix); id++) {
+            if (types[id].indexOf('.', prefix.length()) < 0) {
+                bits.set(id);
+            }
+        }
+        return new TypeSet(this, bits);
+    }
+
+    @Override
+    public String toString() {
+        return "TypeIndex[" + types.length + " types]";
+    }
+}
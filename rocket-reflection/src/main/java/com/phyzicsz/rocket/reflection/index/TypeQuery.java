@@ -0,0 +1,309 @@
+package com.phyzicsz.rocket.reflection.index;
+
+import com.phyzicsz.rocket.reflection.IndexStats;
+import com.phyzicsz.rocket.reflection.Store;
+import com.phyzicsz.rocket.reflection.scanners.FieldAnnotationsScanner;
+import com.phyzicsz.rocket.reflection.scanners.MethodAnnotationsScanner;
+import com.phyzicsz.rocket.reflection.scanners.SubTypesScanner;
+import com.phyzicsz.rocket.reflection.scanners.TypeAnnotationsScanner;
+import com.phyzicsz.rocket.reflection.util.Utils;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * a query over the types of a {@link TypeIndex}, built from criteria that
+ * all must hold, such as
+ * <pre>
+ * index.query()
+ *         .subTypesOf(Service.class)
+ *         .annotatedWith(Component.class)
+ *         .inPackage("com.acme")
+ *         .withMethodAnnotated(Scheduled.class)
+ *         .getNames();
+ * </pre>
+ * nothing is evaluated until the result is asked for. the criteria are then
+ * ordered by the number of types each is estimated to match, from the
+ * counts of the indices and the {@link Store#stats() store statistics}, and
+ * the most selective one is evaluated first as a {@link TypeSet}. each next
+ * criterion is either evaluated as a set and intersected with the result, or,
+ * when the result is small enough, checked on each remaining type, such as a
+ * subtype check against the type hierarchy. no class is loaded.
+ */
+public final class TypeQuery {
+
+    /**
+     * how much more checking one type costs than setting one bit of an
+     * evaluated set, with the binary searches it takes
+     */
+    static final int CHECK_COST = 8;
+
+    private final TypeIndex index;
+    private final List<Criterion> criteria = new ArrayList<>();
+
+    TypeQuery(TypeIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * the transitive subtypes of a type, not including the type itself
+     *
+     * @param type the super type
+     * @return this query
+     */
+    public TypeQuery subTypesOf(Class<?> type) {
+        return subTypesOf(type.getName());
+    }
+
+    /**
+     * the transitive subtypes of a type, not including the type itself
+     *
+     * @param type the super type name
+     * @return this query
+     */
+    public TypeQuery subTypesOf(String type) {
+        TypeHierarchy hierarchy = index.hierarchy();
+        criteria.add(new Criterion("subTypesOf(" + type + ")",
+                () -> hierarchy != null ? hierarchy.countSubTypes(type) : 0,
+                () -> index.subTypesOf(type),
+                hierarchy != null ? name -> !name.equals(type) && hierarchy.isSubtype(name, type) : null));
+        return this;
+    }
+
+    /**
+     * the types annotated with an annotation, as
+     * {@link TypeIndex#annotatedWith(String)}
+     *
+     * @param annotation the annotation type
+     * @return this query
+     */
+    public TypeQuery annotatedWith(Class<? extends Annotation> annotation) {
+        return annotatedWith(annotation.getName());
+    }
+
+    /**
+     * the types annotated with an annotation, as
+     * {@link TypeIndex#annotatedWith(String)}
+     *
+     * @param annotation the annotation type name
+     * @return this query
+     */
+    public TypeQuery annotatedWith(String annotation) {
+        criteria.add(new Criterion("annotatedWith(" + annotation + ")",
+                () -> {
+                    //inherited by subtypes, by the average number of direct subtypes
+                    long direct = index.store().get(TypeAnnotationsScanner.class, annotation).size();
+                    return direct + direct * averageValues(Utils.index(SubTypesScanner.class));
+                },
+                () -> index.annotatedWith(annotation), null));
+        return this;
+    }
+
+    /**
+     * the types directly annotated with an annotation
+     *
+     * @param annotation the annotation type
+     * @return this query
+     */
+    public TypeQuery directlyAnnotatedWith(Class<? extends Annotation> annotation) {
+        return directlyAnnotatedWith(annotation.getName());
+    }
+
+    /**
+     * the types directly annotated with an annotation
+     *
+     * @param annotation the annotation type name
+     * @return this query
+     */
+    public TypeQuery directlyAnnotatedWith(String annotation) {
+        criteria.add(new Criterion("directlyAnnotatedWith(" + annotation + ")",
+                () -> index.store().get(TypeAnnotationsScanner.class, annotation).size(),
+                () -> index.directlyAnnotatedWith(annotation), null));
+        return this;
+    }
+
+    /**
+     * the types of a package, not including its sub packages
+     *
+     * @param packageName the package name
+     * @return this query
+     */
+    public TypeQuery inPackage(String packageName) {
+        String prefix = packageName.isEmpty() ? "" : packageName + ".";
+        criteria.add(new Criterion("inPackage(" + packageName + ")",
+                () -> index.countWithPrefix(prefix),
+                () -> index.inPackage(packageName),
+                name -> name.startsWith(prefix) && name.indexOf('.', prefix.length()) < 0));
+        return this;
+    }
+
+    /**
+     * the types declaring a method annotated with an annotation
+     *
+     * @param annotation the annotation type
+     * @return this query
+     */
+    public TypeQuery withMethodAnnotated(Class<? extends Annotation> annotation) {
+        String name = annotation.getName();
+        criteria.add(new Criterion("withMethodAnnotated(" + name + ")",
+                () -> index.store().get(MethodAnnotationsScanner.class, name).size(),
+                () -> {
+                    List<String> types = new ArrayList<>();
+                    for (String method : index.store().get(MethodAnnotationsScanner.class, name)) {
+                        if (!Utils.isConstructor(method)) {
+                            types.add(TypeIndex.declaringType(method));
+                        }
+                    }
+                    return index.of(types);
+                }, null));
+        return this;
+    }
+
+    /**
+     * the types declaring a field annotated with an annotation
+     *
+     * @param annotation the annotation type
+     * @return this query
+     */
+    public TypeQuery withFieldAnnotated(Class<? extends Annotation> annotation) {
+        String name = annotation.getName();
+        criteria.add(new Criterion("withFieldAnnotated(" + name + ")",
+                () -> index.store().get(FieldAnnotationsScanner.class, name).size(),
+                () -> {
+                    List<String> types = new ArrayList<>();
+                    for (String field : index.store().get(FieldAnnotationsScanner.class, name)) {
+                        types.add(TypeIndex.declaringType(field));
+                    }
+                    return index.of(types);
+                }, null));
+        return this;
+    }
+
+    /**
+     * the types whose name is accepted by a predicate. as nothing is known of
+     * the names it accepts, it is checked last, on the remaining types only.
+     *
+     * @param predicate the predicate on type names
+     * @return this query
+     */
+    public TypeQuery matching(Predicate<String> predicate) {
+        criteria.add(new Criterion("matching(predicate)",
+                () -> Long.MAX_VALUE,
+                () -> index.all().filter(predicate), predicate));
+        return this;
+    }
+
+    /**
+     * evaluates the query
+     *
+     * @return the matching types
+     */
+    public TypeSet toTypeSet() {
+        return execute(null);
+    }
+
+    /**
+     * evaluates the query
+     *
+     * @return the names of the matching types
+     */
+    public Set<String> getNames() {
+        return toTypeSet().getNames();
+    }
+
+    /**
+     * evaluates the query and loads the matching types
+     *
+     * @param classLoaders the class loaders to load the types with
+     * @return the classes
+     */
+    public Set<Class<?>> getClasses(ClassLoader... classLoaders) {
+        return toTypeSet().getClasses(classLoaders);
+    }
+
+    /**
+     * evaluates the query, describing each step taken
+     *
+     * @return the criteria in the order they were applied, with their
+     * estimate, whether they were evaluated or checked, and the number of
+     * types left
+     */
+    public List<String> explain() {
+        List<String> trace = new ArrayList<>();
+        execute(trace);
+        return trace;
+    }
+
+    private TypeSet execute(List<String> trace) {
+        long[] estimates = new long[criteria.size()];
+        List<Integer> plan = new ArrayList<>(criteria.size());
+        for (int i = 0; i < estimates.length; i++) {
+            estimates[i] = criteria.get(i).estimator.getAsLong();
+            plan.add(i);
+        }
+        plan.sort(Comparator.comparingLong(i -> estimates[i]));
+
+        TypeSet result = null;
+        for (int i : plan) {
+            Criterion criterion = criteria.get(i);
+            long estimate = estimates[i];
+            String step;
+            if (result == null) {
+                result = criterion.evaluator.get();
+                step = "evaluate";
+            } else if (criterion.check != null
+                    && (estimate == Long.MAX_VALUE || (long) result.size() * CHECK_COST <= estimate)) {
+                result = result.filter(criterion.check);
+                step = "check";
+            } else {
+                result = result.and(criterion.evaluator.get());
+                step = "evaluate and intersect";
+            }
+            if (trace != null) {
+                trace.add(criterion.description + " ~" + estimate + ": " + step + ", " + result.size() + " types left");
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result != null ? result : index.all();
+    }
+
+    private long averageValues(String indexName) {
+        IndexStats stats = index.store().stats().get(indexName);
+        return stats != null && stats.getKeys() > 0 ? stats.getValues() / stats.getKeys() : 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("TypeQuery");
+        for (Criterion criterion : criteria) {
+            result.append('.').append(criterion.description);
+        }
+        return result.toString();
+    }
+
+    /**
+     * a criterion of the query, evaluated as a set, or, if it can be,
+     * checked on each type
+     */
+    private static final class Criterion {
+
+        private final String description;
+        private final LongSupplier estimator;
+        private final Supplier<TypeSet> evaluator;
+        private final Predicate<String> check;
+
+        Criterion(String description, LongSupplier estimator, Supplier<TypeSet> evaluator, Predicate<String> check) {
+            this.description = description;
+            this.estimator = estimator;
+            this.evaluator = evaluator;
+            this.check = check;
+        }
+    }
+}
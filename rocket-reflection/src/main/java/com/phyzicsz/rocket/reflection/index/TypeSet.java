@@ -0,0 +1,165 @@
+package com.phyzicsz.rocket.reflection.index;
+
+import com.phyzicsz.rocket.reflection.exception.ReflectionException;
+import com.phyzicsz.rocket.reflection.util.ReflectionUtils;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * an immutable set of types of a {@link TypeIndex}, as a bitmap over their
+ * ids.
+ * <p>
+ * sets of the same index are combined with {@link #and}, {@link #or} and
+ * {@link #andNot}, word by word, and only the final set needs to be resolved
+ * to names or classes.
+ */
+public final class TypeSet {
+
+    private final TypeIndex index;
+    private final BitSet bits;
+
+    /**
+     * @param bits the ids of the types, not modified afterwards
+     */
+    TypeSet(TypeIndex index, BitSet bits) {
+        this.index = index;
+        this.bits = bits;
+    }
+
+    /**
+     * the types in both sets
+     *
+     * @param other a set of the same index
+     * @return the intersection
+     */
+    public TypeSet and(TypeSet other) {
+        BitSet result = copy(other);
+        result.and(other.bits);
+        return new TypeSet(index, result);
+    }
+
+    /**
+     * the types in either set
+     *
+     * @param other a set of the same index
+     * @return the union
+     */
+    public TypeSet or(TypeSet other) {
+        BitSet result = copy(other);
+        result.or(other.bits);
+        return new TypeSet(index, result);
+    }
+
+    /**
+     * the types in this set and not in the other one
+     *
+     * @param other a set of the same index
+     * @return the difference
+     */
+    public TypeSet andNot(TypeSet other) {
+        BitSet result = copy(other);
+        result.andNot(other.bits);
+        return new TypeSet(index, result);
+    }
+
+    /**
+     * the types of this set whose name is accepted by a predicate
+     *
+     * @param predicate the predicate on type names
+     * @return the accepted types
+     */
+    public TypeSet filter(Predicate<String> predicate) {
+        BitSet result = new BitSet(bits.length());
+        for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+            if (predicate.test(index.type(id))) {
+                result.set(id);
+            }
+        }
+        return new TypeSet(index, result);
+    }
+
+    private BitSet copy(TypeSet other) {
+        if (other.index != index) {
+            throw new ReflectionException("type sets of different type indices can't be combined");
+        }
+        return (BitSet) bits.clone();
+    }
+
+    /**
+     * the number of types
+     *
+     * @return the number of types
+     */
+    public int size() {
+        return bits.cardinality();
+    }
+
+    /**
+     * whether the set holds no type
+     *
+     * @return true if the set is empty
+     */
+    public boolean isEmpty() {
+        return bits.isEmpty();
+    }
+
+    /**
+     * whether the set holds a type
+     *
+     * @param type the type name
+     * @return true if the type is in the set
+     */
+    public boolean contains(String type) {
+        int id = index.id(type);
+        return id >= 0 && bits.get(id);
+    }
+
+    /**
+     * the names of the types, in the order of their ids
+     *
+     * @return the type names
+     */
+    public Set<String> getNames() {
+        Set<String> result = new LinkedHashSet<>(bits.cardinality() * 4 / 3 + 1);
+        for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+            result.add(index.type(id));
+        }
+        return result;
+    }
+
+    /**
+     * loads the types, skipping those that could not be loaded
+     *
+     * @param classLoaders the class loaders to load the types with
+     * @return the classes
+     */
+    public Set<Class<?>> getClasses(ClassLoader... classLoaders) {
+        return ReflectionUtils.forNames(getNames(), classLoaders);
+    }
+
+    /**
+     * the ids of the types, a copy that may be modified
+     *
+     * @return the type ids
+     */
+    public BitSet toBitSet() {
+        return (BitSet) bits.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof TypeSet && ((TypeSet) o).index == index && ((TypeSet) o).bits.equals(bits));
+    }
+
+    @Override
+    public int hashCode() {
+        return bits.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "TypeSet[" + size() + " types]";
+    }
+}
@@ -5,9 +5,11 @@ package com.phyzicsz.rocket.reflection.scanners;
 import com.phyzicsz.rocket.reflection.Configuration;
 import com.phyzicsz.rocket.reflection.exception.ReflectionException;
 import com.phyzicsz.rocket.reflection.Store;
+import com.phyzicsz.rocket.reflection.adapters.AnnotationValues;
 import com.phyzicsz.rocket.reflection.adapters.MetadataAdapter;
 import com.phyzicsz.rocket.reflection.util.Utils;
 import com.phyzicsz.rocket.reflection.vfs.Vfs;
+import java.util.List;
 import java.util.function.Predicate;
 
 /**
@@ -19,6 +21,7 @@ public abstract class AbstractScanner implements Scanner {
 
     private Configuration configuration;
     private Predicate<String> resultFilter = s -> true; //accept all by default
+    private boolean indexMemberValues = true;
 
     @Override
     public boolean acceptsInput(String file) {
@@ -29,7 +32,7 @@ public abstract class AbstractScanner implements Scanner {
     public Object scan(Vfs.File file, Object classObject, Store store) {
         if (classObject == null) {
             try {
-                classObject = configuration.getMetadataAdapter().getOrCreateClassObject(file);
+                classObject = configuration.getMetadataAdapter().getOrCreateClassObject(file, configuration.getMetadataLevel());
             } catch (Exception e) {
                 throw new ReflectionException("could not create class object from file " + file.getRelativePath(), e);
             }
@@ -44,6 +47,28 @@ public abstract class AbstractScanner implements Scanner {
         store.put(Utils.index(getClass()), key, value);
     }
 
+    /**
+     * puts the member values of the annotations accepted by the results
+     * filter in the given index, keyed both by value and by member, as
+     * encoded by {@link AnnotationValues}
+     *
+     * @param store the store
+     * @param index the member values index
+     * @param values the member value keys, or null if the adapter does not
+     * read member values
+     * @param element the annotated element
+     */
+    protected void putAnnotationValues(Store store, String index, List<String> values, String element) {
+        if (values != null) {
+            for (String value : values) {
+                if (acceptResult(AnnotationValues.annotationType(value))) {
+                    store.put(index, value, element);
+                    store.put(index, AnnotationValues.memberKey(value), element);
+                }
+            }
+        }
+    }
+
     //
     public Configuration getConfiguration() {
         return configuration;
@@ -54,6 +79,21 @@ public abstract class AbstractScanner implements Scanner {
         this.configuration = configuration;
     }
 
+    /**
+     * whether the annotation scanners index the member values of the
+     * annotations they find, true by default. queries by annotation instance
+     * then load the annotated elements to compare their members.
+     *
+     * @return true if member values are indexed
+     */
+    public boolean isIndexMemberValues() {
+        return indexMemberValues;
+    }
+
+    public void setIndexMemberValues(boolean indexMemberValues) {
+        this.indexMemberValues = indexMemberValues;
+    }
+
     public Predicate<String> getResultFilter() {
         return resultFilter;
     }
@@ -0,0 +1,29 @@
+package com.phyzicsz.rocket.reflection.scanners;
+
+import com.phyzicsz.rocket.reflection.Store;
+
+/**
+ * a scanner that can be driven by a walk over the class, so that several
+ * scanners share a single pass over its fields and methods.
+ * <p>
+ * for each class, {@link #visitClass} is called first, then
+ * {@link #visitField} for each field and {@link #visitMethod} for each method,
+ * and {@link #visitEnd} last. fields and methods are only visited for scanners
+ * whose {@link #getMetadataLevel()} includes members. values derived from the
+ * class object, such as method keys, should be taken from the
+ * {@link ScanContext}, which computes them once for all scanners.
+ */
+public interface ClassVisitor extends Scanner {
+
+    default void visitClass(ScanContext context, Store store) {
+    }
+
+    default void visitField(ScanContext context, Object field, Store store) {
+    }
+
+    default void visitMethod(ScanContext context, Object method, Store store) {
+    }
+
+    default void visitEnd(ScanContext context, Store store) {
+    }
+}
@@ -1,24 +1,45 @@
 package com.phyzicsz.rocket.reflection.scanners;
 
 import com.phyzicsz.rocket.reflection.Store;
+import com.phyzicsz.rocket.reflection.adapters.MetadataLevel;
 import java.util.List;
 
-/** scans for field's annotations */
+/**
+ * scans for field's annotations, and their member values in
+ * {@link #VALUES_INDEX} when the metadata adapter reads them
+ */
 @SuppressWarnings({"unchecked"})
-public class FieldAnnotationsScanner extends AbstractScanner {
+public class FieldAnnotationsScanner extends AbstractScanner implements ClassVisitor {
+
+    /**
+     * the index of annotation member values to the names of the fields
+     * annotated with them
+     */
+    public static final String VALUES_INDEX = "FieldAnnotationValues";
+
+    @Override
+    public MetadataLevel getMetadataLevel() {
+        return MetadataLevel.ANNOTATIONS;
+    }
+
     @Override
     public void scan(final Object cls, Store store) {
-        final String className = getMetadataAdapter().getClassName(cls);
-        List<Object> fields = getMetadataAdapter().getFields(cls);
-        for (final Object field : fields) {
-            List<String> fieldAnnotations = getMetadataAdapter().getFieldAnnotationNames(field);
-            for (String fieldAnnotation : fieldAnnotations) {
+        new ScanContext(getMetadataAdapter(), cls).accept(this, store);
+    }
+
+    @Override
+    public void visitField(ScanContext context, Object field, Store store) {
+        List<String> fieldAnnotations = getMetadataAdapter().getFieldAnnotationNames(field);
+        for (String fieldAnnotation : fieldAnnotations) {
 
-                if (acceptResult(fieldAnnotation)) {
-                    String fieldName = getMetadataAdapter().getFieldName(field);
-                    put(store, fieldAnnotation, String.format("%s.%s", className, fieldName));
-                }
+            if (acceptResult(fieldAnnotation)) {
+                String fieldName = getMetadataAdapter().getFieldName(field);
+                put(store, fieldAnnotation, String.format("%s.%s", context.getClassName(), fieldName));
             }
         }
+        if (isIndexMemberValues()) {
+            putAnnotationValues(store, VALUES_INDEX, getMetadataAdapter().getFieldAnnotationValues(field),
+                    String.format("%s.%s", context.getClassName(), getMetadataAdapter().getFieldName(field)));
+        }
     }
 }
@@ -1,88 +1,95 @@
 package com.phyzicsz.rocket.reflection.scanners;
 
-import javassist.CannotCompileException;
-import javassist.ClassPool;
-import javassist.CtBehavior;
-import javassist.CtClass;
-import javassist.LoaderClassPath;
-import javassist.NotFoundException;
+import javassist.bytecode.BadBytecode;
+import javassist.bytecode.CodeAttribute;
+import javassist.bytecode.CodeIterator;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.LineNumberAttribute;
 import javassist.bytecode.MethodInfo;
-import javassist.expr.ConstructorCall;
-import javassist.expr.ExprEditor;
-import javassist.expr.FieldAccess;
-import javassist.expr.MethodCall;
-import javassist.expr.NewExpr;
+import javassist.bytecode.Opcode;
 import com.phyzicsz.rocket.reflection.exception.ReflectionException;
 import com.phyzicsz.rocket.reflection.Store;
-import com.phyzicsz.rocket.reflection.util.ClasspathHelper;
+import com.phyzicsz.rocket.reflection.adapters.Descriptors;
+import com.phyzicsz.rocket.reflection.adapters.MetadataLevel;
 import static com.phyzicsz.rocket.reflection.util.Utils.join;
 
 /** scans methods/constructors/fields usage
+ * <p>the bytecode of each method is read, without resolving the members it refers to, so a member is recorded as
+ * referenced by the calling code: an inherited method called on a subclass is recorded on the subclass.
  * <p><i> depends on {@link com.phyzicsz.rocket.reflection.adapters.JavassistAdapter} configured </i>*/
-@SuppressWarnings("unchecked")
-public class MemberUsageScanner extends AbstractScanner {
-    private ClassPool classPool;
+public class MemberUsageScanner extends AbstractScanner implements ClassVisitor {
+
+    @Override
+    public MetadataLevel getMetadataLevel() {
+        return MetadataLevel.CODE;
+    }
 
     @Override
     public void scan(Object cls, Store store) {
+        ScanContext context = new ScanContext(getMetadataAdapter(), cls);
         try {
-            CtClass ctClass = getClassPool().get(getMetadataAdapter().getClassName(cls));
-            for (CtBehavior member : ctClass.getDeclaredConstructors()) {
-                scanMember(member, store);
-            }
-            for (CtBehavior member : ctClass.getDeclaredMethods()) {
-                scanMember(member, store);
-            }
-            ctClass.detach();
-        } catch (Exception e) {
-            throw new ReflectionException("Could not scan method usage for " + getMetadataAdapter().getClassName(cls), e);
+            context.accept(this, store);
+        } catch (ReflectionException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new ReflectionException("Could not scan method usage for " + context.getClassName(), e);
         }
     }
 
-    void scanMember(CtBehavior member, Store store) throws CannotCompileException {
+    @Override
+    public void visitMethod(ScanContext context, Object method, Store store) {
+        MethodInfo info = (MethodInfo) method;
+        CodeAttribute code = info.getCodeAttribute();
+        if (code == null || MethodInfo.nameClinit.equals(info.getName())) {
+            return;
+        }
         //key contains this$/val$ means local field/parameter closure
-        final String key = member.getDeclaringClass().getName() + "." + member.getMethodInfo().getName() +
-                "(" + parameterNames(member.getMethodInfo()) + ")"; //+ " #" + member.getMethodInfo().getLineNumber(0)
-        member.instrument(new ExprEditor() {
-            @Override
-            public void edit(NewExpr e) throws CannotCompileException {
-                try {
-                    put(store, e.getConstructor().getDeclaringClass().getName() + "." + "<init>" +
-                            "(" + parameterNames(e.getConstructor().getMethodInfo()) + ")", e.getLineNumber(), key);
-                } catch (NotFoundException e1) {
-                    throw new ReflectionException("Could not find new instance usage in " + key, e1);
-                }
-            }
+        final String key = context.getMethodFullKey(method);
+        ConstPool constPool = info.getConstPool();
+        LineNumberAttribute lineNumbers = (LineNumberAttribute) code.getAttribute(LineNumberAttribute.tag);
 
-            @Override
-            public void edit(MethodCall m) throws CannotCompileException {
-                try {
-                    put(store, m.getMethod().getDeclaringClass().getName() + "." + m.getMethodName() +
-                            "(" + parameterNames(m.getMethod().getMethodInfo()) + ")", m.getLineNumber(), key);
-                } catch (NotFoundException e) {
-                    throw new ReflectionException("Could not find member " + m.getClassName() + " in " + key, e);
+        CodeIterator iterator = code.iterator();
+        try {
+            while (iterator.hasNext()) {
+                int pos = iterator.next();
+                switch (iterator.byteAt(pos)) {
+                    case Opcode.INVOKEVIRTUAL:
+                    case Opcode.INVOKESPECIAL: //constructors, both new instances and super/this calls, at the line of the call as javassist's NewExpr
+                    case Opcode.INVOKESTATIC:
+                    case Opcode.INVOKEINTERFACE: {
+                        int index = iterator.u16bitAt(pos + 1);
+                        int nameAndType = constPool.getMemberNameAndType(index);
+                        String descriptor = constPool.getUtf8Info(constPool.getNameAndTypeDescriptor(nameAndType));
+                        put(store, memberName(constPool, index) + "(" + join(Descriptors.parameterTypeNames(descriptor), ", ") + ")",
+                                lineNumber(lineNumbers, pos), key);
+                        break;
+                    }
+                    case Opcode.GETFIELD:
+                    case Opcode.PUTFIELD:
+                    case Opcode.GETSTATIC:
+                    case Opcode.PUTSTATIC:
+                        put(store, memberName(constPool, iterator.u16bitAt(pos + 1)), lineNumber(lineNumbers, pos), key);
+                        break;
+                    default:
+                        break;
                 }
             }
+        } catch (BadBytecode e) {
+            throw new ReflectionException("Could not scan member usage in " + key, e);
+        }
+    }
 
-            @Override
-            public void edit(ConstructorCall c) throws CannotCompileException {
-                try {
-                    put(store, c.getConstructor().getDeclaringClass().getName() + "." + "<init>" +
-                            "(" + parameterNames(c.getConstructor().getMethodInfo()) + ")", c.getLineNumber(), key);
-                } catch (NotFoundException e) {
-                    throw new ReflectionException("Could not find member " + c.getClassName() + " in " + key, e);
-                }
-            }
+    /**
+     * the declaring class and name of the field or method referred to by a constant pool entry
+     */
+    private static String memberName(ConstPool constPool, int index) {
+        String className = Descriptors.className(constPool.getClassInfo(constPool.getMemberClass(index)));
+        int nameAndType = constPool.getMemberNameAndType(index);
+        return className + "." + constPool.getUtf8Info(constPool.getNameAndTypeName(nameAndType));
+    }
 
-            @Override
-            public void edit(FieldAccess f) throws CannotCompileException {
-                try {
-                    put(store, f.getField().getDeclaringClass().getName() + "." + f.getFieldName(), f.getLineNumber(), key);
-                } catch (NotFoundException e) {
-                    throw new ReflectionException("Could not find member " + f.getFieldName() + " in " + key, e);
-                }
-            }
-        });
+    private static int lineNumber(LineNumberAttribute lineNumbers, int pos) {
+        return lineNumbers != null ? lineNumbers.toLineNumber(pos) : -1;
     }
 
     private void put(Store store, String key, int lineNumber, String value) {
@@ -90,24 +97,4 @@ public class MemberUsageScanner extends AbstractScanner {
             put(store, key, value + " #" + lineNumber);
         }
     }
-
-    String parameterNames(MethodInfo info) {
-        return join(getMetadataAdapter().getParameterNames(info), ", ");
-    }
-
-    private ClassPool getClassPool() {
-        if (classPool == null) {
-            synchronized (this) {
-                classPool = new ClassPool();
-                ClassLoader[] classLoaders = getConfiguration().getClassLoaders();
-                if (classLoaders == null) {
-                    classLoaders = ClasspathHelper.classLoaders();
-                }
-                for (ClassLoader classLoader : classLoaders) {
-                    classPool.appendClassPath(new LoaderClassPath(classLoader));
-                }
-            }
-        }
-        return classPool;
-    }
 }
@@ -1,20 +1,42 @@
 package com.phyzicsz.rocket.reflection.scanners;
 
 import com.phyzicsz.rocket.reflection.Store;
+import com.phyzicsz.rocket.reflection.adapters.MetadataLevel;
 
 import java.util.List;
 
 @SuppressWarnings({"unchecked"})
-/** scans for method's annotations */
-public class MethodAnnotationsScanner extends AbstractScanner {
+/**
+ * scans for method's annotations, and their member values in
+ * {@link #VALUES_INDEX} when the metadata adapter reads them
+ */
+public class MethodAnnotationsScanner extends AbstractScanner implements ClassVisitor {
+
+    /**
+     * the index of annotation member values to the keys of the methods
+     * annotated with them
+     */
+    public static final String VALUES_INDEX = "MethodAnnotationValues";
+
+    @Override
+    public MetadataLevel getMetadataLevel() {
+        return MetadataLevel.ANNOTATIONS;
+    }
+
     @Override
     public void scan(final Object cls, Store store) {
-        for (Object method : getMetadataAdapter().getMethods(cls)) {
-            for (String methodAnnotation : (List<String>) getMetadataAdapter().getMethodAnnotationNames(method)) {
-                if (acceptResult(methodAnnotation)) {
-                    put(store, methodAnnotation, getMetadataAdapter().getMethodFullKey(cls, method));
-                }
+        new ScanContext(getMetadataAdapter(), cls).accept(this, store);
+    }
+
+    @Override
+    public void visitMethod(ScanContext context, Object method, Store store) {
+        for (String methodAnnotation : (List<String>) getMetadataAdapter().getMethodAnnotationNames(method)) {
+            if (acceptResult(methodAnnotation)) {
+                put(store, methodAnnotation, context.getMethodFullKey(method));
             }
         }
+        if (isIndexMemberValues()) {
+            putAnnotationValues(store, VALUES_INDEX, getMetadataAdapter().getMethodAnnotationValues(method), context.getMethodFullKey(method));
+        }
     }
 }
@@ -1,7 +1,7 @@
 package com.phyzicsz.rocket.reflection.scanners;
 
 import com.phyzicsz.rocket.reflection.Store;
-import com.phyzicsz.rocket.reflection.adapters.MetadataAdapter;
+import com.phyzicsz.rocket.reflection.adapters.MetadataLevel;
 import java.lang.reflect.Modifier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -11,28 +11,33 @@ import javassist.bytecode.MethodInfo;
 
 /** scans methods/constructors and indexes parameter names */
 @SuppressWarnings("unchecked")
-public class MethodParameterNamesScanner extends AbstractScanner {
+public class MethodParameterNamesScanner extends AbstractScanner implements ClassVisitor {
+
+    @Override
+    public MetadataLevel getMetadataLevel() {
+        return MetadataLevel.CODE;
+    }
 
-    @SuppressWarnings({"rawtypes"})
     @Override
     public void scan(Object cls, Store store) {
-        final MetadataAdapter md = getMetadataAdapter();
+        new ScanContext(getMetadataAdapter(), cls).accept(this, store);
+    }
 
-        for (Object method : md.getMethods(cls)) {
-            String key = md.getMethodFullKey(cls, method);
-            if (acceptResult(key)) {
-                CodeAttribute codeAttribute = ((MethodInfo) method).getCodeAttribute();
-                LocalVariableAttribute table = codeAttribute != null ? (LocalVariableAttribute) codeAttribute.getAttribute(LocalVariableAttribute.tag) : null;
-                int length = md.getParameterNames(method).size();
-                if (length > 0) {
-                    int shift = Modifier.isStatic(((MethodInfo) method).getAccessFlags()) ? 0 : 1; //skip this
-                    String join = IntStream.range(shift, length + shift)
-                            .mapToObj(i -> ((MethodInfo) method).getConstPool().getUtf8Info(table.nameIndex(i)))
-                            .filter(name -> !name.startsWith("this$"))
-                            .collect(Collectors.joining(", "));
-                    if (!join.isEmpty()) {
-                        put(store, key, join);
-                    }
+    @Override
+    public void visitMethod(ScanContext context, Object method, Store store) {
+        String key = context.getMethodFullKey(method);
+        if (acceptResult(key)) {
+            CodeAttribute codeAttribute = ((MethodInfo) method).getCodeAttribute();
+            LocalVariableAttribute table = codeAttribute != null ? (LocalVariableAttribute) codeAttribute.getAttribute(LocalVariableAttribute.tag) : null;
+            int length = context.getParameterNames(method).size();
+            if (length > 0) {
+                int shift = Modifier.isStatic(((MethodInfo) method).getAccessFlags()) ? 0 : 1; //skip this
+                String join = IntStream.range(shift, length + shift)
+                        .mapToObj(i -> ((MethodInfo) method).getConstPool().getUtf8Info(table.nameIndex(i)))
+                        .filter(name -> !name.startsWith("this$"))
+                        .collect(Collectors.joining(", "));
+                if (!join.isEmpty()) {
+                    put(store, key, join);
                 }
             }
         }
@@ -1,36 +1,44 @@
 package com.phyzicsz.rocket.reflection.scanners;
 
 import com.phyzicsz.rocket.reflection.Store;
+import com.phyzicsz.rocket.reflection.adapters.MetadataLevel;
 import com.phyzicsz.rocket.reflection.adapters.MetadataAdapter;
 import java.util.List;
 
 /** scans methods/constructors and indexes parameters, return type and parameter annotations */
 @SuppressWarnings("unchecked")
-public class MethodParameterScanner extends AbstractScanner {
+public class MethodParameterScanner extends AbstractScanner implements ClassVisitor {
+
+    @Override
+    public MetadataLevel getMetadataLevel() {
+        return MetadataLevel.ANNOTATIONS;
+    }
 
-    @SuppressWarnings({"rawtypes"})
     @Override
     public void scan(Object cls, Store store) {
-        final MetadataAdapter md = getMetadataAdapter();
+        new ScanContext(getMetadataAdapter(), cls).accept(this, store);
+    }
 
-        for (Object method : md.getMethods(cls)) {
+    @SuppressWarnings({"rawtypes"})
+    @Override
+    public void visitMethod(ScanContext context, Object method, Store store) {
+        final MetadataAdapter md = getMetadataAdapter();
 
-            String signature = md.getParameterNames(method).toString();
-            if (acceptResult(signature)) {
-                put(store, signature, md.getMethodFullKey(cls, method));
-            }
+        List<String> parameterNames = context.getParameterNames(method);
+        String signature = parameterNames.toString();
+        if (acceptResult(signature)) {
+            put(store, signature, context.getMethodFullKey(method));
+        }
 
-            String returnTypeName = md.getReturnTypeName(method);
-            if (acceptResult(returnTypeName)) {
-                put(store, returnTypeName, md.getMethodFullKey(cls, method));
-            }
+        String returnTypeName = context.getReturnTypeName(method);
+        if (acceptResult(returnTypeName)) {
+            put(store, returnTypeName, context.getMethodFullKey(method));
+        }
 
-            List<String> parameterNames = md.getParameterNames(method);
-            for (int i = 0; i < parameterNames.size(); i++) {
-                for (Object paramAnnotation : md.getParameterAnnotationNames(method, i)) {
-                    if (acceptResult((String) paramAnnotation)) {
-                        put(store, (String) paramAnnotation, md.getMethodFullKey(cls, method));
-                    }
+        for (int i = 0; i < parameterNames.size(); i++) {
+            for (Object paramAnnotation : md.getParameterAnnotationNames(method, i)) {
+                if (acceptResult((String) paramAnnotation)) {
+                    put(store, (String) paramAnnotation, context.getMethodFullKey(method));
                 }
             }
         }
@@ -1,6 +1,7 @@
 package com.phyzicsz.rocket.reflection.scanners;
 
 import com.phyzicsz.rocket.reflection.Store;
+import com.phyzicsz.rocket.reflection.adapters.MetadataLevel;
 import com.phyzicsz.rocket.reflection.vfs.Vfs;
 
 /** collects all resources that are not classes in a collection
@@ -11,6 +12,11 @@ public class ResourcesScanner extends AbstractScanner {
         return !file.endsWith(".class") && !file.endsWith(".groovy") && !file.endsWith(".scala") && !file.endsWith(".kt"); //not a class
     }
 
+    @Override
+    public MetadataLevel getMetadataLevel() {
+        return MetadataLevel.HEADER; //never parses class files
+    }
+
     @Override public Object scan(Vfs.File file, Object classObject, Store store) {
         put(store, file.getName(), file.getRelativePath());
         return classObject;
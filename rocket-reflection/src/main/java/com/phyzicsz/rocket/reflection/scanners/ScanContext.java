@@ -0,0 +1,201 @@
+package com.phyzicsz.rocket.reflection.scanners;
+
+import com.phyzicsz.rocket.reflection.Store;
+import com.phyzicsz.rocket.reflection.adapters.MetadataAdapter;
+import com.phyzicsz.rocket.reflection.adapters.MetadataLevel;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * the class being walked by {@link ClassVisitor}s, caching the values derived
+ * from it, so that each is computed once however many scanners use it.
+ * <p>
+ * method values are cached for the method being visited, so they should be
+ * asked for from within {@link ClassVisitor#visitMethod}.
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+public final class ScanContext {
+
+    private final MetadataAdapter adapter;
+    private final Object cls;
+    private String className;
+    private List<Object> fields;
+    private List<Object> methods;
+
+    private Object method;
+    private List<String> parameterNames;
+    private String returnTypeName;
+    private String methodFullKey;
+
+    public ScanContext(MetadataAdapter<?, ?, ?> adapter, Object cls) {
+        this.adapter = adapter;
+        this.cls = cls;
+    }
+
+    public MetadataAdapter<?, ?, ?> getMetadataAdapter() {
+        return adapter;
+    }
+
+    public Object getClassObject() {
+        return cls;
+    }
+
+    public String getClassName() {
+        if (className == null) {
+            className = adapter.getClassName(cls);
+        }
+        return className;
+    }
+
+    public List<Object> getFields() {
+        if (fields == null) {
+            fields = adapter.getFields(cls);
+        }
+        return fields;
+    }
+
+    public List<Object> getMethods() {
+        if (methods == null) {
+            methods = adapter.getMethods(cls);
+        }
+        return methods;
+    }
+
+    public List<String> getParameterNames(Object method) {
+        select(method);
+        if (parameterNames == null) {
+            parameterNames = adapter.getParameterNames(method);
+        }
+        return parameterNames;
+    }
+
+    public String getReturnTypeName(Object method) {
+        select(method);
+        if (returnTypeName == null) {
+            returnTypeName = adapter.getReturnTypeName(method);
+        }
+        return returnTypeName;
+    }
+
+    public String getMethodFullKey(Object method) {
+        select(method);
+        if (methodFullKey == null) {
+            methodFullKey = adapter.getMethodFullKey(cls, method);
+        }
+        return methodFullKey;
+    }
+
+    private void select(Object method) {
+        if (this.method != method) {
+            this.method = method;
+            parameterNames = null;
+            returnTypeName = null;
+            methodFullKey = null;
+        }
+    }
+
+    /**
+     * walks the class once, calling the visitors in order for the class, each
+     * field, each method and the end of the class. a visitor throwing an
+     * exception is not called again for this class, while the others go on.
+     * fields or methods that can't be read are not visited, and the exception
+     * is returned for each visitor of members, as it did not see the whole
+     * class.
+     *
+     * @param visitors the visitors
+     * @param store the store the visitors put their results in
+     * @return the exceptions thrown, by visitor
+     */
+    public Map<ClassVisitor, RuntimeException> accept(List<? extends ClassVisitor> visitors, Store store) {
+        int size = visitors.size();
+        RuntimeException[] failures = new RuntimeException[size];
+        boolean[] members = new boolean[size];
+        boolean anyMembers = false;
+        RuntimeException membersFailure = null;
+
+        for (int i = 0; i < size; i++) {
+            ClassVisitor visitor = visitors.get(i);
+            members[i] = visitor.getMetadataLevel().includes(MetadataLevel.MEMBERS);
+            anyMembers |= members[i];
+            try {
+                visitor.visitClass(this, store);
+            } catch (RuntimeException e) {
+                failures[i] = e;
+            }
+        }
+
+        if (anyMembers) {
+            List<Object> fields;
+            try {
+                fields = getFields();
+            } catch (RuntimeException e) {
+                membersFailure = e;
+                fields = Collections.emptyList();
+            }
+            for (Object field : fields) {
+                for (int i = 0; i < size; i++) {
+                    if (members[i] && failures[i] == null) {
+                        try {
+                            visitors.get(i).visitField(this, field, store);
+                        } catch (RuntimeException e) {
+                            failures[i] = e;
+                        }
+                    }
+                }
+            }
+            List<Object> methods;
+            try {
+                methods = getMethods();
+            } catch (RuntimeException e) {
+                membersFailure = e;
+                methods = Collections.emptyList();
+            }
+            for (Object method : methods) {
+                for (int i = 0; i < size; i++) {
+                    if (members[i] && failures[i] == null) {
+                        try {
+                            visitors.get(i).visitMethod(this, method, store);
+                        } catch (RuntimeException e) {
+                            failures[i] = e;
+                        }
+                    }
+                }
+            }
+        }
+
+        Map<ClassVisitor, RuntimeException> result = null;
+        for (int i = 0; i < size; i++) {
+            if (failures[i] == null) {
+                try {
+                    visitors.get(i).visitEnd(this, store);
+                } catch (RuntimeException e) {
+                    failures[i] = e;
+                }
+            }
+            if (failures[i] == null && members[i]) {
+                failures[i] = membersFailure;
+            }
+            if (failures[i] != null) {
+                if (result == null) {
+                    result = new LinkedHashMap<>();
+                }
+                result.put(visitors.get(i), failures[i]);
+            }
+        }
+        return result != null ? result : Collections.emptyMap();
+    }
+
+    /**
+     * walks the class with a single visitor
+     *
+     * @param visitor the visitor
+     * @param store the store the visitor puts its results in
+     */
+    public void accept(ClassVisitor visitor, Store store) {
+        for (RuntimeException e : accept(Collections.singletonList(visitor), store).values()) {
+            throw e;
+        }
+    }
+}
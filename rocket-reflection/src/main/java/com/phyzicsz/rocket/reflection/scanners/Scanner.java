@@ -2,6 +2,7 @@ package com.phyzicsz.rocket.reflection.scanners;
 
 import com.phyzicsz.rocket.reflection.Configuration;
 import com.phyzicsz.rocket.reflection.Store;
+import com.phyzicsz.rocket.reflection.adapters.MetadataLevel;
 import com.phyzicsz.rocket.reflection.vfs.Vfs;
 import java.util.function.Predicate;
 
@@ -20,4 +21,15 @@ public interface Scanner {
     Object scan(Vfs.File file, Object classObject, Store store);
 
     boolean acceptResult(String fqn);
+
+    /**
+     * how much of each class file this scanner reads. defaults to
+     * {@link MetadataLevel#CODE}, so a scanner that does not declare its level
+     * gets the whole class file.
+     *
+     * @return the metadata level required by this scanner
+     */
+    default MetadataLevel getMetadataLevel() {
+        return MetadataLevel.CODE;
+    }
 }
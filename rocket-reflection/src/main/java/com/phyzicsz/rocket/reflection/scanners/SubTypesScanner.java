@@ -3,6 +3,7 @@
 package com.phyzicsz.rocket.reflection.scanners;
 
 import com.phyzicsz.rocket.reflection.Store;
+import com.phyzicsz.rocket.reflection.adapters.MetadataLevel;
 import com.phyzicsz.rocket.reflection.util.FilterBuilder;
 
 import java.util.List;
@@ -10,8 +11,21 @@ import java.util.List;
 /**
  * scans for superclass and interfaces of a class, allowing a reverse lookup for
  * subtypes
+ * <p>
+ * the direct super types of each class are also kept, in the
+ * {@link #SUPERTYPES_INDEX} index, so that super types can be queried without
+ * loading classes, unless turned off with {@link #setIndexSuperTypes(boolean)}.
+ * both indices hold the super types accepted by the results filter.
  */
-public class SubTypesScanner extends AbstractScanner {
+public class SubTypesScanner extends AbstractScanner implements ClassVisitor {
+
+    /**
+     * the index of class names to the names of their direct superclass and
+     * interfaces
+     */
+    public static final String SUPERTYPES_INDEX = "SuperTypes";
+
+    private boolean indexSuperTypes = true;
 
     /**
      * created new SubTypesScanner. will exclude direct Object subtypes
@@ -32,19 +46,51 @@ public class SubTypesScanner extends AbstractScanner {
         }
     }
 
-    @SuppressWarnings({"unchecked"})
+    /**
+     * whether the direct super types are kept in {@link #SUPERTYPES_INDEX},
+     * true by default. super type queries then look them up in the sub types
+     * index.
+     *
+     * @return true if super types are indexed
+     */
+    public boolean isIndexSuperTypes() {
+        return indexSuperTypes;
+    }
+
+    public void setIndexSuperTypes(boolean indexSuperTypes) {
+        this.indexSuperTypes = indexSuperTypes;
+    }
+
+    @Override
+    public MetadataLevel getMetadataLevel() {
+        return MetadataLevel.HEADER;
+    }
+
     @Override
     public void scan(final Object cls, Store store) {
-        String className = getMetadataAdapter().getClassName(cls);
+        new ScanContext(getMetadataAdapter(), cls).accept(this, store);
+    }
+
+    @SuppressWarnings({"unchecked"})
+    @Override
+    public void visitClass(ScanContext context, Store store) {
+        Object cls = context.getClassObject();
+        String className = context.getClassName();
         String superclass = getMetadataAdapter().getSuperclassName(cls);
 
         if (acceptResult(superclass)) {
             put(store, superclass, className);
+            if (indexSuperTypes) {
+                store.put(SUPERTYPES_INDEX, className, superclass);
+            }
         }
 
         for (String anInterface : (List<String>) getMetadataAdapter().getInterfacesNames(cls)) {
             if (acceptResult(anInterface)) {
                 put(store, anInterface, className);
+                if (indexSuperTypes) {
+                    store.put(SUPERTYPES_INDEX, className, anInterface);
+                }
             }
         }
     }
@@ -1,24 +1,52 @@
 package com.phyzicsz.rocket.reflection.scanners;
 
 import com.phyzicsz.rocket.reflection.Store;
+import com.phyzicsz.rocket.reflection.adapters.MetadataLevel;
 
 import java.lang.annotation.Inherited;
 import java.util.List;
 
-/** scans for class's annotations, where @Retention(RetentionPolicy.RUNTIME) */
+/**
+ * scans for class's annotations, where @Retention(RetentionPolicy.RUNTIME)
+ * <p>
+ * when the metadata adapter reads annotation member values, they are also
+ * kept in the {@link #VALUES_INDEX} index, so that annotations can be matched
+ * by value without loading classes, unless turned off with
+ * {@link #setIndexMemberValues(boolean)}.
+ */
 @SuppressWarnings({"unchecked"})
-public class TypeAnnotationsScanner extends AbstractScanner {
+public class TypeAnnotationsScanner extends AbstractScanner implements ClassVisitor {
+
+    /**
+     * the index of annotation member values to the names of the classes
+     * annotated with them
+     */
+    public static final String VALUES_INDEX = "TypeAnnotationValues";
+
+    @Override
+    public MetadataLevel getMetadataLevel() {
+        return MetadataLevel.ANNOTATIONS;
+    }
+
     @Override
     public void scan(final Object cls, Store store) {
-		final String className = getMetadataAdapter().getClassName(cls);
+        new ScanContext(getMetadataAdapter(), cls).accept(this, store);
+    }
+
+    @Override
+    public void visitClass(ScanContext context, Store store) {
+        final String className = context.getClassName();
 
-        for (String annotationType : (List<String>) getMetadataAdapter().getClassAnnotationNames(cls)) {
+        for (String annotationType : (List<String>) getMetadataAdapter().getClassAnnotationNames(context.getClassObject())) {
 
             if (acceptResult(annotationType) ||
                 annotationType.equals(Inherited.class.getName())) { //as an exception, accept Inherited as well
                 put(store, annotationType, className);
             }
         }
+        if (isIndexMemberValues()) {
+            putAnnotationValues(store, VALUES_INDEX, getMetadataAdapter().getClassAnnotationValues(context.getClassObject()), className);
+        }
     }
 
 }
@@ -1,43 +1,59 @@
 package com.phyzicsz.rocket.reflection.scanners;
 
 import com.phyzicsz.rocket.reflection.Store;
+import com.phyzicsz.rocket.reflection.adapters.MetadataLevel;
 import static com.phyzicsz.rocket.reflection.util.Utils.join;
 
 /** scans fields and methods and stores fqn as key and elements as values */
 @SuppressWarnings({"unchecked"})
-public class TypeElementsScanner extends AbstractScanner {
+public class TypeElementsScanner extends AbstractScanner implements ClassVisitor {
     private boolean includeFields = true;
     private boolean includeMethods = true;
     private boolean includeAnnotations = true;
     private boolean publicOnly = true;
 
+    @Override
+    public MetadataLevel getMetadataLevel() {
+        return includeAnnotations ? MetadataLevel.ANNOTATIONS : MetadataLevel.MEMBERS;
+    }
+
     @Override
     public void scan(Object cls, Store store) {
-        String className = getMetadataAdapter().getClassName(cls);
+        new ScanContext(getMetadataAdapter(), cls).accept(this, store);
+    }
+
+    @Override
+    public void visitClass(ScanContext context, Store store) {
+        String className = context.getClassName();
         if (!acceptResult(className)) return;
 
         put(store, className, "");
+    }
 
-        if (includeFields) {
-            for (Object field : getMetadataAdapter().getFields(cls)) {
-                String fieldName = getMetadataAdapter().getFieldName(field);
-                put(store, className, fieldName);
-            }
+    @Override
+    public void visitField(ScanContext context, Object field, Store store) {
+        if (includeFields && acceptResult(context.getClassName())) {
+            String fieldName = getMetadataAdapter().getFieldName(field);
+            put(store, context.getClassName(), fieldName);
         }
+    }
 
-        if (includeMethods) {
-            for (Object method : getMetadataAdapter().getMethods(cls)) {
-                if (!publicOnly || getMetadataAdapter().isPublic(method)) {
-                    String methodKey = getMetadataAdapter().getMethodName(method) + "(" +
-                            join(getMetadataAdapter().getParameterNames(method), ", ") + ")";
-                    put(store, className, methodKey);
-                }
+    @Override
+    public void visitMethod(ScanContext context, Object method, Store store) {
+        if (includeMethods && acceptResult(context.getClassName())) {
+            if (!publicOnly || getMetadataAdapter().isPublic(method)) {
+                String methodKey = getMetadataAdapter().getMethodName(method) + "(" +
+                        join(context.getParameterNames(method), ", ") + ")";
+                put(store, context.getClassName(), methodKey);
             }
         }
+    }
 
-        if (includeAnnotations) {
-            for (Object annotation : getMetadataAdapter().getClassAnnotationNames(cls)) {
-                put(store, className, "@" + annotation);
+    @Override
+    public void visitEnd(ScanContext context, Store store) {
+        if (includeAnnotations && acceptResult(context.getClassName())) {
+            for (Object annotation : getMetadataAdapter().getClassAnnotationNames(context.getClassObject())) {
+                put(store, context.getClassName(), "@" + annotation);
             }
         }
     }
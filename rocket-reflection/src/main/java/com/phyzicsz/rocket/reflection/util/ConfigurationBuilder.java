@@ -1,22 +1,38 @@
 package com.phyzicsz.rocket.reflection.util;
 
 import com.phyzicsz.rocket.reflection.Configuration;
+import com.phyzicsz.rocket.reflection.ScanPipeline;
+import com.phyzicsz.rocket.reflection.Store;
+import com.phyzicsz.rocket.reflection.SnapshotStore;
+import com.phyzicsz.rocket.reflection.SymbolStore;
 import com.phyzicsz.rocket.reflection.exception.ReflectionException;
+import com.phyzicsz.rocket.reflection.adapters.ConstantPoolFilter;
 import com.phyzicsz.rocket.reflection.adapters.JavassistAdapter;
 import com.phyzicsz.rocket.reflection.adapters.MetadataAdapter;
+import com.phyzicsz.rocket.reflection.adapters.MetadataLevel;
+import com.phyzicsz.rocket.reflection.scanners.AbstractScanner;
+import com.phyzicsz.rocket.reflection.scanners.FieldAnnotationsScanner;
+import com.phyzicsz.rocket.reflection.scanners.MethodAnnotationsScanner;
+import com.phyzicsz.rocket.reflection.scanners.ResourcesScanner;
 import com.phyzicsz.rocket.reflection.scanners.Scanner;
 import com.phyzicsz.rocket.reflection.scanners.SubTypesScanner;
 import com.phyzicsz.rocket.reflection.scanners.TypeAnnotationsScanner;
+import java.lang.annotation.Inherited;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 import org.slf4j.Logger;
@@ -34,8 +50,16 @@ public class ConfigurationBuilder implements Configuration {
     protected MetadataAdapter<?, ?, ?> metadataAdapter;
     private Predicate<String> inputsFilter;
     private ExecutorService executorService;
+    private ScanPipeline scanPipeline;
+    private ConstantPoolFilter constantPoolFilter;
+    private boolean prefilter;
     private ClassLoader[] classLoaders;
     private boolean expandSuperTypes = true;
+    private boolean fuseScanners;
+    private Function<Configuration, Store> storeFactory;
+    private boolean freezeStore;
+    private boolean shardStore;
+    private String queryCacheSpec;
 
     public ConfigurationBuilder() {
         scanners = new ArrayList<>(Arrays.asList(new TypeAnnotationsScanner(), new SubTypesScanner()));
@@ -279,6 +303,15 @@ public class ConfigurationBuilder implements Configuration {
         return this;
     }
 
+    @Override
+    public MetadataLevel getMetadataLevel() {
+        MetadataLevel level = MetadataLevel.HEADER;
+        for (Scanner scanner : scanners) {
+            level = MetadataLevel.max(level, scanner.getMetadataLevel());
+        }
+        return level;
+    }
+
     @Override
     public Predicate<String> getInputsFilter() {
         return inputsFilter;
@@ -361,6 +394,149 @@ public class ConfigurationBuilder implements Configuration {
         return this;
     }
 
+    /**
+     * sets the executor service used for scanning to one starting a virtual
+     * thread per url, where each file of a jar or directory is then scanned in
+     * its own virtual thread as well.
+     * <p>
+     * virtual threads require java 21. on older jvms this is the same as
+     * {@link #useParallelExecutor()}.
+     *
+     * @return ConfigurationBuilder
+     */
+    public ConfigurationBuilder useVirtualThreadExecutor() {
+        if (VirtualThreads.isSupported()) {
+            return setExecutorService(VirtualThreads.newExecutor("scanner-"));
+        }
+        return useParallelExecutor();
+    }
+
+    /**
+     * sets the executor service used for scanning to a work-stealing
+     * {@link ForkJoinPool} with parallelism as availableProcessors()
+     */
+    public ConfigurationBuilder useForkJoinExecutor() {
+        return useForkJoinExecutor(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * sets the executor service used for scanning to a work-stealing
+     * {@link ForkJoinPool} with the given parallelism.
+     * <p>
+     * besides scanning urls in parallel, the entries of a single jar or
+     * directory are split into ranges that are distributed over the pool, so
+     * that scanning one huge jar still uses all workers.
+     *
+     * @param parallelism the number of worker threads
+     * @return ConfigurationBuilder
+     */
+    public ConfigurationBuilder useForkJoinExecutor(final int parallelism) {
+        ForkJoinPool.ForkJoinWorkerThreadFactory threadFactory = pool -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            t.setName("scanner-" + t.getPoolIndex());
+            t.setDaemon(true);
+            return t;
+        };
+        setExecutorService(new ForkJoinPool(parallelism, threadFactory, null, false));
+        return this;
+    }
+
+    @Override
+    public ScanPipeline getScanPipeline() {
+        return scanPipeline;
+    }
+
+    /**
+     * sets the staged pipeline used for scanning, which takes precedence over
+     * the executor service. an executor service set as well is shut down
+     * without being used.
+     *
+     * @param scanPipeline the scan pipeline, or null to scan without it
+     * @return ConfigurationBuilder
+     */
+    public ConfigurationBuilder setScanPipeline(ScanPipeline scanPipeline) {
+        this.scanPipeline = scanPipeline;
+        return this;
+    }
+
+    /**
+     * scan using a {@link ScanPipeline} with the default number of threads per
+     * stage, so that reading files overlaps with parsing and indexing them
+     */
+    public ConfigurationBuilder usePipelinedScan() {
+        return setScanPipeline(new ScanPipeline());
+    }
+
+    /**
+     * the constant pool filter set with
+     * {@link #setConstantPoolFilter(ConstantPoolFilter)}, or, after
+     * {@link #usePrefilter()}, the one derived from the scanners
+     */
+    @Override
+    public ConstantPoolFilter getConstantPoolFilter() {
+        if (constantPoolFilter != null) {
+            return constantPoolFilter;
+        }
+        return prefilter ? deriveConstantPoolFilter() : null;
+    }
+
+    /**
+     * sets the filter class files are tested with before being parsed. class
+     * files it rejects are not scanned at all, so it should accept every class
+     * the scanners are expected to find.
+     *
+     * @param constantPoolFilter the filter, or null to parse every class file
+     * @return ConfigurationBuilder
+     */
+    public ConfigurationBuilder setConstantPoolFilter(ConstantPoolFilter constantPoolFilter) {
+        this.constantPoolFilter = constantPoolFilter;
+        return this;
+    }
+
+    /**
+     * skip class files whose constant pool does not refer to the types the
+     * scanners look for, without parsing them.
+     * <p>
+     * the filter is derived from the result filters of the scanners, when all
+     * class scanners are {@link SubTypesScanner}, {@link TypeAnnotationsScanner},
+     * {@link MethodAnnotationsScanner} or {@link FieldAnnotationsScanner}
+     * filtered by a {@link FilterBuilder} including plain type names or
+     * prefixes. otherwise every class file is parsed, as without a prefilter.
+     */
+    public ConfigurationBuilder usePrefilter() {
+        prefilter = true;
+        return this;
+    }
+
+    /**
+     * the keys these scanners store are the types a class extends or is
+     * annotated with, so a class can only produce a result accepted by a
+     * result filter if its constant pool refers to a matching type
+     */
+    private ConstantPoolFilter deriveConstantPoolFilter() {
+        Set<String> literals = new LinkedHashSet<>();
+        for (Scanner scanner : scanners) {
+            Class<?> type = scanner.getClass();
+            if (type == ResourcesScanner.class) {
+                continue;
+            }
+            if (type != SubTypesScanner.class && type != TypeAnnotationsScanner.class
+                    && type != MethodAnnotationsScanner.class && type != FieldAnnotationsScanner.class) {
+                return null;
+            }
+            Predicate<String> resultFilter = ((AbstractScanner) scanner).getResultFilter();
+            List<String> included = resultFilter instanceof FilterBuilder ? ((FilterBuilder) resultFilter).getIncludedLiterals() : null;
+            if (included == null) {
+                return null;
+            }
+            literals.addAll(included);
+            if (type == TypeAnnotationsScanner.class) {
+                literals.add(Inherited.class.getName()); //always accepted by TypeAnnotationsScanner
+            }
+        }
+        return literals.isEmpty() ? null : new ConstantPoolFilter(literals);
+    }
+
     /**
      * get class loader, might be used for scanning or resolving methods/fields
      */
@@ -382,6 +558,107 @@ public class ConfigurationBuilder implements Configuration {
         return this;
     }
 
+    @Override
+    public boolean shouldFuseScanners() {
+        return fuseScanners;
+    }
+
+    /**
+     * if set to true, the scanners visit each class in a single pass over its
+     * fields and methods, sharing the values derived from it, such as method
+     * keys. scanners that are not
+     * {@link com.phyzicsz.rocket.reflection.scanners.ClassVisitor}s still
+     * scan on their own. each scanner is asked once whether it accepts a
+     * file, given its relative path, not again given its dotted name.
+     */
+    public ConfigurationBuilder setFuseScanners(boolean fuseScanners) {
+        this.fuseScanners = fuseScanners;
+        return this;
+    }
+
+    @Override
+    public Function<Configuration, Store> getStoreFactory() {
+        return storeFactory;
+    }
+
+    /**
+     * sets the factory the store is created with, such as
+     * {@code SymbolStore::new}
+     */
+    public ConfigurationBuilder setStoreFactory(Function<Configuration, Store> storeFactory) {
+        this.storeFactory = storeFactory;
+        return this;
+    }
+
+    /**
+     * keeps the metadata in a {@link SymbolStore}, which stores each distinct
+     * class name and member key once, for large classpaths
+     */
+    public ConfigurationBuilder useSymbolStore() {
+        return setStoreFactory(SymbolStore::new);
+    }
+
+    /**
+     * keeps the metadata in a {@link SnapshotStore}, whose readers see the
+     * urls scanned so far while the scan is running. with
+     * {@link #setShardStore(boolean)}, they see nothing until the scan is
+     * done.
+     */
+    public ConfigurationBuilder useSnapshotStore() {
+        return setStoreFactory(SnapshotStore::new);
+    }
+
+    @Override
+    public boolean shouldFreezeStore() {
+        return freezeStore;
+    }
+
+    /**
+     * if set to true, the store is compacted into an immutable
+     * {@link com.phyzicsz.rocket.reflection.FrozenStore} after scanning, for
+     * smaller and lock free queries. nothing can be put in the store
+     * afterwards.
+     */
+    public ConfigurationBuilder setFreezeStore(boolean freezeStore) {
+        this.freezeStore = freezeStore;
+        return this;
+    }
+
+    @Override
+    public boolean shouldShardStore() {
+        return shardStore;
+    }
+
+    /**
+     * if set to true, each scanning thread puts its results in an
+     * unsynchronized store of its own, and these are merged into the store
+     * in parallel, index by index, once scanning is done. this removes the
+     * contention on the store when scanning with an executor service or a
+     * pipeline.
+     */
+    public ConfigurationBuilder setShardStore(boolean shardStore) {
+        this.shardStore = shardStore;
+        return this;
+    }
+
+    @Override
+    public String getQueryCacheSpec() {
+        return queryCacheSpec;
+    }
+
+    /**
+     * caches the results of the queries of
+     * {@link com.phyzicsz.rocket.reflection.RocketReflection} repeated with
+     * the same arguments, until the store changes. the cache is specified as
+     * a {@link com.google.common.cache.CacheBuilderSpec}, such as
+     * {@code maximumSize=1000} or {@code maximumWeight=100000}, where the
+     * weight of a result is the number of elements in it.
+     */
+    public ConfigurationBuilder setQueryCache(String queryCacheSpec) {
+        this.queryCacheSpec = queryCacheSpec;
+        return this;
+    }
+
     /**
      * set class loader, might be used for resolving methods/fields
      */
@@ -90,6 +90,34 @@ public class FilterBuilder implements Predicate<String> {
         return Utils.join(chain, ", ");
     }
 
+    /**
+     * the literals that strings accepted by this filter must contain: for each
+     * include filter, the longest part of its regular expression that is
+     * plain text. exclude filters only narrow the result, and are ignored.
+     *
+     * @return one literal per include filter, or null if the filter accepts
+     * strings that may contain none of them, such as when it starts with an
+     * exclude filter or an include filter is not a simple expression
+     */
+    public List<String> getIncludedLiterals() {
+        if (chain.isEmpty() || !(chain.get(0) instanceof Include)) {
+            return null;
+        }
+        List<String> literals = new ArrayList<>();
+        for (Predicate<String> filter : chain) {
+            if (filter instanceof Include) {
+                String literal = ((Include) filter).longestLiteral();
+                if (literal == null) {
+                    return null;
+                }
+                literals.add(literal);
+            } else if (!(filter instanceof Exclude)) {
+                return null;
+            }
+        }
+        return literals;
+    }
+
     @Override
     public boolean test(String regex) {
         boolean accept = chain.isEmpty() || chain.get(0) instanceof Exclude;
@@ -117,6 +145,47 @@ public class FilterBuilder implements Predicate<String> {
             pattern = Pattern.compile(regex);
         }
 
+        /**
+         * the longest plain text part of the regular expression, where plain
+         * text is made of letters, digits, escaped characters and quoted
+         * sections, and parts are separated by {@code .}, {@code .*},
+         * {@code .+} or {@code .?} wildcards
+         *
+         * @return the literal, or null if the expression uses anything else
+         */
+        String longestLiteral() {
+            String regex = pattern.pattern();
+            String longest = "";
+            StringBuilder run = new StringBuilder();
+            for (int i = 0; i < regex.length(); i++) {
+                char c = regex.charAt(i);
+                if (c == '\\' && i + 1 < regex.length()) {
+                    char escaped = regex.charAt(++i);
+                    if (escaped == 'Q') {
+                        int end = regex.indexOf("\\E", i + 1);
+                        run.append(end < 0 ? regex.substring(i + 1) : regex.substring(i + 1, end));
+                        i = end < 0 ? regex.length() : end + 1;
+                    } else if (Character.isLetterOrDigit(escaped)) {
+                        return null; //a character class, such as \d
+                    } else {
+                        run.append(escaped);
+                    }
+                } else if (c == '.') {
+                    longest = run.length() > longest.length() ? run.toString() : longest;
+                    run.setLength(0);
+                    if (i + 1 < regex.length() && "*+?".indexOf(regex.charAt(i + 1)) >= 0) {
+                        i++;
+                    }
+                } else if (Character.isLetterOrDigit(c) || c == '_' || c == '-') {
+                    run.append(c);
+                } else {
+                    return null;
+                }
+            }
+            longest = run.length() > longest.length() ? run.toString() : longest;
+            return longest.isEmpty() ? null : longest;
+        }
+
         @Override
         public String toString() {
             return pattern.pattern();
@@ -449,7 +449,7 @@ public abstract class ReflectionUtils {
         if (annotation2 != null && annotation1.annotationType() == annotation2.annotationType()) {
             for (Method method : annotation1.annotationType().getDeclaredMethods()) {
                 try {
-                    if (!method.invoke(annotation1).equals(method.invoke(annotation2))) {
+                    if (!Objects.deepEquals(method.invoke(annotation1), method.invoke(annotation2))) {
                         return false;
                     }
                 } catch (Exception e) {
@@ -0,0 +1,69 @@
+package com.phyzicsz.rocket.reflection.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * virtual thread support for scanning.
+ * <p>
+ * this is the java 11 implementation, where virtual threads do not exist and
+ * everything falls back to platform threads. the java 21 implementation is
+ * packaged under META-INF/versions/21 of the multi-release jar.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * whether virtual threads can be used
+     *
+     * @return true if the running jvm supports virtual threads
+     */
+    public static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * creates an executor starting a new virtual thread for each task. where
+     * virtual threads are not supported, this is a pool of daemon platform
+     * threads, started as needed and reused.
+     *
+     * @param name the name prefix of the threads
+     * @return the executor
+     */
+    public static ExecutorService newExecutor(String name) {
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        return Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r);
+            t.setName(name + threadNumber.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * whether the given thread is virtual
+     *
+     * @param thread a thread
+     * @return true if the given thread is a virtual thread
+     */
+    public static boolean isVirtual(Thread thread) {
+        return false;
+    }
+
+    /**
+     * runs the action for each of the items, each in its own virtual thread
+     * where supported, and returns once all of them completed. the first
+     * failure cancels the remaining items and is rethrown.
+     *
+     * @param <T> the type of the items
+     * @param items the items
+     * @param action the action
+     */
+    public static <T> void forEach(Iterable<T> items, Consumer<? super T> action) {
+        items.forEach(action);
+    }
+}
@@ -0,0 +1,73 @@
+package com.phyzicsz.rocket.reflection.vfs;
+
+import com.phyzicsz.rocket.reflection.util.Utils;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * an implementation of Vfs.File holding the content of another file in
+ * memory, so it can be read once and opened any number of times afterwards
+ */
+public class BufferedFile implements Vfs.File {
+
+    private final String name;
+    private final String relativePath;
+    private final byte[] bytes;
+
+    public BufferedFile(String name, String relativePath, byte[] bytes) {
+        this.name = name;
+        this.relativePath = relativePath;
+        this.bytes = bytes;
+    }
+
+    /**
+     * reads the whole content of the given file
+     *
+     * @param file the file to read
+     * @return a buffered copy of the file
+     * @throws IOException if the file could not be read
+     */
+    public static BufferedFile read(Vfs.File file) throws IOException {
+        if (file instanceof BufferedFile) {
+            return (BufferedFile) file;
+        }
+        InputStream inputStream = null;
+        try {
+            inputStream = file.openInputStream();
+            return new BufferedFile(file.getName(), file.getRelativePath(), inputStream.readAllBytes());
+        } finally {
+            Utils.close(inputStream);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getRelativePath() {
+        return relativePath;
+    }
+
+    /**
+     * the content of the file. the array is shared, and should not be
+     * modified.
+     *
+     * @return the content of the file
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public InputStream openInputStream() {
+        return new ByteArrayInputStream(bytes);
+    }
+
+    @Override
+    public String toString() {
+        return relativePath;
+    }
+}
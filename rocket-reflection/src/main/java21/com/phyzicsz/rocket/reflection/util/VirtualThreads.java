@@ -0,0 +1,59 @@
+package com.phyzicsz.rocket.reflection.util;
+
+import com.phyzicsz.rocket.reflection.exception.ReflectionException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * virtual thread support for scanning.
+ * <p>
+ * this is the java 21 implementation, packaged under META-INF/versions/21 of
+ * the multi-release jar.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return true;
+    }
+
+    public static ExecutorService newExecutor(String name) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name, 1).factory());
+    }
+
+    public static boolean isVirtual(Thread thread) {
+        return thread.isVirtual();
+    }
+
+    public static <T> void forEach(Iterable<T> items, Consumer<? super T> action) {
+        //the scope is closed only when all its threads are done, so no task outlives this call
+        try (ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor()) {
+            //waited on as they complete, so that the first failure cancels the rest at once
+            CompletionService<Void> tasks = new ExecutorCompletionService<>(scope);
+            int count = 0;
+            for (T item : items) {
+                tasks.submit(() -> action.accept(item), null);
+                count++;
+            }
+            try {
+                for (int i = 0; i < count; i++) {
+                    tasks.take().get();
+                }
+            } catch (ExecutionException e) {
+                scope.shutdownNow();
+                throw e.getCause() instanceof RuntimeException
+                        ? (RuntimeException) e.getCause() : new ReflectionException(e.getCause());
+            } catch (InterruptedException e) {
+                scope.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new ReflectionException("interrupted while scanning", e);
+            }
+        }
+    }
+}
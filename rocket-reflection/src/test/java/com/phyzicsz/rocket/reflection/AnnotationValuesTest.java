@@ -0,0 +1,178 @@
+package com.phyzicsz.rocket.reflection;
+
+import com.phyzicsz.rocket.reflection.adapters.AnnotationValues;
+import com.phyzicsz.rocket.reflection.adapters.ClassReaderAdapter;
+import com.phyzicsz.rocket.reflection.adapters.JavassistAdapter;
+import com.phyzicsz.rocket.reflection.adapters.MetadataAdapter;
+import com.phyzicsz.rocket.reflection.scanners.FieldAnnotationsScanner;
+import com.phyzicsz.rocket.reflection.scanners.MethodAnnotationsScanner;
+import com.phyzicsz.rocket.reflection.scanners.SubTypesScanner;
+import com.phyzicsz.rocket.reflection.scanners.TypeAnnotationsScanner;
+import com.phyzicsz.rocket.reflection.util.ClasspathHelper;
+import com.phyzicsz.rocket.reflection.util.ConfigurationBuilder;
+import com.phyzicsz.rocket.reflection.util.FilterBuilder;
+import com.phyzicsz.rocket.reflection.util.ReflectionUtils;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test matching annotations by member values from the member values indices,
+ * against the annotations of the loaded elements
+ */
+public class AnnotationValuesTest {
+
+    public @Retention(RUNTIME) @interface Values {
+        int number() default 1;
+        String name() default "";
+        char letter() default 'a';
+        boolean flag() default false;
+        long big() default 1L;
+        double real() default 0.5;
+        Class<?> type() default Object.class;
+        ElementType kind() default ElementType.TYPE;
+    }
+
+    public @Retention(RUNTIME) @interface Names {
+        String[] value();
+        Class<?>[] types() default {};
+    }
+
+    public @Retention(RUNTIME) @interface Numbers {
+        int[] value();
+    }
+
+    public @Values static class V1 {}
+    public @Values(number = 2, type = String[].class) static class V2 {}
+    public @Values(number = 1, name = "x", letter = 'b', flag = true, big = 1L << 40, real = 1.5,
+            type = int.class, kind = ElementType.FIELD) static class V3 {}
+    public @Values(name = "x") @Names(value = {"a", "b"}, types = {int[].class, List.class}) static class V4 {}
+
+    public static class V5 {
+        @Values(number = 2) public String f1;
+        @Values public String f2;
+
+        @Values public void m1() {}
+        @Values(name = "x") public void m2() {}
+        @Values(name = "x", number = 3) public void m3() {}
+    }
+
+    //more elements than constants in the pool, read past the array count
+    public @Numbers({
+            0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24, 25, 26,
+            27, 28, 29, 30, 31, 32, 33, 34, 35, 36, 37, 38, 39, 40, 41, 42, 43, 44, 45, 46, 47, 48, 49, 50,
+            51, 52, 53, 54, 55, 56, 57, 58, 59, 60, 61, 62, 63, 64, 65, 66, 67, 68, 69, 70, 71, 72, 73, 74,
+            75, 76, 77, 78, 79}) static class V6 {}
+
+    private static final List<Class<?>> TYPES = Arrays.asList(V1.class, V2.class, V3.class, V4.class);
+
+    private static RocketReflection scan(MetadataAdapter<?, ?, ?> adapter) {
+        return new RocketReflection(configuration(adapter).setScanners(new SubTypesScanner(false), new TypeAnnotationsScanner(),
+                new FieldAnnotationsScanner(), new MethodAnnotationsScanner()));
+    }
+
+    private static ConfigurationBuilder configuration(MetadataAdapter<?, ?, ?> adapter) {
+        return new ConfigurationBuilder()
+                .setUrls(Collections.singletonList(ClasspathHelper.forClass(AnnotationValuesTest.class)))
+                .filterInputsBy(new FilterBuilder().include("com.phyzicsz.rocket.reflection.AnnotationValuesTest\\$.*"))
+                .setMetadataAdapter(adapter);
+    }
+
+    @Test
+    public void testIndex() {
+        for (MetadataAdapter<?, ?, ?> adapter : Arrays.asList(new JavassistAdapter(), new ClassReaderAdapter())) {
+            Store store = scan(adapter).getStore();
+            String values = Values.class.getName();
+            assertEquals(Collections.singleton(V2.class.getName()),
+                    store.get(TypeAnnotationsScanner.VALUES_INDEX, AnnotationValues.key(values, "type", "[Ljava.lang.String;")));
+            assertEquals(Collections.singleton(V3.class.getName()),
+                    store.get(TypeAnnotationsScanner.VALUES_INDEX, AnnotationValues.key(values, "big", Long.toString(1L << 40))));
+            assertEquals(Collections.singleton(V3.class.getName()),
+                    store.get(TypeAnnotationsScanner.VALUES_INDEX, AnnotationValues.key(values, "letter", "b")));
+            assertEquals(Collections.singleton(V3.class.getName()),
+                    store.get(TypeAnnotationsScanner.VALUES_INDEX, AnnotationValues.key(values, "kind", "FIELD")));
+            assertEquals(Collections.singleton(V4.class.getName()),
+                    store.get(TypeAnnotationsScanner.VALUES_INDEX, AnnotationValues.key(Names.class.getName(), "value",
+                            AnnotationValues.encode(new String[]{"a", "b"}))));
+            assertEquals(Collections.singleton(V4.class.getName()),
+                    store.get(TypeAnnotationsScanner.VALUES_INDEX, AnnotationValues.key(Names.class.getName(), "types",
+                            AnnotationValues.encode(V4.class.getAnnotation(Names.class).types()))));
+            assertEquals(2, store.get(TypeAnnotationsScanner.VALUES_INDEX, AnnotationValues.key(values, "number")).size());
+            assertEquals(Collections.singleton(V5.class.getName() + ".f1"),
+                    store.get(FieldAnnotationsScanner.VALUES_INDEX, AnnotationValues.key(values, "number", "2")));
+        }
+    }
+
+    @Test
+    public void testQueries() throws NoSuchMethodException, NoSuchFieldException {
+        for (MetadataAdapter<?, ?, ?> adapter : Arrays.asList(new JavassistAdapter(), new ClassReaderAdapter())) {
+            RocketReflection reflections = scan(adapter);
+            for (Class<?> annotated : TYPES) {
+                Values values = annotated.getAnnotation(Values.class);
+                Set<Class<?>> expected = TYPES.stream().filter(ReflectionUtils.withAnnotation(values)).collect(Collectors.toSet());
+                assertTrue(expected.contains(annotated));
+                assertEquals(expected, reflections.getTypesAnnotatedWith(values), annotated.getName());
+            }
+            for (String name : Arrays.asList("m1", "m2", "m3")) {
+                Values values = V5.class.getMethod(name).getAnnotation(Values.class);
+                Set<Method> expected = Arrays.stream(V5.class.getDeclaredMethods())
+                        .filter(ReflectionUtils.withAnnotation(values)).collect(Collectors.toSet());
+                assertEquals(expected, reflections.getMethodsAnnotatedWith(values), name);
+            }
+            for (String name : Arrays.asList("f1", "f2")) {
+                Values values = V5.class.getField(name).getAnnotation(Values.class);
+                Set<Field> expected = Arrays.stream(V5.class.getDeclaredFields())
+                        .filter(ReflectionUtils.withAnnotation(values)).collect(Collectors.toSet());
+                assertEquals(expected, reflections.getFieldsAnnotatedWith(values), name);
+            }
+        }
+    }
+
+    @Test
+    public void testLargeArray() {
+        int[] numbers = V6.class.getAnnotation(Numbers.class).value();
+        for (MetadataAdapter<?, ?, ?> adapter : Arrays.asList(new JavassistAdapter(), new ClassReaderAdapter())) {
+            RocketReflection reflections = scan(adapter);
+            assertEquals(Collections.singleton(V6.class.getName()),
+                    reflections.getStore().get(TypeAnnotationsScanner.VALUES_INDEX, AnnotationValues.key(Numbers.class.getName(), "value",
+                            AnnotationValues.encode(numbers))));
+            assertEquals(Collections.singleton(V6.class), reflections.getTypesAnnotatedWith(V6.class.getAnnotation(Numbers.class)));
+        }
+    }
+
+    @Test
+    public void testNotIndexed() throws NoSuchMethodException {
+        SubTypesScanner subTypes = new SubTypesScanner(false);
+        subTypes.setIndexSuperTypes(false);
+        TypeAnnotationsScanner typeAnnotations = new TypeAnnotationsScanner();
+        typeAnnotations.setIndexMemberValues(false);
+        MethodAnnotationsScanner methodAnnotations = new MethodAnnotationsScanner();
+        methodAnnotations.setIndexMemberValues(false);
+        RocketReflection reflections = new RocketReflection(configuration(new ClassReaderAdapter())
+                .setScanners(subTypes, typeAnnotations, methodAnnotations));
+
+        Store store = reflections.getStore();
+        assertFalse(store.keySet().contains(SubTypesScanner.SUPERTYPES_INDEX));
+        assertFalse(store.keySet().contains(TypeAnnotationsScanner.VALUES_INDEX));
+        assertFalse(store.keySet().contains(MethodAnnotationsScanner.VALUES_INDEX));
+
+        Values values = V2.class.getAnnotation(Values.class);
+        assertEquals(Collections.singleton(V2.class), reflections.getTypesAnnotatedWith(values));
+        assertEquals(Collections.singleton(V5.class.getMethod("m2")),
+                reflections.getMethodsAnnotatedWith(V5.class.getMethod("m2").getAnnotation(Values.class)));
+        assertEquals(Collections.singleton(Object.class.getName()), reflections.getSuperTypesOf(V2.class.getName()));
+        assertEquals(Collections.singletonList(Object.class.getName()),
+                reflections.streamAllSuperTypesOf(V2.class.getName()).collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,40 @@
+package com.phyzicsz.rocket.reflection;
+
+import com.phyzicsz.rocket.reflection.adapters.Descriptors;
+import com.phyzicsz.rocket.reflection.exception.ReflectionException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test descriptor decoding
+ */
+public class DescriptorsTest {
+
+    @Test
+    public void testDecode() {
+        assertEquals(Arrays.asList("int", "java.lang.String[][]", "com.acme.Outer$Inner"),
+                Descriptors.parameterTypeNames("(I[[Ljava/lang/String;Lcom/acme/Outer$Inner;)J"));
+        assertEquals("long", Descriptors.returnTypeName("(I[[Ljava/lang/String;Lcom/acme/Outer$Inner;)J"));
+        assertEquals(Collections.emptyList(), Descriptors.parameterTypeNames("()[Z"));
+        assertEquals("boolean[]", Descriptors.returnTypeName("()[Z"));
+        assertThrows(ReflectionException.class, () -> Descriptors.parameterTypeNames("I"));
+    }
+
+    @Test
+    public void testCache() {
+        String descriptor = "(Ljava/lang/CharSequence;Ljava/util/Locale;)V";
+        List<String> first = Descriptors.parameterTypeNames(descriptor);
+        long hits = Descriptors.cacheStats().hitCount();
+
+        assertSame(first, Descriptors.parameterTypeNames(new String(descriptor.toCharArray())));
+        assertTrue(Descriptors.cacheStats().hitCount() > hits);
+        assertSame(Descriptors.parameterTypeNames("(Ljava/util/Locale;)V").get(0), first.get(1));
+        assertThrows(UnsupportedOperationException.class, () -> first.add("int"));
+    }
+}
@@ -169,4 +169,17 @@ public class FilterBuilderTest {
         assertThat(filter.test("org.foobar.Reflections")).isFalse();
     }
 
+    @Test
+    public void test_includedLiterals() {
+        assertThat(new FilterBuilder().include("com\\.phyzicsz.rocket.reflection.*").getIncludedLiterals())
+                .containsExactly("com.phyzicsz");
+        assertThat(new FilterBuilder().includePackage("com.phyzicsz.rocket").exclude("com\\.phyzicsz\\.rocket\\.foo.*").getIncludedLiterals())
+                .containsExactly("com.phyzicsz.rocket");
+        assertThat(new FilterBuilder().include("\\Qcom.foo.Outer$Inner\\E").getIncludedLiterals())
+                .containsExactly("com.foo.Outer$Inner");
+        assertThat(new FilterBuilder().exclude("com\\.foo.*").getIncludedLiterals()).isNull();
+        assertThat(new FilterBuilder().include("com\\.foo\\.[A-Z].*").getIncludedLiterals()).isNull();
+        assertThat(new FilterBuilder().include(".*").getIncludedLiterals()).isNull();
+    }
+
 }
@@ -1,6 +1,7 @@
 package com.phyzicsz.rocket.reflection;
 
 import com.phyzicsz.rocket.reflection.util.ReflectionUtils;
+import com.phyzicsz.rocket.reflection.MoreTestsModel.Constructing;
 import com.phyzicsz.rocket.reflection.MoreTestsModel.CyclicAnnotation;
 import com.phyzicsz.rocket.reflection.MoreTestsModel.Meta;
 import com.phyzicsz.rocket.reflection.MoreTestsModel.MultiName;
@@ -8,17 +9,33 @@ import com.phyzicsz.rocket.reflection.MoreTestsModel.Name;
 import com.phyzicsz.rocket.reflection.MoreTestsModel.Names;
 import com.phyzicsz.rocket.reflection.MoreTestsModel.ParamNames;
 import com.phyzicsz.rocket.reflection.MoreTestsModel.SingleName;
+import com.phyzicsz.rocket.reflection.adapters.Descriptors;
+import com.phyzicsz.rocket.reflection.adapters.MetadataAdapter;
+import com.phyzicsz.rocket.reflection.scanners.MemberUsageScanner;
 import com.phyzicsz.rocket.reflection.scanners.MethodParameterNamesScanner;
 import com.phyzicsz.rocket.reflection.scanners.ResourcesScanner;
+import com.phyzicsz.rocket.reflection.scanners.Scanner;
 import com.phyzicsz.rocket.reflection.scanners.SubTypesScanner;
 import com.phyzicsz.rocket.reflection.scanners.TypeAnnotationsScanner;
 import com.phyzicsz.rocket.reflection.util.ClasspathHelper;
 import com.phyzicsz.rocket.reflection.util.ConfigurationBuilder;
 import com.phyzicsz.rocket.reflection.util.FilterBuilder;
 import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import javassist.CannotCompileException;
+import javassist.ClassPool;
+import javassist.CtBehavior;
+import javassist.CtClass;
+import javassist.NotFoundException;
+import javassist.expr.ConstructorCall;
+import javassist.expr.ExprEditor;
+import javassist.expr.NewExpr;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -101,4 +118,57 @@ public class MoreTests {
                 "[testParam]");
 
     }
+
+    @Test
+    public void member_usage_records_constructor_lines_as_javassist() throws NotFoundException, CannotCompileException {
+        RocketReflection reflections = new RocketReflection(MoreTestsModel.class, new MemberUsageScanner());
+
+        List<String[]> usages = new ArrayList<>();
+        CtClass ctClass = ClassPool.getDefault().get(Constructing.class.getName());
+        for (CtBehavior constructor : ctClass.getDeclaredConstructors()) {
+            String where = Constructing.class.getName() + ".<init>(" +
+                    String.join(", ", Descriptors.parameterTypeNames(constructor.getSignature())) + ")";
+            constructor.instrument(new ExprEditor() {
+                @Override
+                public void edit(NewExpr e) {
+                    usages.add(new String[]{e.getClassName() + ".<init>(" +
+                            String.join(", ", Descriptors.parameterTypeNames(e.getSignature())) + ")",
+                            where + " #" + e.getLineNumber()});
+                }
+
+                @Override
+                public void edit(ConstructorCall c) {
+                    usages.add(new String[]{c.getClassName() + ".<init>(" +
+                            String.join(", ", Descriptors.parameterTypeNames(c.getSignature())) + ")",
+                            where + " #" + c.getLineNumber()});
+                }
+            });
+        }
+        ctClass.detach();
+
+        assertEquals(3, usages.size());
+        for (String[] usage : usages) {
+            assertThat(reflections.getStore().get(MemberUsageScanner.class, usage[0])).contains(usage[1]);
+        }
+    }
+
+    @Test
+    public void configuration_implementing_only_the_original_methods() {
+        ConfigurationBuilder builder = new ConfigurationBuilder()
+                .setUrls(ClasspathHelper.forClass(MoreTestsModel.class))
+                .filterInputsBy(new FilterBuilder().includePackage(MoreTestsModel.class))
+                .setScanners(new SubTypesScanner(false), new TypeAnnotationsScanner());
+        Configuration configuration = new Configuration() {
+            @Override public List<Scanner> getScanners() { return builder.getScanners(); }
+            @Override public List<URL> getUrls() { return builder.getUrls(); }
+            @Override public MetadataAdapter<?, ?, ?> getMetadataAdapter() { return builder.getMetadataAdapter(); }
+            @Override public Predicate<String> getInputsFilter() { return builder.getInputsFilter(); }
+            @Override public ExecutorService getExecutorService() { return null; }
+            @Override public ClassLoader[] getClassLoaders() { return null; }
+            @Override public boolean shouldExpandSuperTypes() { return true; }
+        };
+
+        assertEquals(new RocketReflection(builder).getTypesAnnotatedWith(Name.class),
+                new RocketReflection(configuration).getTypesAnnotatedWith(Name.class));
+    }
 }
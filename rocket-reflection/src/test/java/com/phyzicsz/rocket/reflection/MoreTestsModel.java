@@ -93,4 +93,17 @@ public class MoreTestsModel {
             String testLocal = "local";
         }
     }
+
+    public static class Constructing {
+        private final Object value;
+
+        public Constructing() {
+            this(new StringBuilder(
+                    String.valueOf(1)));
+        }
+
+        public Constructing(Object value) {
+            this.value = value;
+        }
+    }
 }
@@ -0,0 +1,94 @@
+package com.phyzicsz.rocket.reflection;
+
+import com.phyzicsz.rocket.reflection.TestModel.C1;
+import com.phyzicsz.rocket.reflection.TestModel.C2;
+import com.phyzicsz.rocket.reflection.TestModel.C3;
+import com.phyzicsz.rocket.reflection.TestModel.C5;
+import com.phyzicsz.rocket.reflection.TestModel.I1;
+import com.phyzicsz.rocket.reflection.TestModel.I2;
+import com.phyzicsz.rocket.reflection.adapters.ClassReader;
+import com.phyzicsz.rocket.reflection.adapters.ClassReaderAdapter;
+import com.phyzicsz.rocket.reflection.adapters.MetadataLevel;
+import com.phyzicsz.rocket.reflection.exception.ReflectionException;
+import com.phyzicsz.rocket.reflection.scanners.FieldAnnotationsScanner;
+import com.phyzicsz.rocket.reflection.scanners.MethodAnnotationsScanner;
+import com.phyzicsz.rocket.reflection.scanners.MethodParameterScanner;
+import com.phyzicsz.rocket.reflection.scanners.SubTypesScanner;
+import com.phyzicsz.rocket.reflection.scanners.TypeAnnotationsScanner;
+import com.phyzicsz.rocket.reflection.util.ClasspathHelper;
+import com.phyzicsz.rocket.reflection.util.ConfigurationBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+/** */
+public class ReflectionsClassReaderAdapterTest extends ReflectionsTest {
+
+    @BeforeAll
+    public static void init() {
+        reflections = new RocketReflection(new ConfigurationBuilder()
+                .setUrls(Collections.singletonList(ClasspathHelper.forClass(TestModel.class)))
+                .filterInputsBy(TestModelFilter)
+                .setMetadataAdapter(new ClassReaderAdapter())
+                .setScanners(
+                        new SubTypesScanner(false),
+                        new TypeAnnotationsScanner(),
+                        new FieldAnnotationsScanner(),
+                        new MethodAnnotationsScanner(),
+                        new MethodParameterScanner()));
+    }
+
+    @Test
+    @Disabled("MethodParameterNamesScanner depends on JavassistAdapter")
+    @Override
+    public void testMethodParameterNames() {
+    }
+
+    @Test
+    @Disabled("MemberUsageScanner depends on JavassistAdapter")
+    @Override
+    public void testMemberUsageScanner() {
+    }
+
+    @Test
+    @Disabled("MemberUsageScanner depends on JavassistAdapter")
+    @Override
+    public void testCallGraph() {
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testHeaderLevel() {
+        ConfigurationBuilder configuration = new ConfigurationBuilder()
+                .setUrls(Collections.singletonList(ClasspathHelper.forClass(TestModel.class)))
+                .filterInputsBy(TestModelFilter)
+                .setMetadataAdapter(new ClassReaderAdapter())
+                .setScanners(new SubTypesScanner(false));
+        assertEquals(MetadataLevel.HEADER, configuration.getMetadataLevel());
+
+        RocketReflection headerOnly = new RocketReflection(configuration);
+        assertThat(headerOnly.getSubTypesOf(I1.class), are(I2.class, C1.class, C2.class, C3.class, C5.class));
+    }
+
+    @Test
+    public void testReaderStopsAtLevel() throws IOException {
+        byte[] bytes;
+        try (InputStream in = C1.class.getResourceAsStream("TestModel$C1.class")) {
+            bytes = in.readAllBytes();
+        }
+        ClassReader header = new ClassReader(bytes, MetadataLevel.HEADER);
+        assertEquals(C1.class.getName(), header.getName());
+        assertThrows(ReflectionException.class, header::getMethods);
+
+        ClassReader members = new ClassReader(bytes, MetadataLevel.MEMBERS);
+        assertEquals(new ClassReader(bytes).getMethods().size(), members.getMethods().size());
+        assertThrows(ReflectionException.class, () -> members.getAnnotationNames(true));
+    }
+}
@@ -1,9 +1,13 @@
 package com.phyzicsz.rocket.reflection;
 
+import com.phyzicsz.rocket.reflection.scanners.SubTypesScanner;
+import com.phyzicsz.rocket.reflection.scanners.TypeAnnotationsScanner;
 import com.phyzicsz.rocket.reflection.util.ClasspathHelper;
 import com.phyzicsz.rocket.reflection.util.ConfigurationBuilder;
 import com.phyzicsz.rocket.reflection.util.FilterBuilder;
+import com.phyzicsz.rocket.reflection.util.Utils;
 import java.util.Set;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
@@ -39,6 +43,7 @@ public class ReflectionsExpandSupertypesTest {
         Set<Class<? extends TestModel.A>> subTypesOf = refExpand.getSubTypesOf(TestModel.A.class);
         assertTrue(subTypesOf.contains(TestModel.B.class));
         assertTrue(subTypesOf.containsAll(refExpand.getSubTypesOf(TestModel.B.class)));
+        assertTrue(refExpand.getAllSuperTypesOf(TestModel.ScannedScope.C.class.getName()).contains(TestModel.A.class.getName()));
     }
 
     @Test
@@ -50,5 +55,31 @@ public class ReflectionsExpandSupertypesTest {
         assertFalse(refDontExpand.getConfiguration().shouldExpandSuperTypes());
         Set<Class<? extends TestModel.A>> subTypesOf1 = refDontExpand.getSubTypesOf(TestModel.A.class);
         assertFalse(subTypesOf1.contains(TestModel.B.class));
+        assertFalse(refDontExpand.getAllSuperTypesOf(TestModel.ScannedScope.C.class.getName()).contains(TestModel.A.class.getName()));
+    }
+
+    @Test
+    public void testExpandSupertypesWithoutSuperTypesIndex() {
+        SubTypesScanner subTypes = new SubTypesScanner();
+        subTypes.setIndexSuperTypes(false);
+        RocketReflection reflections = new RocketReflection(new ConfigurationBuilder().
+                setUrls(ClasspathHelper.forClass(TestModel.ScannedScope.C.class)).
+                filterInputsBy(inputsFilter).
+                setScanners(subTypes, new TypeAnnotationsScanner()));
+        Store store = reflections.getStore();
+        assertFalse(store.keySet().contains(SubTypesScanner.SUPERTYPES_INDEX));
+        assertTrue(reflections.getSubTypesOf(TestModel.A.class).contains(TestModel.ScannedScope.C.class));
+
+        long puts = puts(store);
+        reflections.expandSuperTypes();
+        assertEquals(puts, puts(store));
+    }
+
+    /**
+     * the values of the sub types index, duplicates included
+     */
+    private static long puts(Store store) {
+        String index = Utils.index(SubTypesScanner.class);
+        return store.keys(index).stream().mapToLong(key -> store.lookup(index, key).size()).sum();
     }
 }
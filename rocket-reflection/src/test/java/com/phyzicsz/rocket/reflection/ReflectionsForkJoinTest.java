@@ -0,0 +1,12 @@
+package com.phyzicsz.rocket.reflection;
+
+import org.junit.jupiter.api.BeforeAll;
+
+/** */
+public class ReflectionsForkJoinTest extends ReflectionsTest {
+
+    @BeforeAll
+    public static void init() {
+        reflections = new RocketReflection(configuration().useForkJoinExecutor());
+    }
+}
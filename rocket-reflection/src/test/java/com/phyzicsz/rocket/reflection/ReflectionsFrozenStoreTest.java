@@ -0,0 +1,57 @@
+package com.phyzicsz.rocket.reflection;
+
+import com.phyzicsz.rocket.reflection.scanners.SubTypesScanner;
+import com.phyzicsz.rocket.reflection.util.ConfigurationBuilder;
+import com.phyzicsz.rocket.reflection.util.Utils;
+import java.util.ArrayList;
+import java.util.Arrays;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/** */
+public class ReflectionsFrozenStoreTest extends ReflectionsTest {
+
+    @BeforeAll
+    public static void init() {
+        reflections = new RocketReflection(configuration().setFreezeStore(true));
+    }
+
+    @Test
+    public void testSameContent() {
+        Store expected = new RocketReflection(configuration()).getStore();
+        FrozenStore actual = (FrozenStore) reflections.getStore();
+        assertSameContent(expected, actual);
+        assertSame(actual, actual.freeze());
+    }
+
+    @Test
+    public void testFreezeSymbolStore() {
+        Store expected = new RocketReflection(configuration()).getStore();
+        FrozenStore actual = new RocketReflection(configuration().useSymbolStore()).getStore().freeze();
+        for (String index : expected.keySet()) {
+            assertEquals(expected.values(index), actual.values(index));
+        }
+    }
+
+    @Test
+    public void testFrozen() {
+        assertThrows(UnsupportedOperationException.class,
+                () -> reflections.getStore().put(SubTypesScanner.class, Object.class.getName(), TestModel.class.getName()));
+        assertTrue(reflections.getStore().isReadOnly());
+        reflections.expandSuperTypes();
+    }
+
+    @Test
+    public void testValueOrder() {
+        Store store = new Store(new ConfigurationBuilder().setScanners(new SubTypesScanner()));
+        String index = Utils.index(SubTypesScanner.class);
+        for (String value : Arrays.asList("c", "a", "b", "a")) {
+            store.put(index, "key", value);
+        }
+        assertEquals(Arrays.asList("c", "a", "b"), new ArrayList<>(store.freeze().get(index, "key")));
+    }
+}
@@ -0,0 +1,51 @@
+package com.phyzicsz.rocket.reflection;
+
+import com.phyzicsz.rocket.reflection.TestModel.AF1;
+import com.phyzicsz.rocket.reflection.TestModel.AM1;
+import com.phyzicsz.rocket.reflection.TestModel.C1;
+import com.phyzicsz.rocket.reflection.adapters.JavassistAdapter;
+import com.phyzicsz.rocket.reflection.scanners.FieldAnnotationsScanner;
+import com.phyzicsz.rocket.reflection.scanners.MethodAnnotationsScanner;
+import com.phyzicsz.rocket.reflection.scanners.SubTypesScanner;
+import com.phyzicsz.rocket.reflection.util.ClasspathHelper;
+import com.phyzicsz.rocket.reflection.util.ConfigurationBuilder;
+
+import java.util.Collections;
+import java.util.List;
+import javassist.bytecode.ClassFile;
+import javassist.bytecode.FieldInfo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/** */
+public class ReflectionsFusedTest extends ReflectionsTest {
+
+    @BeforeAll
+    public static void init() {
+        reflections = new RocketReflection(configuration().setFuseScanners(true));
+    }
+
+    @Test
+    public void testFailingFields() {
+        RocketReflection failing = new RocketReflection(new ConfigurationBuilder()
+                .setUrls(Collections.singletonList(ClasspathHelper.forClass(TestModel.class)))
+                .filterInputsBy(TestModelFilter)
+                .setMetadataAdapter(new JavassistAdapter() {
+                    @Override
+                    public List<FieldInfo> getFields(ClassFile cls) {
+                        throw new IllegalStateException("could not read fields");
+                    }
+                })
+                .setScanners(
+                        new SubTypesScanner(false),
+                        new FieldAnnotationsScanner(),
+                        new MethodAnnotationsScanner())
+                .setFuseScanners(true));
+
+        assertEquals(reflections.getSubTypesOf(C1.class), failing.getSubTypesOf(C1.class));
+        assertEquals(reflections.getMethodsAnnotatedWith(AM1.class), failing.getMethodsAnnotatedWith(AM1.class));
+        assertTrue(failing.getFieldsAnnotatedWith(AF1.class).isEmpty());
+    }
+}
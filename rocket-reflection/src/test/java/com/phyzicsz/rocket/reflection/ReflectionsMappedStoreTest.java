@@ -0,0 +1,108 @@
+package com.phyzicsz.rocket.reflection;
+
+import com.phyzicsz.rocket.reflection.scanners.SubTypesScanner;
+import com.phyzicsz.rocket.reflection.exception.ReflectionException;
+import com.phyzicsz.rocket.reflection.util.ConfigurationBuilder;
+import com.phyzicsz.rocket.reflection.util.Utils;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/** */
+public class ReflectionsMappedStoreTest extends ReflectionsTest {
+
+    private static Path file;
+
+    @BeforeAll
+    public static void init() {
+        try {
+            file = Files.createTempFile("store", ".bin");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        file.toFile().deleteOnExit();
+        MappedStore.write(new RocketReflection(configuration()).getStore(), file);
+        reflections = new RocketReflection(configuration(), MappedStore.open(file));
+    }
+
+    @Test
+    public void testSameContent() {
+        Store expected = new RocketReflection(configuration()).getStore();
+        MappedStore actual = (MappedStore) reflections.getStore();
+        assertSameContent(expected, actual);
+        assertTrue(actual.get(SubTypesScanner.class, "no.such.Type").isEmpty());
+    }
+
+    @Test
+    public void testReadOnly() {
+        assertThrows(UnsupportedOperationException.class,
+                () -> reflections.getStore().put(SubTypesScanner.class, Object.class.getName(), TestModel.class.getName()));
+        assertTrue(reflections.getStore().isReadOnly());
+        reflections.expandSuperTypes();
+    }
+
+    @Test
+    public void testNotAStoreFile() throws IOException {
+        Path other = Files.createTempFile("store", ".bin");
+        try {
+            Files.write(other, new byte[16]);
+            assertThrows(ReflectionException.class, () -> MappedStore.open(other));
+        } finally {
+            Files.delete(other);
+        }
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        Path other = Files.createTempFile("store", ".bin");
+        try {
+            assertThrows(ReflectionException.class, () -> MappedStore.open(other));
+        } finally {
+            Files.delete(other);
+        }
+    }
+
+    @Test
+    public void testTruncatedFile() throws IOException {
+        Path other = Files.createTempFile("store", ".bin");
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            for (int size : new int[]{8, 20, bytes.length / 2, bytes.length - 4}) {
+                Files.write(other, Arrays.copyOf(bytes, size));
+                assertThrows(ReflectionException.class, () -> MappedStore.open(other), String.valueOf(size));
+            }
+        } finally {
+            Files.delete(other);
+        }
+    }
+
+    @Test
+    public void testUtf8Order() throws IOException {
+        //sorted differently as utf-16 chars and as utf-8 bytes
+        Store store = new Store(new ConfigurationBuilder().setScanners(new SubTypesScanner()));
+        String index = Utils.index(SubTypesScanner.class);
+        List<String> keys = Arrays.asList("a", "\uFFFD", "\uD83D\uDE00");
+        for (String key : keys) {
+            store.put(index, key, key + "!");
+        }
+        Path other = Files.createTempFile("store", ".bin");
+        try {
+            MappedStore.write(store, other);
+            MappedStore mapped = MappedStore.open(other);
+            for (String key : keys) {
+                assertEquals(Collections.singleton(key + "!"), mapped.get(index, key));
+            }
+        } finally {
+            Files.delete(other);
+        }
+    }
+}
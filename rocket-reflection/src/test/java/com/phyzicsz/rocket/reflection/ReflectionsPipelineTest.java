@@ -0,0 +1,68 @@
+package com.phyzicsz.rocket.reflection;
+
+import com.phyzicsz.rocket.reflection.exception.ReflectionException;
+import com.phyzicsz.rocket.reflection.scanners.AbstractScanner;
+import com.phyzicsz.rocket.reflection.scanners.SubTypesScanner;
+import com.phyzicsz.rocket.reflection.util.ClasspathHelper;
+import com.phyzicsz.rocket.reflection.util.ConfigurationBuilder;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/** */
+public class ReflectionsPipelineTest extends ReflectionsTest {
+
+    @BeforeAll
+    public static void init() {
+        reflections = new RocketReflection(configuration().usePipelinedScan());
+    }
+
+    @Test
+    public void testFailingStage() {
+        //the indexer thread dies, which used to leave the parsers blocked on the full queue
+        ConfigurationBuilder configuration = new ConfigurationBuilder()
+                .setUrls(Collections.singletonList(ClasspathHelper.forClass(TestModel.class)))
+                .filterInputsBy(TestModelFilter)
+                .setScanners(new AbstractScanner() {
+                    @Override
+                    public void scan(Object cls, Store store) {
+                        throw new AssertionError("fatal");
+                    }
+                })
+                .setScanPipeline(new ScanPipeline(1, 1, 1, 1));
+        ReflectionException e = assertTimeoutPreemptively(Duration.ofSeconds(30),
+                () -> assertThrows(ReflectionException.class, () -> new RocketReflection(configuration)));
+        assertTrue(e.getCause() instanceof AssertionError, String.valueOf(e.getCause()));
+    }
+
+    @Test
+    public void testPublishPerUrl() {
+        AtomicInteger publishedByPipeline = new AtomicInteger();
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        new RocketReflection(new ConfigurationBuilder()
+                .setUrls(Collections.singletonList(ClasspathHelper.forClass(TestModel.class)))
+                .filterInputsBy(TestModelFilter)
+                .setScanners(new SubTypesScanner(false))
+                .setExecutorService(executorService)
+                .setStoreFactory(configuration -> new Store(configuration) {
+                    @Override
+                    public void publish() {
+                        if (Thread.currentThread().getName().startsWith("scanner-pipeline-")) {
+                            publishedByPipeline.incrementAndGet();
+                        }
+                    }
+                })
+                .usePipelinedScan());
+        assertEquals(1, publishedByPipeline.get());
+        assertTrue(executorService.isShutdown());
+    }
+}
@@ -0,0 +1,77 @@
+package com.phyzicsz.rocket.reflection;
+
+import com.phyzicsz.rocket.reflection.TestModel.AC1;
+import com.phyzicsz.rocket.reflection.TestModel.AF1;
+import com.phyzicsz.rocket.reflection.TestModel.C1;
+import com.phyzicsz.rocket.reflection.TestModel.C4;
+import com.phyzicsz.rocket.reflection.adapters.ConstantPoolFilter;
+import com.phyzicsz.rocket.reflection.scanners.FieldAnnotationsScanner;
+import com.phyzicsz.rocket.reflection.scanners.SubTypesScanner;
+import com.phyzicsz.rocket.reflection.scanners.TypeAnnotationsScanner;
+import com.phyzicsz.rocket.reflection.util.ClasspathHelper;
+import com.phyzicsz.rocket.reflection.util.ConfigurationBuilder;
+import com.phyzicsz.rocket.reflection.util.FilterBuilder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.regex.Pattern;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/** */
+public class ReflectionsPrefilterTest {
+
+    private static ConfigurationBuilder configuration() {
+        return new ConfigurationBuilder()
+                .setUrls(Collections.singletonList(ClasspathHelper.forClass(TestModel.class)))
+                .filterInputsBy(ReflectionsTest.TestModelFilter)
+                .setExpandSuperTypes(false)
+                .setScanners(
+                        new TypeAnnotationsScanner().filterResultsBy(new FilterBuilder().include(Pattern.quote(AC1.class.getName()))),
+                        new FieldAnnotationsScanner().filterResultsBy(new FilterBuilder().include(Pattern.quote(AF1.class.getName()))));
+    }
+
+    @Test
+    public void testPrefilterKeepsResults() {
+        ConfigurationBuilder prefiltered = configuration().usePrefilter();
+        assertNotNull(prefiltered.getConstantPoolFilter());
+
+        Store expected = new RocketReflection(configuration()).getStore();
+        Store actual = new RocketReflection(prefiltered).getStore();
+        ReflectionsTest.assertSameContent(expected, actual);
+        assertEquals(Collections.singleton(C1.class.getName()), actual.get(TypeAnnotationsScanner.class, AC1.class.getName()));
+    }
+
+    @Test
+    public void testPrefilterPipelined() {
+        Store expected = new RocketReflection(configuration()).getStore();
+        Store actual = new RocketReflection(configuration().usePrefilter().usePipelinedScan()).getStore();
+        ReflectionsTest.assertSameContent(expected, actual);
+    }
+
+    @Test
+    public void testPrefilterNotDerived() {
+        //direct Object subtypes are excluded, so anything else is accepted
+        assertNull(configuration().addScanners(new SubTypesScanner()).usePrefilter().getConstantPoolFilter());
+    }
+
+    @Test
+    public void testConstantPoolFilter() throws IOException {
+        ConstantPoolFilter filter = ConstantPoolFilter.forTypes(AC1.class);
+        assertEquals(Collections.singletonList("com/phyzicsz/rocket/reflection/TestModel$AC1"), filter.getLiterals());
+        assertTrue(filter.test(bytes(C1.class)));
+        assertFalse(filter.test(bytes(C4.class)));
+        assertTrue(filter.test(new byte[]{1, 2, 3}));
+    }
+
+    private static byte[] bytes(Class<?> type) throws IOException {
+        String name = type.getName();
+        try (InputStream in = type.getResourceAsStream(name.substring(name.lastIndexOf('.') + 1) + ".class")) {
+            return in.readAllBytes();
+        }
+    }
+}
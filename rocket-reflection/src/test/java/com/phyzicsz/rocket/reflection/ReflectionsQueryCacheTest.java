@@ -0,0 +1,57 @@
+package com.phyzicsz.rocket.reflection;
+
+import com.phyzicsz.rocket.reflection.scanners.SubTypesScanner;
+import com.phyzicsz.rocket.reflection.TestModel.AC2;
+import com.phyzicsz.rocket.reflection.TestModel.C1;
+import com.phyzicsz.rocket.reflection.TestModel.C2;
+import com.phyzicsz.rocket.reflection.TestModel.C3;
+import com.phyzicsz.rocket.reflection.TestModel.C4;
+import com.phyzicsz.rocket.reflection.TestModel.C5;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/** */
+public class ReflectionsQueryCacheTest extends ReflectionsTest {
+
+    @BeforeAll
+    public static void init() {
+        reflections = new RocketReflection(configuration().setQueryCache("maximumSize=100"));
+    }
+
+    @Test
+    public void testCacheHits() {
+        RocketReflection cached = new RocketReflection(configuration().setQueryCache("maximumWeight=1000"));
+        Set<Class<? extends C1>> first = cached.getSubTypesOf(C1.class);
+        first.clear();
+        assertEquals(new HashSet<>(Arrays.asList(C2.class, C3.class, C5.class)), cached.getSubTypesOf(C1.class));
+        assertEquals(1, cached.getQueryCacheStats().hitCount());
+        assertEquals(1, cached.getQueryCacheStats().missCount());
+
+        cached.getTypesAnnotatedWith(AC2.class, true);
+        cached.getTypesAnnotatedWith(AC2.class, false);
+        assertEquals(3, cached.getQueryCacheStats().missCount());
+    }
+
+    @Test
+    public void testInvalidatedOnPut() {
+        RocketReflection cached = new RocketReflection(configuration().setQueryCache("maximumSize=10"));
+        assertFalse(cached.getSubTypesOf(C1.class).contains(C4.class));
+        long version = cached.getStore().version();
+        cached.getStore().put(SubTypesScanner.class, C1.class.getName(), C4.class.getName());
+        assertTrue(cached.getStore().version() > version);
+        assertTrue(cached.getSubTypesOf(C1.class).contains(C4.class));
+    }
+
+    @Test
+    public void testNoCache() {
+        RocketReflection uncached = new RocketReflection(configuration());
+        uncached.getSubTypesOf(C1.class);
+        assertEquals(0, uncached.getQueryCacheStats().requestCount());
+    }
+}
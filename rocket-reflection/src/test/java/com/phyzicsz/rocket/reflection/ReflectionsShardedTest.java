@@ -0,0 +1,21 @@
+package com.phyzicsz.rocket.reflection;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/** */
+public class ReflectionsShardedTest extends ReflectionsTest {
+
+    @BeforeAll
+    public static void init() {
+        reflections = new RocketReflection(configuration().useForkJoinExecutor().setShardStore(true));
+    }
+
+    @Test
+    public void testSameContent() {
+        Store expected = new RocketReflection(configuration()).getStore();
+        Store pipelined = new RocketReflection(configuration().usePipelinedScan().setShardStore(true)).getStore();
+        assertSameContent(expected, reflections.getStore());
+        assertSameContent(expected, pipelined);
+    }
+}
@@ -0,0 +1,82 @@
+package com.phyzicsz.rocket.reflection;
+
+import com.phyzicsz.rocket.reflection.scanners.SubTypesScanner;
+import com.phyzicsz.rocket.reflection.util.ConfigurationBuilder;
+import com.phyzicsz.rocket.reflection.util.Utils;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/** */
+public class ReflectionsSnapshotStoreTest extends ReflectionsTest {
+
+    @BeforeAll
+    public static void init() {
+        reflections = new RocketReflection(configuration().useSnapshotStore());
+    }
+
+    @Test
+    public void testSameContent() {
+        Store expected = new RocketReflection(configuration()).getStore();
+        Store actual = reflections.getStore();
+        assertSameContent(expected, actual);
+    }
+
+    @Test
+    public void testPublish() {
+        SnapshotStore store = new SnapshotStore(new ConfigurationBuilder().setScanners(new SubTypesScanner()));
+        String index = Utils.index(SubTypesScanner.class);
+        assertTrue(store.put(index, "a", "b"));
+        assertTrue(store.get(index, "a").isEmpty());
+        assertEquals(0, store.version());
+
+        store.publish();
+        Store snapshot = store.snapshot();
+        assertEquals(Collections.singleton("b"), store.get(index, "a"));
+        assertFalse(store.put(index, "a", "b"));
+        assertTrue(store.put(index, "a", "c"));
+        assertTrue(store.put(SubTypesScanner.SUPERTYPES_INDEX, "b", "a"));
+        assertFalse(store.keySet().contains(SubTypesScanner.SUPERTYPES_INDEX));
+
+        long version = store.version();
+        store.publish();
+        assertTrue(store.version() > version);
+        assertEquals(2, store.get(index, "a").size());
+        assertTrue(store.keySet().contains(SubTypesScanner.SUPERTYPES_INDEX));
+        assertEquals(Collections.singleton("b"), snapshot.get(index, "a"));
+        assertEquals(1, snapshot.stats().get(index).getValues());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.put(index, "a", "d"));
+    }
+
+    @Test
+    public void testGrowth() {
+        SnapshotStore store = new SnapshotStore(new ConfigurationBuilder().setScanners(new SubTypesScanner()));
+        String index = Utils.index(SubTypesScanner.class);
+        List<String> values = new ArrayList<>();
+        Store snapshot = store.snapshot();
+        for (int i = 0; i < 100; i++) {
+            values.add("v" + i);
+            store.put(index, "a", "v" + i);
+            store.put(index, "a", "v" + i);
+            store.put(index, "k" + i, "v" + i);
+            store.publish();
+            if (i == 4) {
+                snapshot = store.snapshot();
+            }
+        }
+        assertEquals(values, new ArrayList<>(store.get(index, "a")));
+        assertEquals(101, store.keys(index).size());
+        assertEquals(Collections.singleton("v99"), store.get(index, "k99"));
+        assertFalse(store.put(index, "a", "v50"));
+
+        assertEquals(values.subList(0, 5), new ArrayList<>(snapshot.get(index, "a")));
+        assertFalse(snapshot.get(index, "a").contains("v50"));
+        assertEquals(6, snapshot.keys(index).size());
+    }
+}
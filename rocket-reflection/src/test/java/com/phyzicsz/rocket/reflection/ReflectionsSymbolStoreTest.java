@@ -0,0 +1,27 @@
+package com.phyzicsz.rocket.reflection;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/** */
+public class ReflectionsSymbolStoreTest extends ReflectionsTest {
+
+    @BeforeAll
+    public static void init() {
+        reflections = new RocketReflection(configuration().useSymbolStore());
+    }
+
+    @Test
+    public void testSameContent() {
+        Store expected = new RocketReflection(configuration()).getStore();
+        SymbolStore actual = (SymbolStore) reflections.getStore();
+        assertSameContent(expected, actual);
+
+        int entries = 0;
+        for (String index : expected.keySet()) {
+            entries += expected.keys(index).size() + expected.values(index).size();
+        }
+        assertTrue(actual.symbolCount() < entries);
+    }
+}
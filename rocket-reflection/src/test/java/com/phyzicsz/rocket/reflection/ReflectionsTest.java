@@ -3,6 +3,9 @@ package com.phyzicsz.rocket.reflection;
 
 import com.phyzicsz.rocket.reflection.util.ReflectionUtils;
 import com.phyzicsz.rocket.reflection.exception.ReflectionException;
+import com.phyzicsz.rocket.reflection.index.CallGraph;
+import com.phyzicsz.rocket.reflection.index.TypeIndex;
+import com.phyzicsz.rocket.reflection.index.TypeSet;
 import com.phyzicsz.rocket.reflection.TestModel.AC1;
 import com.phyzicsz.rocket.reflection.TestModel.AC1n;
 import com.phyzicsz.rocket.reflection.TestModel.AC2;
@@ -33,6 +36,7 @@ import com.phyzicsz.rocket.reflection.scanners.TypeAnnotationsScanner;
 import com.phyzicsz.rocket.reflection.util.ClasspathHelper;
 import com.phyzicsz.rocket.reflection.util.ConfigurationBuilder;
 import com.phyzicsz.rocket.reflection.util.FilterBuilder;
+import com.phyzicsz.rocket.reflection.util.Utils;
 import java.io.File;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
@@ -41,6 +45,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -50,6 +55,7 @@ import org.hamcrest.Matcher;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -64,17 +70,7 @@ public class ReflectionsTest {
 
     @BeforeAll
     public static void init() {
-        reflections = new RocketReflection(new ConfigurationBuilder()
-                .setUrls(Collections.singletonList(ClasspathHelper.forClass(TestModel.class)))
-                .filterInputsBy(TestModelFilter)
-                .setScanners(
-                        new SubTypesScanner(false),
-                        new TypeAnnotationsScanner(),
-                        new FieldAnnotationsScanner(),
-                        new MethodAnnotationsScanner(),
-                        new MethodParameterScanner(),
-                        new MethodParameterNamesScanner(),
-                        new MemberUsageScanner()));
+        reflections = new RocketReflection(configuration());
     }
 
     @Test
@@ -292,6 +288,121 @@ public class ReflectionsTest {
                 are(Usage.C2.class.getDeclaredMethod("method")));
     }
 
+    @Test
+    public void testSuperTypes() {
+        assertEquals(Collections.singleton(C1.class.getName()), reflections.getSuperTypesOf(C3.class.getName()));
+        assertTrue(reflections.getSuperTypesOf(C1.class.getName()).contains(I2.class.getName()));
+        assertTrue(reflections.getAllSuperTypesOf(C5.class.getName()).containsAll(
+                Arrays.asList(C3.class.getName(), C1.class.getName(), I2.class.getName(), I1.class.getName())));
+        assertTrue(reflections.getSuperTypesOf("no.such.Type").isEmpty());
+    }
+
+    @Test
+    public void testTypeSets() {
+        TypeIndex types = reflections.getTypeIndex();
+        TypeSet subTypes = types.subTypesOf(C1.class.getName());
+        TypeSet annotated = types.annotatedWith(AC2.class.getName());
+        assertEquals(reflections.getSubTypesOf(C1.class).stream().map(Class::getName).collect(Collectors.toSet()), subTypes.getNames());
+        assertEquals(new HashSet<>(Utils.names(reflections.getTypesAnnotatedWith(AC2.class))), annotated.getNames());
+
+        TypeSet both = subTypes.and(annotated);
+        assertEquals(new HashSet<>(Arrays.asList(C2.class, C3.class, C5.class)), reflections.getClasses(both));
+        assertEquals(Collections.singleton(C5.class.getName()), both.andNot(types.directlyAnnotatedWith(AC2.class.getName())).getNames());
+        assertEquals(both, both.or(types.of(Collections.singleton(C2.class.getName()))));
+        assertEquals(annotated.size() + 1, annotated.or(types.of(Collections.singleton(C1.class.getName()))).size());
+
+        String packageName = TestModel.class.getPackage().getName();
+        assertTrue(types.inPackage(packageName).contains(C1.class.getName()));
+        assertEquals(both, both.and(types.inPackage(packageName)));
+        assertTrue(both.and(types.inPackage(packageName.substring(0, packageName.lastIndexOf('.')))).isEmpty());
+        assertTrue(types.none().isEmpty());
+        assertEquals(types.size(), types.all().size());
+    }
+
+    @Test
+    public void testTypeQuery() {
+        TypeIndex types = reflections.getTypeIndex();
+        String packageName = TestModel.class.getPackage().getName();
+        assertEquals(names(C2.class, C3.class, C5.class),
+                reflections.queryTypes().subTypesOf(C1.class).annotatedWith(AC2.class).inPackage(packageName).getNames());
+        assertEquals(Collections.singleton(C4.class.getName()), reflections.queryTypes().withMethodAnnotated(AM1.class).getNames());
+        assertEquals(Collections.singleton(C4.class.getName()), reflections.queryTypes().withFieldAnnotated(AF1.class).getNames());
+        assertEquals(new HashSet<>(Arrays.asList(C2.class, C3.class)), reflections.getClasses(reflections.queryTypes()
+                .subTypesOf(C1.class).directlyAnnotatedWith(AC2.class)));
+        assertEquals(names(C2.class, C3.class),
+                reflections.queryTypes().subTypesOf(C1.class).directlyAnnotatedWith(AC2.class.getName()).getNames());
+        assertEquals(Collections.singleton(C5.class.getName()),
+                reflections.queryTypes().matching(name -> name.endsWith("C5")).subTypesOf(I1.class.getName()).getNames());
+        assertTrue(reflections.queryTypes().subTypesOf(C1.class).withFieldAnnotated(AF1.class).getNames().isEmpty());
+        assertEquals(types.all(), reflections.queryTypes().toTypeSet());
+
+        //the planner gives the same result as intersecting all the sets
+        assertEquals(types.subTypesOf(I1.class.getName()).and(types.annotatedWith(AC1.class.getName())).and(types.inPackage(packageName)),
+                reflections.queryTypes().inPackage(packageName).annotatedWith(AC1.class).subTypesOf(I1.class).toTypeSet());
+
+        List<String> plan = reflections.queryTypes().inPackage(packageName).subTypesOf(C3.class).explain();
+        assertEquals(2, plan.size());
+        assertTrue(plan.get(0).startsWith("subTypesOf"), plan.toString());
+        assertTrue(plan.get(1).contains("check"), plan.toString());
+    }
+
+    @Test
+    public void testStreams() {
+        assertEquals(reflections.getSubTypesOf(I1.class), reflections.streamSubTypesOf(I1.class).collect(Collectors.toSet()));
+        assertEquals(reflections.getTypesAnnotatedWith(AI1.class), reflections.streamTypesAnnotatedWith(AI1.class).collect(Collectors.toSet()));
+        assertEquals(reflections.getTypesAnnotatedWith(MAI1.class), reflections.streamTypesAnnotatedWith(MAI1.class).collect(Collectors.toSet()));
+        assertEquals(reflections.getAllSuperTypesOf(C3.class.getName()),
+                reflections.streamAllSuperTypesOf(C3.class.getName()).collect(Collectors.toSet()));
+        assertTrue(reflections.streamSubTypesOf(C1.class).anyMatch(C2.class::equals));
+        assertFalse(reflections.streamSubTypeNamesOf(C7.class.getName()).findFirst().isPresent());
+    }
+
+    @Test
+    public void testBatchQueries() {
+        List<Class<?>> types = Arrays.asList(I1.class, C1.class, C3.class, C7.class, I1.class);
+        Map<Class<?>, Set<Class<?>>> subTypes = reflections.getSubTypesOf(types);
+        assertEquals(Arrays.asList(I1.class, C1.class, C3.class, C7.class), new ArrayList<>(subTypes.keySet()));
+        for (Class<?> type : types) {
+            assertEquals(reflections.getSubTypesOf(type), subTypes.get(type), type.getName());
+        }
+
+        List<Class<? extends Annotation>> annotations = Arrays.asList(MAI1.class, AI1.class, AI2.class, AC1.class, AC1n.class, AC2.class, AC3.class);
+        for (boolean honorInherited : Arrays.asList(false, true)) {
+            Map<Class<? extends Annotation>, Set<Class<?>>> annotated = reflections.getTypesAnnotatedWith(annotations, honorInherited);
+            assertEquals(annotations.size(), annotated.size());
+            for (Class<? extends Annotation> annotation : annotations) {
+                assertEquals(reflections.getTypesAnnotatedWith(annotation, honorInherited), annotated.get(annotation),
+                        annotation.getName() + " " + honorInherited);
+            }
+        }
+    }
+
+    @Test
+    public void testCallGraph() throws NoSuchMethodException {
+        CallGraph graph = reflections.getCallGraph();
+        String c1Method = Utils.name(Usage.C1.class.getDeclaredMethod("method"));
+        String c1MethodString = Utils.name(Usage.C1.class.getDeclaredMethod("method", String.class));
+        String c2Method = Utils.name(Usage.C2.class.getDeclaredMethod("method"));
+        String c1Constructor = Utils.name(Usage.C1.class.getDeclaredConstructor());
+
+        assertEquals(Collections.singleton(c2Method), graph.getCallers(c1Method));
+        assertEquals(new HashSet<>(Arrays.asList(c1Method, c1MethodString, c2Method)), graph.getCallers(c1Method, 2));
+        assertTrue(graph.getAllCallers(c1Constructor).contains(c1Method));
+        assertTrue(graph.getCallees(c2Method).containsAll(Arrays.asList(c1Method, c1MethodString, c1Constructor)));
+
+        assertTrue(graph.isReachable(c2Method, c2Method));
+        assertTrue(graph.isReachable(c1MethodString, c1Constructor));
+        assertFalse(graph.isReachable(c1Constructor, c2Method));
+        assertTrue(graph.getReachable(Collections.singleton(c1Method)).containsAll(Arrays.asList(c1Method, c2Method, c1Constructor)));
+
+        int id = graph.id(c1Method);
+        assertEquals(c1Method, graph.member(id));
+        assertEquals(graph.callers(id).length, graph.callerLines(id).length);
+        assertTrue(graph.callerLines(id)[0] > 0);
+        assertEquals(-1, graph.id("no.such.Member.method()"));
+        assertTrue(graph.getCallers("no.such.Member.method()").isEmpty());
+    }
+
     @Test
     public void testScannerNotConfigured() {
         try {
@@ -312,6 +423,35 @@ public class ReflectionsTest {
         return file.getAbsolutePath();
     }
 
+    static ConfigurationBuilder configuration() {
+        return new ConfigurationBuilder()
+                .setUrls(Collections.singletonList(ClasspathHelper.forClass(TestModel.class)))
+                .filterInputsBy(TestModelFilter)
+                .setScanners(
+                        new SubTypesScanner(false),
+                        new TypeAnnotationsScanner(),
+                        new FieldAnnotationsScanner(),
+                        new MethodAnnotationsScanner(),
+                        new MethodParameterScanner(),
+                        new MethodParameterNamesScanner(),
+                        new MemberUsageScanner());
+    }
+
+    private static Set<String> names(Class<?>... types) {
+        return Arrays.stream(types).map(Class::getName).collect(Collectors.toSet());
+    }
+
+    static void assertSameContent(Store expected, Store actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        for (String index : expected.keySet()) {
+            assertEquals(expected.keys(index), actual.keys(index), index);
+            assertEquals(expected.values(index), actual.values(index), index);
+            for (String key : expected.keys(index)) {
+                assertEquals(expected.get(index, key), actual.get(index, key), index + " " + key);
+            }
+        }
+    }
+
     private final BaseMatcher<Set<Class<?>>> isEmpty = new BaseMatcher<Set<Class<?>>>() {
         public boolean matches(Object o) {
             return ((Collection<?>) o).isEmpty();
@@ -0,0 +1,51 @@
+package com.phyzicsz.rocket.reflection;
+
+import com.phyzicsz.rocket.reflection.util.VirtualThreads;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/** */
+public class ReflectionsVirtualThreadsTest extends ReflectionsTest {
+
+    @BeforeAll
+    public static void init() {
+        reflections = new RocketReflection(configuration().useVirtualThreadExecutor());
+    }
+
+    @Test
+    public void testExecutor() throws InterruptedException, ExecutionException {
+        ExecutorService executor = VirtualThreads.newExecutor("test-");
+        try {
+            Thread thread = executor.submit(Thread::currentThread).get();
+            assertTrue(thread.getName().startsWith("test-"), thread.getName());
+            //platform threads where virtual threads are not supported, as on java 11
+            assertEquals(VirtualThreads.isSupported(), VirtualThreads.isVirtual(thread));
+            assertFalse(VirtualThreads.isVirtual(Thread.currentThread()));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testForEach() {
+        Set<Integer> seen = ConcurrentHashMap.newKeySet();
+        VirtualThreads.forEach(Arrays.asList(1, 2, 3), seen::add);
+        assertEquals(3, seen.size());
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> VirtualThreads.forEach(Arrays.asList(1, 2, 3), i -> {
+            if (i == 2) {
+                throw new IllegalStateException("2");
+            }
+        }));
+        assertEquals("2", e.getMessage());
+    }
+}
@@ -0,0 +1,110 @@
+package com.phyzicsz.rocket.reflection;
+
+import com.phyzicsz.rocket.reflection.index.ResourceTrie;
+import com.phyzicsz.rocket.reflection.scanners.ResourcesScanner;
+import com.phyzicsz.rocket.reflection.util.ConfigurationBuilder;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the resource trie against a scan of the store keys
+ */
+public class ResourceTrieTest {
+
+    private static final List<String> PATHS = Arrays.asList(
+            "META-INF/services/java.sql.Driver",
+            "META-INF/services/javax.annotation.processing.Processor",
+            "META-INF/reflections/resource1-reflections.xml",
+            "META-INF/reflections/inner/resource2-reflections.xml",
+            "META-INF/MANIFEST.MF",
+            "log4j.properties",
+            "com/acme/app.properties",
+            "com/acme/application.yml",
+            "com/acme/app",
+            "com/ac.properties");
+
+    private static Store store(List<String> paths) {
+        Store store = new Store(new ConfigurationBuilder().setScanners(new ResourcesScanner()));
+        for (String path : paths) {
+            store.put(ResourcesScanner.class, path.substring(path.lastIndexOf('/') + 1), path);
+        }
+        return store;
+    }
+
+    private static Set<String> scan(List<String> paths, Predicate<String> predicate) {
+        return paths.stream().filter(predicate).collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testPrefixExtensionAndGlob() {
+        ResourceTrie trie = ResourceTrie.of(store(PATHS));
+        assertEquals(PATHS.size(), trie.size());
+
+        assertEquals(scan(PATHS, path -> path.startsWith("META-INF/services/")), trie.getByPathPrefix("META-INF/services/"));
+        assertEquals(scan(PATHS, path -> path.startsWith("com/ac")), trie.getByPathPrefix("com/ac"));
+        assertEquals(scan(PATHS, path -> path.startsWith("com/acme/app")), trie.getByPathPrefix("com/acme/app"));
+        assertEquals(new HashSet<>(PATHS), trie.getByPathPrefix(""));
+        assertEquals(0, trie.getByPathPrefix("com/acme/apq").size());
+        assertEquals(0, trie.getByPathPrefix("com/acme/app.properties/x").size());
+
+        assertEquals(scan(PATHS, path -> path.endsWith(".properties")), trie.getByExtension("properties"));
+        assertEquals(0, trie.getByExtension("class").size());
+
+        assertEquals(scan(PATHS, path -> path.matches("META-INF/reflections/.*\\.xml")), trie.getByGlob("META-INF/reflections/**.xml"));
+        assertEquals(scan(PATHS, path -> path.matches("META-INF/reflections/[^/]*\\.xml")), trie.getByGlob("META-INF/reflections/*.xml"));
+        assertEquals(scan(PATHS, path -> path.matches("com/acme/app\\.[^/]*")), trie.getByGlob("com/acme/app.*"));
+        assertEquals(scan(PATHS, path -> path.matches("[^/]*\\.properties")), trie.getByGlob("*.properties"));
+        assertEquals(scan(PATHS, path -> path.equals("com/acme/app")), trie.getByGlob("com/acme/ap?"));
+    }
+
+    @Test
+    public void testNamePattern() {
+        ResourceTrie trie = ResourceTrie.of(store(PATHS));
+        for (String regex : Arrays.asList(".*reflections\\.xml", "resource1-reflections\\.xml", "app.*", "apps?.*",
+                "java\\.sql\\..*", "\\Qlog4j.properties\\E", "log4j\\.(properties|xml)", "a|log4j.properties", "MANIFEST\\.M[A-Z]")) {
+            Pattern pattern = Pattern.compile(regex);
+            assertEquals(scan(PATHS, path -> pattern.matcher(path.substring(path.lastIndexOf('/') + 1)).matches()),
+                    trie.getByName(pattern), regex);
+        }
+    }
+
+    @Test
+    public void testLiteralPrefix() {
+        assertEquals("resource", ResourceTrie.literalPrefix("resource.*\\.xml"));
+        assertEquals("app", ResourceTrie.literalPrefix("apps?"));
+        assertEquals("log4j.properties", ResourceTrie.literalPrefix(Pattern.quote("log4j.properties")));
+        assertEquals("java.sql.", ResourceTrie.literalPrefix("java\\.sql\\..*"));
+        assertEquals("", ResourceTrie.literalPrefix("a|b"));
+        assertEquals("", ResourceTrie.literalPrefix("\\d+"));
+        assertEquals("", ResourceTrie.literalPrefix("x*y"));
+    }
+
+    @Test
+    public void testRandom() {
+        Random random = new Random(7);
+        String[] parts = {"a", "ab", "b", "META-INF", "x.xml", "y.properties", "ab.txt"};
+        Set<String> generated = new HashSet<>();
+        for (int i = 0; i < 500; i++) {
+            StringBuilder path = new StringBuilder();
+            for (int depth = random.nextInt(4); depth >= 0; depth--) {
+                path.append(path.length() > 0 ? "/" : "").append(parts[random.nextInt(parts.length)]);
+            }
+            generated.add(path.toString());
+        }
+        List<String> paths = generated.stream().sorted().collect(Collectors.toList());
+        ResourceTrie trie = ResourceTrie.of(store(paths));
+        for (String prefix : Arrays.asList("a", "ab", "a/", "ab/a", "META-INF/x", "b/ab.", "zzz")) {
+            assertEquals(scan(paths, path -> path.startsWith(prefix)), trie.getByPathPrefix(prefix), prefix);
+        }
+        assertEquals(scan(paths, path -> path.matches("a/.*\\.xml")), trie.getByGlob("a/**.xml"));
+        assertEquals(scan(paths, path -> path.endsWith(".txt")), trie.getByExtension("txt"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.phyzicsz.rocket.reflection;
+
+import com.phyzicsz.rocket.reflection.scanners.SubTypesScanner;
+import com.phyzicsz.rocket.reflection.scanners.TypeAnnotationsScanner;
+import com.phyzicsz.rocket.reflection.util.ConfigurationBuilder;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the store counters
+ */
+public class StoreTest {
+
+    private static List<Store> stores() {
+        ConfigurationBuilder configuration = new ConfigurationBuilder().setScanners(new SubTypesScanner(), new TypeAnnotationsScanner());
+        return Arrays.asList(new Store(configuration), new SymbolStore(configuration));
+    }
+
+    @Test
+    public void testStats() {
+        for (Store store : stores()) {
+            assertEquals(0, store.stats().get("SubTypesScanner").getKeys());
+
+            assertTrue(store.put(SubTypesScanner.class, "A", "B"));
+            assertTrue(store.put(SubTypesScanner.class, "A", "C"));
+            assertTrue(store.put(SubTypesScanner.class, "B", "C"));
+            //a duplicate is kept as one more value, not looked up
+            assertTrue(store.put(SubTypesScanner.class, "A", "B"));
+
+            IndexStats stats = store.stats().get("SubTypesScanner");
+            assertEquals(2, stats.getKeys());
+            assertEquals(4, stats.getValues());
+            assertEquals(0, stats.getDuplicates());
+            assertTrue(stats.getBytes() > 0);
+            assertEquals(0, store.stats().get("TypeAnnotationsScanner").getValues());
+            assertEquals(new HashSet<>(Arrays.asList("B", "C")), store.get(SubTypesScanner.class, "A"));
+
+            FrozenStore frozen = store.freeze();
+            assertEquals(2, frozen.stats().get("SubTypesScanner").getKeys());
+            assertEquals(3, frozen.stats().get("SubTypesScanner").getValues());
+        }
+    }
+
+    @Test
+    public void testStreams() {
+        for (Store store : stores()) {
+            store.put(SubTypesScanner.class, "A", "B");
+            store.put(SubTypesScanner.class, "A", "C");
+            store.put(SubTypesScanner.class, "B", "D");
+            store.put(SubTypesScanner.class, "D", "A");
+            store.put(SubTypesScanner.class, "A", "C");
+            for (Store reader : Arrays.asList(store, store.freeze())) {
+                assertEquals(reader.get(SubTypesScanner.class, "A"), reader.stream(SubTypesScanner.class, "A").collect(Collectors.toSet()));
+                assertEquals(reader.get(SubTypesScanner.class, "A").size(), reader.stream(SubTypesScanner.class, "A").count());
+                assertEquals(reader.getAll(SubTypesScanner.class, "B"), reader.streamAll(SubTypesScanner.class, "B").collect(Collectors.toSet()));
+                assertEquals(reader.getAllIncluding(SubTypesScanner.class, Arrays.asList("B", "C")),
+                        reader.streamAllIncluding(SubTypesScanner.class, Arrays.asList("B", "C")).collect(Collectors.toSet()));
+                assertEquals(reader.get(SubTypesScanner.class, Arrays.asList("A", "B")),
+                        reader.stream(SubTypesScanner.class, Arrays.asList("A", "B")).collect(Collectors.toSet()));
+                assertEquals(reader.keys("SubTypesScanner"), reader.keyStream("SubTypesScanner").collect(Collectors.toSet()));
+                assertEquals(reader.values("SubTypesScanner"), reader.valueStream("SubTypesScanner").collect(Collectors.toSet()));
+            }
+        }
+    }
+
+    @Test
+    public void testLazyClosure() {
+        AtomicInteger lookups = new AtomicInteger();
+        Store store = new Store(new ConfigurationBuilder().setScanners(new SubTypesScanner())) {
+            @Override
+            protected Collection<String> lookup(String index, String key) {
+                lookups.incrementAndGet();
+                return super.lookup(index, key);
+            }
+        };
+        for (int i = 0; i < 100; i++) {
+            store.put(SubTypesScanner.class, "T" + i, "T" + (i + 1));
+        }
+        assertEquals("T1", store.streamAll(SubTypesScanner.class, "T0").findFirst().orElse(null));
+        assertTrue(lookups.get() <= 2, lookups.toString());
+        assertEquals(100, store.streamAll(SubTypesScanner.class, "T0").count());
+    }
+}
@@ -0,0 +1,73 @@
+package com.phyzicsz.rocket.reflection;
+
+import com.phyzicsz.rocket.reflection.index.TypeHierarchy;
+import com.phyzicsz.rocket.reflection.scanners.SubTypesScanner;
+import com.phyzicsz.rocket.reflection.util.ConfigurationBuilder;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the interval labelled type hierarchy against the store walk
+ */
+public class TypeHierarchyTest {
+
+    private static Store store() {
+        return new Store(new ConfigurationBuilder().setScanners(new SubTypesScanner()));
+    }
+
+    @Test
+    public void testDiamond() {
+        Store store = store();
+        store.put(SubTypesScanner.class, "A", "B");
+        store.put(SubTypesScanner.class, "A", "C");
+        store.put(SubTypesScanner.class, "B", "D");
+        store.put(SubTypesScanner.class, "C", "D");
+        store.put(SubTypesScanner.class, "I", "C");
+        store.put(SubTypesScanner.class, "I", "E");
+        TypeHierarchy hierarchy = TypeHierarchy.of(store);
+
+        assertEquals(new HashSet<>(Arrays.asList("B", "C", "D")), hierarchy.getSubTypes("A"));
+        assertEquals(new HashSet<>(Arrays.asList("C", "D", "E")), hierarchy.getSubTypes("I"));
+        assertEquals(3, hierarchy.countSubTypes("I"));
+        assertTrue(hierarchy.isSubtype("D", "I"));
+        assertTrue(hierarchy.isSubtype("D", "D"));
+        assertFalse(hierarchy.isSubtype("E", "A"));
+        assertFalse(hierarchy.isSubtype("A", "D"));
+        assertFalse(hierarchy.isSubtype("X", "A"));
+        assertTrue(hierarchy.getSubTypes("X").isEmpty());
+        assertEquals(new HashSet<>(Arrays.asList("B", "D", "X")), hierarchy.getSubTypesIncluding(Arrays.asList("B", "X")));
+    }
+
+    @Test
+    public void testSameAsStore() {
+        Random random = new Random(42);
+        Store store = store();
+        for (int type = 1; type < 500; type++) {
+            //a class extends a type before it, and may implement a few interfaces
+            store.put(SubTypesScanner.class, "T" + random.nextInt(type), "T" + type);
+            for (int i = random.nextInt(3); i > 0; i--) {
+                store.put(SubTypesScanner.class, "I" + random.nextInt(50), "T" + type);
+            }
+        }
+        TypeHierarchy hierarchy = TypeHierarchy.of(store);
+        for (String type : store.keys(SubTypesScanner.class.getSimpleName())) {
+            assertEquals(store.getAll(SubTypesScanner.class, type), hierarchy.getSubTypes(type));
+            assertEquals(store.getAll(SubTypesScanner.class, type).size(), hierarchy.countSubTypes(type));
+        }
+    }
+
+    @Test
+    public void testCycle() {
+        Store store = store();
+        store.put(SubTypesScanner.class, "A", "B");
+        store.put(SubTypesScanner.class, "B", "A");
+        TypeHierarchy hierarchy = TypeHierarchy.of(store);
+        assertEquals(2, hierarchy.size());
+        assertTrue(hierarchy.isSubtype("B", "A"));
+    }
+}